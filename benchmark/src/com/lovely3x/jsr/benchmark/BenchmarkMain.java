@@ -0,0 +1,30 @@
+package com.lovely3x.jsr.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 运行所有基准测试,报告吞吐量和 gc 分析器给出的内存分配速率(gc.alloc.rate 和 gc.alloc.rate.norm)
+ * <p>
+ * 基准测试模块需要开启注解处理(jmh-generator-annprocess 生成测试代码),不依赖IDE,
+ * 资源树创建在系统的临时文件夹中,测试结束后删除。
+ * 命令行参数和 JMH 相同,例如 {@code -p fileCount=10000 Scan} 只运行一万个文件的扫描测试。
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(commandLine);
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include(BenchmarkMain.class.getPackage().getName() + ".*");
+        }
+        Options options = builder.addProfiler(GCProfiler.class).build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,70 @@
+package com.lovely3x.jsr.benchmark;
+
+import com.lovely3x.jsr.config.JsrConfig;
+import com.lovely3x.jsr.generator.NameConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 路径到变量名的转换:没有缓存时(规则变化后的第一次生成)和缓存全部命中时(之后的每一次生成)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConvertBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int fileCount;
+
+    /**
+     * res/ 开头的路径,和生成时传给转换器的相同
+     */
+    private List<String> mPaths;
+
+    private NameConverter mCachedConverter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mPaths = new ArrayList<>(fileCount);
+        for (String path : ResourceTree.paths(fileCount)) {
+            mPaths.add("res/" + path);
+        }
+        mCachedConverter = new NameConverter(JsrConfig.DEFAULT);
+        for (String path : mPaths) {
+            mCachedConverter.convert(path);
+        }
+    }
+
+    @Benchmark
+    public void convertUncached(Blackhole blackhole) {
+        NameConverter converter = new NameConverter(JsrConfig.DEFAULT);
+        for (String path : mPaths) {
+            blackhole.consume(converter.convert(path));
+        }
+    }
+
+    @Benchmark
+    public void convertCached(Blackhole blackhole) {
+        for (String path : mPaths) {
+            blackhole.consume(mCachedConverter.convert(path));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.lovely3x.jsr.benchmark;
+
+import com.lovely3x.jsr.config.JsrConfig;
+import com.lovely3x.jsr.config.JsrConfigLoader;
+import com.lovely3x.jsr.config.RootConfig;
+import com.lovely3x.jsr.generator.DuplicateSet;
+import com.lovely3x.jsr.generator.Emitter;
+import com.lovely3x.jsr.generator.FileReaderPool;
+import com.lovely3x.jsr.generator.GenerationMetrics;
+import com.lovely3x.jsr.generator.NameConverter;
+import com.lovely3x.jsr.generator.ResourceScanner;
+import com.lovely3x.jsr.generator.ScanResult;
+import com.lovely3x.jsr.generator.SourceGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次完整的重新生成:完整扫描,然后由 {@link SourceGenerator} 转换变量名、整理预加载列表并渲染模板,
+ * 和点击 Rebuild resource 或者运行命令行时执行的步骤相同。
+ * 资源没有变化,所以除了第一次之外生成的文件都只会计算摘要而不会被写入
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenerateBenchmark {
+
+    private static final SourceGenerator.Callback CALLBACK = new SourceGenerator.Callback() {
+        @Override
+        public boolean isCanceled() {
+            return false;
+        }
+
+        @Override
+        public void onProgress(String text) {
+        }
+
+        @Override
+        public void onDuplicatesFound(List<DuplicateSet> duplicates) {
+        }
+
+        @Override
+        public void onFileWritten(File file, boolean direct) {
+        }
+    };
+
+    @Param({"1000", "10000", "100000"})
+    int fileCount;
+
+    private ResourceTree mTree;
+
+    private ResourceScanner mScanner;
+
+    private FileReaderPool mFileReaderPool;
+
+    private SourceGenerator mGenerator;
+
+    private RootConfig mRootConfig;
+
+    private List<Emitter> mEmitters;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mTree = ResourceTree.create(fileCount);
+        String projectBasePath = mTree.getProjectDir().toString();
+        JsrConfig config = new JsrConfigLoader(projectBasePath).load();
+        mRootConfig = config.getRoots().get(0);
+        mScanner = new ResourceScanner(Runtime.getRuntime().availableProcessors());
+        mFileReaderPool = new FileReaderPool(Runtime.getRuntime().availableProcessors());
+        mGenerator = new SourceGenerator(mFileReaderPool);
+        mEmitters = mGenerator.createEmitters(projectBasePath, mRootConfig);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        mScanner.shutdown();
+        mFileReaderPool.shutdown();
+        mTree.delete();
+    }
+
+    @Benchmark
+    public boolean generateSourceFile() throws IOException {
+        ScanResult result = mScanner.scan(mTree.getRoot(), "", null, mRootConfig.getFilter(), () -> false);
+        return mGenerator.generate(mTree.getProjectDir().toString(), mRootConfig, mEmitters,
+                new NameConverter(JsrConfig.DEFAULT), result.getFiles(), new GenerationMetrics(""), CALLBACK);
+    }
+}
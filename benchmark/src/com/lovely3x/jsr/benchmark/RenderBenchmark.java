@@ -0,0 +1,146 @@
+package com.lovely3x.jsr.benchmark;
+
+import com.lovely3x.jsr.config.JsrConfig;
+import com.lovely3x.jsr.generator.NameConverter;
+import com.lovely3x.jsr.generator.PreloadLists;
+import com.lovely3x.jsr.generator.SourceTemplate;
+import com.lovely3x.jsr.utils.StreamUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 把资源表写为js对象(只有资源表的模板),以及使用默认模板同时写出预加载列表,
+ * 写入的内容被直接丢弃,只测量生成本身
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int fileCount;
+
+    /**
+     * 只有资源表的模板
+     */
+    private SourceTemplate mResourcesTemplate;
+
+    private SourceTemplate mTemplate;
+
+    /**
+     * 使用循环逐个输出资源的模板
+     */
+    private SourceTemplate mLoopTemplate;
+
+    private List<String> mPaths;
+
+    private Map<String, String> mResources;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mResourcesTemplate = SourceTemplate.compile("var res = %%;\n", JsrConfig.DEFAULT_TEMPLATE_INDICATOR);
+        mTemplate = defaultTemplate();
+        mLoopTemplate = SourceTemplate.compile("{{! jsr-template }}\n"
+                + "var res = {\n"
+                + "{{each}}\n"
+                + "\t{{name}} : {{url | js}}{{if !last}},{{end}}\n"
+                + "{{end}}\n"
+                + "};\n", JsrConfig.DEFAULT_TEMPLATE_INDICATOR);
+        mPaths = ResourceTree.paths(fileCount);
+        mResources = new HashMap<>();
+        NameConverter converter = new NameConverter(JsrConfig.DEFAULT);
+        for (String path : mPaths) {
+            String relativePath = "res/" + path;
+            mResources.put(converter.convert(relativePath), relativePath);
+        }
+    }
+
+    @Benchmark
+    public long render() throws IOException {
+        CountingWriter out = new CountingWriter();
+        mResourcesTemplate.render(out, mResources);
+        return out.mCount;
+    }
+
+    @Benchmark
+    public long renderLoop() throws IOException {
+        CountingWriter out = new CountingWriter();
+        mLoopTemplate.render(out, mResources);
+        return out.mCount;
+    }
+
+    @Benchmark
+    public long renderWithPreload() throws IOException {
+        PreloadLists preload = new PreloadLists(Collections.emptyMap());
+        for (String path : mPaths) {
+            preload.add(path, "res/" + path);
+        }
+        CountingWriter out = new CountingWriter();
+        mTemplate.render(out, mResources, preload);
+        return out.mCount;
+    }
+
+    /**
+     * @return 插件自带的默认模板
+     */
+    static SourceTemplate defaultTemplate() {
+        InputStream in = RenderBenchmark.class.getResourceAsStream("/resource.js");
+        String content = StreamUtils.readToString(in);
+        StreamUtils.close(in);
+        return SourceTemplate.compile(content, JsrConfig.DEFAULT_TEMPLATE_INDICATOR,
+                JsrConfig.DEFAULT_PRELOAD_INDICATOR);
+    }
+
+    /**
+     * 只统计字符数的Writer
+     */
+    private static final class CountingWriter extends Writer {
+
+        private long mCount;
+
+        @Override
+        public void write(int c) {
+            mCount++;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            mCount += length;
+        }
+
+        @Override
+        public void write(String str, int offset, int length) {
+            mCount += length;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.lovely3x.jsr.benchmark;
+
+import com.lovely3x.jsr.config.JsrConfig;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * 在临时文件夹中生成的项目,资源树位于其中的 res 文件夹,结构接近真实的游戏项目:
+ * 按模块分组的两到四层文件夹,每个文件夹十几到几十个文件,图片、图集、字体、音频、地图混合,
+ * 文件名中带有大小写、数字、横线和下划线。随机种子固定,同样的文件数量生成的树完全相同。
+ */
+final class ResourceTree {
+
+    private static final String[] MODULES = {"ui", "scene", "effect", "role", "map", "font", "audio", "bgm"};
+
+    private static final String[] WORDS = {"btn", "Bg", "icon", "hero", "enemy", "coin", "star", "panel",
+            "tile", "shadow", "glow", "Boss", "item", "frame", "arrow", "title"};
+
+    private static final String[][] EXTENSIONS = {
+            {".png", ".png", ".png", ".jpg", ".plist"},
+            {".png", ".plist", ".json", ".jpg"},
+            {".png", ".plist", ".ExportJson"},
+            {".png", ".plist", ".json"},
+            {".tmx", ".png", ".tsx"},
+            {".fnt", ".png", ".ttf"},
+            {".mp3", ".ogg", ".wav"},
+            {".mp3", ".ogg"},
+    };
+
+    private static final int FILES_PER_DIRECTORY = 24;
+
+    private final Path mProjectDir;
+
+    private final Path mRoot;
+
+    /**
+     * 相对于资源文件夹的路径,按字典序排列
+     */
+    private final List<String> mPaths;
+
+    private ResourceTree(Path projectDir, List<String> paths) {
+        this.mProjectDir = projectDir;
+        this.mRoot = projectDir.resolve(JsrConfig.DEFAULT_RES_DIR);
+        this.mPaths = paths;
+    }
+
+    /**
+     * 在临时文件夹中创建资源树
+     *
+     * @param fileCount 文件数量
+     */
+    static ResourceTree create(int fileCount) throws IOException {
+        Path projectDir = Files.createTempDirectory("jsr-benchmark");
+        Path root = projectDir.resolve(JsrConfig.DEFAULT_RES_DIR);
+        List<String> paths = paths(fileCount);
+        byte[] content = new byte[64];
+        for (String path : paths) {
+            Path file = root.resolve(path);
+            Files.createDirectories(file.getParent());
+            Files.write(file, content);
+        }
+        Collections.sort(paths);
+        return new ResourceTree(projectDir, paths);
+    }
+
+    /**
+     * 只生成路径,不创建文件
+     *
+     * @param fileCount 文件数量
+     * @return 相对于资源文件夹的路径
+     */
+    static List<String> paths(int fileCount) {
+        Random random = new Random(fileCount);
+        List<String> paths = new ArrayList<>(fileCount);
+        int directory = 0;
+        while (paths.size() < fileCount) {
+            int module = directory % MODULES.length;
+            StringBuilder dir = new StringBuilder(MODULES[module]);
+            int depth = 1 + random.nextInt(3);
+            for (int level = 0; level < depth; level++) {
+                dir.append('/').append(WORDS[random.nextInt(WORDS.length)]).append('_').append(level)
+                        .append(random.nextInt(4));
+            }
+            dir.append('/').append(String.format(Locale.US, "d%05d", directory));
+
+            int files = Math.min(fileCount - paths.size(), FILES_PER_DIRECTORY / 2 + random.nextInt(FILES_PER_DIRECTORY));
+            String[] extensions = EXTENSIONS[module];
+            for (int i = 0; i < files; i++) {
+                String word = WORDS[random.nextInt(WORDS.length)];
+                String separator = random.nextBoolean() ? "-" : "_";
+                paths.add(dir + "/" + word + separator + i + extensions[random.nextInt(extensions.length)]);
+            }
+            directory++;
+        }
+        return paths;
+    }
+
+    /**
+     * @return 项目根目录,使用默认配置
+     */
+    Path getProjectDir() {
+        return mProjectDir;
+    }
+
+    /**
+     * @return 资源文件夹
+     */
+    Path getRoot() {
+        return mRoot;
+    }
+
+    List<String> getPaths() {
+        return mPaths;
+    }
+
+    /**
+     * 删除整个项目
+     */
+    void delete() throws IOException {
+        Files.walkFileTree(mProjectDir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,67 @@
+package com.lovely3x.jsr.benchmark;
+
+import com.lovely3x.jsr.config.ResourceFilter;
+import com.lovely3x.jsr.generator.IndexSnapshot;
+import com.lovely3x.jsr.generator.ResourceScanner;
+import com.lovely3x.jsr.generator.ScanResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 资源扫描:完整扫描,以及文件夹修改时间都没有变化时复用上一次结果的增量扫描(打开项目时的情况)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScanBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int fileCount;
+
+    private ResourceTree mTree;
+
+    private ResourceScanner mScanner;
+
+    private IndexSnapshot mSnapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mTree = ResourceTree.create(fileCount);
+        mScanner = new ResourceScanner(Runtime.getRuntime().availableProcessors());
+        ScanResult result = mScanner.scan(mTree.getRoot(), "");
+        mSnapshot = new IndexSnapshot(result.getFiles(), result.getDirectories());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        mScanner.shutdown();
+        mTree.delete();
+    }
+
+    @Benchmark
+    public ScanResult fullScan() {
+        return mScanner.scan(mTree.getRoot(), "", null, ResourceFilter.ALL, () -> false);
+    }
+
+    @Benchmark
+    public ScanResult incrementalScan() {
+        return mScanner.scan(mTree.getRoot(), "", mSnapshot, ResourceFilter.ALL, () -> false);
+    }
+}
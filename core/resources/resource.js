@@ -0,0 +1,32 @@
+{{! jsr-template }}
+var res =%%;
+{{if frames}}
+
+var res_frames = {{frames}};
+{{end}}
+{{if dependencies}}
+
+var res_deps = {{dependencies}};
+{{end}}
+{{if variants}}
+
+var res_variants = {{variants}};
+{{end}}
+
+var g_preload =%%preload%%;
+
+var g_resources = [].concat(
+    //image
+    g_preload.image,
+    //plist
+    g_preload.plist,
+    //fnt
+    g_preload.fnt,
+    //tmx
+    g_preload.tmx,
+    //bgm
+    g_preload.bgm,
+    //effect
+    g_preload.effect,
+    g_preload.other
+);
@@ -0,0 +1,237 @@
+package com.lovely3x.jsr.cli;
+
+import com.lovely3x.jsr.config.JsrConfig;
+import com.lovely3x.jsr.config.JsrConfigLoader;
+import com.lovely3x.jsr.config.RootConfig;
+import com.lovely3x.jsr.generator.DuplicateSet;
+import com.lovely3x.jsr.generator.Emitter;
+import com.lovely3x.jsr.generator.FileReaderPool;
+import com.lovely3x.jsr.generator.GeneratedFiles;
+import com.lovely3x.jsr.generator.GenerationMetrics;
+import com.lovely3x.jsr.generator.IndexSnapshot;
+import com.lovely3x.jsr.generator.MetricsLog;
+import com.lovely3x.jsr.generator.NameConverter;
+import com.lovely3x.jsr.generator.ResourceScanner;
+import com.lovely3x.jsr.generator.ScanResult;
+import com.lovely3x.jsr.generator.SourceGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 不依赖IDE的生成器,命令行使用
+ * <p>
+ * 和插件使用同一个 {@link SourceGenerator},每次生成前扫描资源文件夹代替插件中由文件事件维护的索引。
+ * 监听模式下会记住上一次的扫描结果,只重新扫描修改时间发生了变化的文件夹;
+ * 生成的内容和资源文件的内容有关时(元数据、内容摘要)每次都完整扫描,以便得到最新的文件大小和修改时间。
+ */
+class HeadlessGenerator {
+
+    private final String mProjectBasePath;
+
+    private final JsrConfigLoader mConfigLoader;
+
+    /**
+     * 普通输出,安静模式下为null
+     */
+    private final PrintStream mOut;
+
+    private final PrintStream mErr;
+
+    private final FileReaderPool mFileReaderPool;
+
+    private final SourceGenerator mSourceGenerator;
+
+    private JsrConfig mConfig = JsrConfig.DEFAULT;
+
+    private NameConverter mNameConverter = new NameConverter(mConfig);
+
+    private ResourceScanner mResourceScanner;
+
+    /**
+     * 资源文件夹的绝对路径 -> 生成器
+     */
+    private final Map<String, List<Emitter>> mEmitters = new HashMap<>();
+
+    /**
+     * 资源文件夹的绝对路径 -> 上一次的扫描结果
+     */
+    private final Map<String, IndexSnapshot> mSnapshots = new HashMap<>();
+
+    /**
+     * 资源文件夹的绝对路径 -> {累计的文件事件数量, 累计的生成次数}
+     */
+    private final Map<String, long[]> mTotals = new HashMap<>();
+
+    /**
+     * 生成统计日志,没有指定时为null
+     */
+    private MetricsLog mMetricsLog;
+
+    HeadlessGenerator(String projectBasePath, PrintStream out, PrintStream err) {
+        this.mProjectBasePath = projectBasePath;
+        this.mConfigLoader = new JsrConfigLoader(projectBasePath);
+        this.mOut = out;
+        this.mErr = err;
+        this.mFileReaderPool = new FileReaderPool(mConfig.getScanParallelism());
+        this.mSourceGenerator = new SourceGenerator(mFileReaderPool);
+    }
+
+    String getProjectBasePath() {
+        return mProjectBasePath;
+    }
+
+    /**
+     * @return 生成时写入资源文件夹的文件
+     */
+    GeneratedFiles getGeneratedFiles() {
+        return mSourceGenerator.getGeneratedFiles();
+    }
+
+    JsrConfig getConfig() {
+        return mConfig;
+    }
+
+    void setMetricsLog(MetricsLog metricsLog) {
+        this.mMetricsLog = metricsLog;
+    }
+
+    /**
+     * 读取 jsr.json 和 project.json,重新编译发生了变化的模板
+     *
+     * @return 配置是否有效,无效时继续使用上一次的配置
+     */
+    synchronized boolean loadConfiguration() {
+        JsrConfig config = mConfigLoader.load();
+        String error = mConfigLoader.getLastError();
+        if (error != null) {
+            mErr.println("Invalid jsr configuration: " + error);
+            return false;
+        }
+
+        //模板有错误时继续使用上一次的配置和模板
+        Map<String, List<Emitter>> emitters = new HashMap<>();
+        try {
+            for (RootConfig rootConfig : config.getRoots()) {
+                emitters.put(basePath(rootConfig), mSourceGenerator.createEmitters(mProjectBasePath, rootConfig));
+            }
+        } catch (IllegalArgumentException e) {
+            mErr.println("Invalid template: " + e.getMessage());
+            return false;
+        }
+
+        mConfig = config;
+        if (!mNameConverter.isSameRule(config)) mNameConverter = new NameConverter(config);
+        if (mResourceScanner == null || mResourceScanner.getParallelism() != config.getScanParallelism()) {
+            if (mResourceScanner != null) mResourceScanner.shutdown();
+            mResourceScanner = new ResourceScanner(config.getScanParallelism());
+        }
+        mFileReaderPool.setParallelism(config.getScanParallelism());
+
+        mEmitters.clear();
+        mEmitters.putAll(emitters);
+        mSnapshots.clear();
+        return true;
+    }
+
+    /**
+     * 生成所有资源根目录
+     *
+     * @return 是否全部成功
+     */
+    synchronized boolean generateAll() {
+        boolean success = true;
+        for (RootConfig rootConfig : mConfig.getRoots()) {
+            success &= generate(rootConfig, 0);
+        }
+        return success;
+    }
+
+    /**
+     * 扫描并生成一个资源根目录
+     *
+     * @param rootConfig 资源根目录的配置
+     * @param events     本次生成合并的文件事件数量,不是由文件事件触发时为0
+     * @return 是否成功
+     */
+    synchronized boolean generate(RootConfig rootConfig, int events) {
+        String basePath = basePath(rootConfig);
+        File resourceBaseFile = rootConfig.resolveResourceDir(mProjectBasePath);
+        GenerationMetrics metrics = new GenerationMetrics(basePath);
+
+        long scanStart = System.nanoTime();
+        IndexSnapshot previous = rootConfig.isContentSensitive() ? null : mSnapshots.get(basePath);
+        ScanResult result = mResourceScanner.scan(resourceBaseFile.toPath(), "", previous,
+                rootConfig.getFilter(), () -> false);
+        mSnapshots.put(basePath, new IndexSnapshot(result.getFiles(), result.getDirectories()));
+        metrics.setScan((System.nanoTime() - scanStart) / 1000000, result);
+
+        long[] totals = mTotals.computeIfAbsent(basePath, k -> new long[2]);
+        totals[0] += events;
+        totals[1]++;
+        metrics.setEvents(events, totals[0], totals[1]);
+
+        try {
+            boolean written = mSourceGenerator.generate(mProjectBasePath, rootConfig, mEmitters.get(basePath),
+                    mNameConverter, result.getFiles(), metrics, new SourceGenerator.Callback() {
+                        @Override
+                        public boolean isCanceled() {
+                            return false;
+                        }
+
+                        @Override
+                        public void onProgress(String text) {
+                        }
+
+                        @Override
+                        public void onDuplicatesFound(List<DuplicateSet> duplicates) {
+                            if (mOut == null) return;
+                            for (DuplicateSet set : duplicates) {
+                                mOut.println(String.format(Locale.US, "Duplicate content (%d bytes): %s",
+                                        set.getSize(), set.getPaths()));
+                            }
+                        }
+
+                        @Override
+                        public void onFileWritten(File file, boolean direct) {
+                            if (mOut != null) mOut.println("Generated " + file);
+                        }
+                    });
+            metrics.finish();
+            if (mOut != null) {
+                mOut.println(String.format(Locale.US, "%s %d resource(s) from %s in %d ms"
+                                + " (scan %d ms, hash %d ms, render %d ms, %d file(s) written, %d unchanged)",
+                        written ? "Wrote" : "Unchanged,", metrics.getFileCount(), rootConfig.getResDir(),
+                        metrics.getTotalMillis(), metrics.getScanMillis(), metrics.getHashMillis(),
+                        metrics.getRenderMillis(), metrics.getFilesWritten(), metrics.getWritesSkipped()));
+            }
+            if (mMetricsLog != null) {
+                try {
+                    mMetricsLog.append(metrics);
+                } catch (IOException e) {
+                    mErr.println("Write generation metrics failed: " + e);
+                }
+            }
+            return true;
+        } catch (IllegalArgumentException e) {
+            mErr.println(e.getMessage());
+        } catch (IOException e) {
+            mErr.println("Generate source file failed: " + e);
+        }
+        return false;
+    }
+
+    private String basePath(RootConfig rootConfig) {
+        return rootConfig.resolveResourceDir(mProjectBasePath).getAbsolutePath();
+    }
+
+    void shutdown() {
+        if (mResourceScanner != null) mResourceScanner.shutdown();
+        mFileReaderPool.shutdown();
+    }
+}
@@ -0,0 +1,105 @@
+package com.lovely3x.jsr.cli;
+
+import com.lovely3x.jsr.generator.MetricsLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+
+/**
+ * 命令行入口,没有安装 WebStorm 的机器(持续集成、美术)也可以生成资源文件
+ * <p>
+ * 用法: {@code java -jar Cocos2d-JSR-cli.jar [-w] [-q] [--metrics-log 文件] [项目根目录]}
+ * 读取项目根目录中的 jsr.json 和 project.json,生成的文件和插件生成的完全相同。
+ * 默认生成一次后退出,{@code -w} 持续监听资源文件夹和配置文件的变化。
+ * {@code --metrics-log} 把每次生成的统计数据追加到一个滚动的JSON行日志中。
+ * 退出码: 0 成功, 1 配置无效或者生成失败, 2 参数错误。
+ */
+public final class JsrCli {
+
+    private static final int EXIT_OK = 0;
+    private static final int EXIT_FAILED = 1;
+    private static final int EXIT_USAGE = 2;
+
+    private static final String USAGE = "Usage: jsr [options] [project-dir]\n"
+            + "Generates resource.js from the resource folders configured in jsr.json / project.json.\n"
+            + "\n"
+            + "Options:\n"
+            + "  -w, --watch   keep running and regenerate when resources or configuration change\n"
+            + "  -q, --quiet   only print errors\n"
+            + "  --metrics-log <file>\n"
+            + "                append per-run generation metrics to <file> as JSON lines\n"
+            + "  -h, --help    print this help";
+
+    private JsrCli() {
+    }
+
+    public static void main(String[] args) {
+        int code = run(args, System.out, System.err);
+        if (code != EXIT_OK) System.exit(code);
+    }
+
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        boolean watch = false;
+        boolean quiet = false;
+        String projectDir = null;
+        String metricsLog = null;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "-w":
+                case "--watch":
+                    watch = true;
+                    break;
+                case "-q":
+                case "--quiet":
+                    quiet = true;
+                    break;
+                case "--metrics-log":
+                    if (++i == args.length) {
+                        err.println("Missing file for " + arg);
+                        err.println(USAGE);
+                        return EXIT_USAGE;
+                    }
+                    metricsLog = args[i];
+                    break;
+                case "-h":
+                case "--help":
+                    out.println(USAGE);
+                    return EXIT_OK;
+                default:
+                    if (arg.startsWith("-") || projectDir != null) {
+                        err.println("Unknown argument: " + arg);
+                        err.println(USAGE);
+                        return EXIT_USAGE;
+                    }
+                    projectDir = arg;
+            }
+        }
+
+        File project = new File(projectDir == null ? "." : projectDir).getAbsoluteFile();
+        if (!project.isDirectory()) {
+            err.println("Project directory not found: " + project);
+            return EXIT_USAGE;
+        }
+
+        HeadlessGenerator generator = new HeadlessGenerator(project.getPath(), quiet ? null : out, err);
+        if (metricsLog != null) generator.setMetricsLog(new MetricsLog(new File(metricsLog).getAbsoluteFile()));
+        try {
+            if (!watch) {
+                return generator.loadConfiguration() && generator.generateAll() ? EXIT_OK : EXIT_FAILED;
+            }
+
+            //配置无效时也继续监听,等待配置被修正
+            generator.loadConfiguration();
+            if (!quiet) out.println("Watching " + project + ", press Ctrl+C to stop");
+            new ResourceWatcher(generator, err).run();
+            return EXIT_OK;
+        } catch (IOException e) {
+            err.println("Watch failed: " + e);
+            return EXIT_FAILED;
+        } finally {
+            generator.shutdown();
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.lovely3x.jsr.cli;
+
+import com.lovely3x.jsr.config.JsrConfig;
+import com.lovely3x.jsr.config.JsrConfigLoader;
+import com.lovely3x.jsr.config.ResourceFilter;
+import com.lovely3x.jsr.config.RootConfig;
+import com.lovely3x.jsr.generator.GeneratedFiles;
+import com.lovely3x.jsr.generator.PathTrie;
+import com.lovely3x.jsr.generator.RegenerateScheduler;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * 监听模式:使用 {@link WatchService} 监听所有资源文件夹和配置文件,变化后重新生成
+ * <p>
+ * 每个资源根目录都有自己的 {@link RegenerateScheduler},窗口期和插件相同(regenerateQuietMillis / regenerateMaxDelayMillis),
+ * 一连串的文件变化只会触发一次生成;所有的生成都在同一个调度线程中执行。
+ * WatchService 不能递归监听,每个没有被排除的文件夹都需要单独注册,新创建的文件夹在收到事件时注册。
+ * 隐藏的文件和扫描时一样被忽略,隐藏的文件夹和扫描时一样会被监听。生成时打包的图集也会产生事件,
+ * 窗口期结束时如果只有这些文件被创建或修改,并且和写入时相同,就不会再生成一次。
+ */
+class ResourceWatcher {
+
+    /**
+     * 调度标识: 资源文件夹发生了需要重新生成的变化
+     */
+    private static final int FLAG_CHANGED = 1;
+
+    /**
+     * 调度标识: 有文件被创建或修改,生成前判断它们是不是生成时写入的图集
+     */
+    private static final int FLAG_WRITTEN = 1 << 1;
+
+    private final HeadlessGenerator mGenerator;
+
+    private final PrintStream mErr;
+
+    private final Path mProjectDir;
+
+    private final WatchService mWatchService;
+
+    private final ScheduledExecutorService mExecutor = RegenerateScheduler.newExecutor();
+
+    /**
+     * 配置文件变化的调度器
+     */
+    private final RegenerateScheduler mConfigScheduler;
+
+    /**
+     * 注册的文件夹
+     */
+    private final Map<WatchKey, Path> mKeys = new ConcurrentHashMap<>();
+
+    /**
+     * 资源文件夹的绝对路径 -> 资源根目录,修改后整体替换
+     */
+    private volatile PathTrie<WatchedRoot> mRootTrie = new PathTrie<>();
+
+    private final List<WatchedRoot> mRoots = new ArrayList<>();
+
+    ResourceWatcher(HeadlessGenerator generator, PrintStream err) throws IOException {
+        this.mGenerator = generator;
+        this.mErr = err;
+        this.mProjectDir = Paths.get(generator.getProjectBasePath()).toAbsolutePath().normalize();
+        this.mWatchService = FileSystems.getDefault().newWatchService();
+
+        JsrConfig config = generator.getConfig();
+        this.mConfigScheduler = new RegenerateScheduler(mExecutor, config.getRegenerateQuietMillis(),
+                config.getRegenerateMaxDelayMillis(), (flags, events) -> reconfigure(), this::onError);
+    }
+
+    /**
+     * 开始监听,直到线程被中断或者 WatchService 被关闭
+     */
+    void run() throws IOException {
+        register(mProjectDir);
+        mExecutor.execute(this::updateRoots);
+
+        try {
+            while (true) {
+                WatchKey key = mWatchService.take();
+                Path dir = mKeys.get(key);
+                if (dir != null) onEvents(dir, key.pollEvents());
+                if (!key.reset()) mKeys.remove(key);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            mExecutor.shutdownNow();
+            mWatchService.close();
+        }
+    }
+
+    private void onEvents(Path dir, List<WatchEvent<?>> events) {
+        PathTrie<WatchedRoot> trie = mRootTrie;
+        for (WatchEvent<?> event : events) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                //事件丢失了,所有资源根目录都需要重新生成
+                for (WatchedRoot root : rootsSnapshot()) {
+                    root.mScheduler.schedule(FLAG_CHANGED);
+                }
+                continue;
+            }
+
+            Path path = dir.resolve((Path) event.context());
+            if (dir.equals(mProjectDir) && isDescriptionFile(path)) {
+                mConfigScheduler.schedule(1);
+            }
+
+            WatchedRoot root = trie.findOwner(toSystemIndependentPath(path));
+            if (root == null) continue;
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                registerAll(root, path);
+            } else if (ResourceFilter.isHidden(path.getFileName().toString(), false)) {
+                //隐藏的文件不是资源,例如打包图集时的临时文件
+                continue;
+            }
+            if (event.kind() != StandardWatchEventKinds.ENTRY_DELETE && Files.isRegularFile(path)) {
+                root.mWritten.add(path);
+                root.mScheduler.schedule(FLAG_WRITTEN);
+            } else {
+                root.mScheduler.schedule(FLAG_CHANGED);
+            }
+        }
+    }
+
+    /**
+     * 窗口期结束,在调度线程中执行;生成也在这个线程中执行,所以这时本次生成写入的图集都已经被记录
+     */
+    private void regenerate(WatchedRoot root, int flags, int events) {
+        List<Path> written = new ArrayList<>(root.mWritten);
+        root.mWritten.removeAll(written);
+        if ((flags & FLAG_CHANGED) == 0 && isGenerated(written)) return;
+        mGenerator.generate(root.mRootConfig, events);
+    }
+
+    /**
+     * @return 所有的文件是否都是生成时写入的,并且之后没有被修改
+     */
+    private boolean isGenerated(List<Path> files) {
+        GeneratedFiles generated = mGenerator.getGeneratedFiles();
+        for (Path file : files) {
+            if (!generated.isUnchanged(file.toFile())) return false;
+        }
+        return true;
+    }
+
+    private static boolean isDescriptionFile(Path path) {
+        String name = path.getFileName().toString();
+        return JsrConfigLoader.JSR_JSON_FILE.equals(name) || JsrConfigLoader.PROJECT_JSON_FILE.equals(name);
+    }
+
+    /**
+     * 配置文件发生了变化,在调度线程中执行
+     */
+    private void reconfigure() {
+        if (!mGenerator.loadConfiguration()) return;
+
+        JsrConfig config = mGenerator.getConfig();
+        mConfigScheduler.setDelays(config.getRegenerateQuietMillis(), config.getRegenerateMaxDelayMillis());
+        for (Map.Entry<WatchKey, Path> entry : mKeys.entrySet()) {
+            if (!entry.getValue().equals(mProjectDir)) {
+                entry.getKey().cancel();
+                mKeys.remove(entry.getKey());
+            }
+        }
+        updateRoots();
+    }
+
+    /**
+     * 按照当前配置注册所有资源根目录并生成一次,在调度线程中执行
+     */
+    private void updateRoots() {
+        for (WatchedRoot root : rootsSnapshot()) {
+            root.mScheduler.shutdown();
+        }
+
+        JsrConfig config = mGenerator.getConfig();
+        List<WatchedRoot> roots = new ArrayList<>();
+        PathTrie<WatchedRoot> trie = new PathTrie<>();
+        for (RootConfig rootConfig : config.getRoots()) {
+            WatchedRoot root = new WatchedRoot(rootConfig);
+            root.mScheduler = new RegenerateScheduler(mExecutor, config.getRegenerateQuietMillis(),
+                    config.getRegenerateMaxDelayMillis(), (flags, events) -> regenerate(root, flags, events),
+                    this::onError);
+            Path dir = rootConfig.resolveResourceDir(mGenerator.getProjectBasePath()).toPath().toAbsolutePath().normalize();
+            root.mBasePath = dir;
+            if (Files.isDirectory(dir)) registerAll(root, dir);
+            trie.put(toSystemIndependentPath(dir), root);
+            roots.add(root);
+        }
+        synchronized (mRoots) {
+            mRoots.clear();
+            mRoots.addAll(roots);
+        }
+        mRootTrie = trie;
+
+        mGenerator.generateAll();
+    }
+
+    private void onError(Throwable e) {
+        mErr.println("Regenerate failed: " + e);
+    }
+
+    private List<WatchedRoot> rootsSnapshot() {
+        synchronized (mRoots) {
+            return new ArrayList<>(mRoots);
+        }
+    }
+
+    /**
+     * 注册文件夹和它所有没有被排除的子文件夹
+     */
+    private void registerAll(WatchedRoot root, Path start) {
+        ResourceFilter filter = root.mRootConfig.getFilter();
+        try {
+            Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    String relativePath = toSystemIndependentPath(root.mBasePath.relativize(dir));
+                    if (!relativePath.isEmpty() && filter.isExcludedDirectory(relativePath)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    register(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            mErr.println("Watch " + start + " failed: " + e);
+        }
+    }
+
+    private void register(Path dir) throws IOException {
+        WatchKey key = dir.register(mWatchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+        mKeys.put(key, dir);
+    }
+
+    private static String toSystemIndependentPath(Path path) {
+        return path.toString().replace('\\', '/');
+    }
+
+    private static final class WatchedRoot {
+
+        private final RootConfig mRootConfig;
+
+        private RegenerateScheduler mScheduler;
+
+        private Path mBasePath;
+
+        /**
+         * 窗口期中被创建或修改的文件
+         */
+        private final Set<Path> mWritten = ConcurrentHashMap.newKeySet();
+
+        WatchedRoot(RootConfig rootConfig) {
+            this.mRootConfig = rootConfig;
+        }
+    }
+}
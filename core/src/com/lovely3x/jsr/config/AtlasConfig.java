@@ -0,0 +1,69 @@
+package com.lovely3x.jsr.config;
+
+/**
+ * 一个需要打包为图集的图片文件夹
+ * <p>
+ * 文件夹中(包括子文件夹)的所有图片在生成之前打包为 png 和 Cocos 的 plist,
+ * 生成的资源对象中这些图片指向图集中的帧(#帧名),图集本身作为普通资源出现在资源对象和预加载列表中。
+ */
+public final class AtlasConfig {
+
+    public static final int DEFAULT_MAX_SIZE = 2048;
+    public static final int DEFAULT_PADDING = 2;
+
+    public static final int MIN_MAX_SIZE = 64;
+    public static final int MAX_MAX_SIZE = 8192;
+    public static final int MAX_PADDING = 16;
+
+    /**
+     * 图片文件夹(相对于资源文件夹),使用 '/' 分隔,不以 '/' 结尾
+     */
+    private final String dir;
+
+    /**
+     * 生成的图集(相对于资源文件夹,没有扩展名),一页放不下时之后的页加上 -1, -2 ...
+     */
+    private final String output;
+
+    /**
+     * 图集的最大宽高,像素
+     */
+    private final int maxSize;
+
+    /**
+     * 图片之间的间距,像素
+     */
+    private final int padding;
+
+    AtlasConfig(String dir, String output, int maxSize, int padding) {
+        this.dir = dir;
+        this.output = output;
+        this.maxSize = maxSize;
+        this.padding = padding;
+    }
+
+    public String getDir() {
+        return dir;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getPadding() {
+        return padding;
+    }
+
+    /**
+     * @param relativePath 资源相对于资源文件夹的路径
+     * @return 资源是否在这个图片文件夹中
+     */
+    public boolean contains(String relativePath) {
+        return relativePath.startsWith(dir) && relativePath.length() > dir.length()
+                && relativePath.charAt(dir.length()) == '/';
+    }
+}
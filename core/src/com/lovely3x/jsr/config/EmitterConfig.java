@@ -0,0 +1,108 @@
+package com.lovely3x.jsr.config;
+
+/**
+ * 一个额外生成的文件的配置
+ * <p>
+ * 所有的生成器都使用同一次扫描得到的资源索引,在同一次生成中依次输出,
+ * 每个文件都单独比较内容,没有变化的文件不会被写入。
+ */
+public final class EmitterConfig {
+
+    /**
+     * 使用模板生成js文件,和资源根目录的 outputFile 相同
+     */
+    public static final String TYPE_JS = "js";
+
+    /**
+     * TypeScript 声明文件,声明资源对象的所有属性,编辑器可以补全资源名
+     */
+    public static final String TYPE_DTS = "dts";
+
+    /**
+     * JSON 资源清单,包含每个资源的地址和大小,可以选择包含内容摘要,供热更新服务器使用
+     */
+    public static final String TYPE_JSON = "json";
+
+    public static final String DEFAULT_DTS_VARIABLE = "res";
+
+    /**
+     * {@link #TYPE_JS}, {@link #TYPE_DTS} 或 {@link #TYPE_JSON}
+     */
+    private final String type;
+
+    /**
+     * 生成的文件(相对于项目根目录)
+     */
+    private final String outputFile;
+
+    /**
+     * js: 模板文件,没有配置时使用默认模板
+     */
+    private final String templateFile;
+
+    /**
+     * js: 模板代码插入标识
+     */
+    private final String templateIndicator;
+
+    /**
+     * js: 预加载列表的插入标识
+     */
+    private final String preloadIndicator;
+
+    /**
+     * dts: 声明的资源对象变量名
+     */
+    private final String variable;
+
+    /**
+     * json: 是否包含资源内容的MD5
+     */
+    private final boolean hash;
+
+    EmitterConfig(String type, String outputFile, String templateFile, String templateIndicator,
+                  String preloadIndicator, String variable, boolean hash) {
+        this.type = type;
+        this.outputFile = outputFile;
+        this.templateFile = templateFile;
+        this.templateIndicator = templateIndicator;
+        this.preloadIndicator = preloadIndicator;
+        this.variable = variable;
+        this.hash = hash;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getOutputFile() {
+        return outputFile;
+    }
+
+    public String getTemplateFile() {
+        return templateFile;
+    }
+
+    public String getTemplateIndicator() {
+        return templateIndicator;
+    }
+
+    public String getPreloadIndicator() {
+        return preloadIndicator;
+    }
+
+    public String getVariable() {
+        return variable;
+    }
+
+    public boolean isHash() {
+        return hash;
+    }
+
+    /**
+     * @return 生成的内容是否和资源文件的内容有关
+     */
+    public boolean isContentSensitive() {
+        return TYPE_JSON.equals(type) && hash;
+    }
+}
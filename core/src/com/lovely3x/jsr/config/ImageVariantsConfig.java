@@ -0,0 +1,56 @@
+package com.lovely3x.jsr.config;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 图片优化和多分辨率版本的配置
+ * <p>
+ * 资源文件夹中的 png 和 jpg 按照每一个缩放比例重新编码后写入 outputDir/比例x/ 中,例如 build/res/0.5x/ui/a.png,
+ * 生成的资源对象使用第一个比例的地址。被图集或字体引用的纹理坐标已经固定,不会生成其他版本。
+ */
+public final class ImageVariantsConfig {
+
+    public static final float DEFAULT_JPEG_QUALITY = 0.85f;
+
+    /**
+     * 输出文件夹(相对于项目根目录),使用 '/' 分隔,不以 '/' 结尾
+     */
+    private final String outputDir;
+
+    /**
+     * 缩放比例,都在 (0, 1] 之间,第一个是资源对象中使用的版本
+     */
+    private final List<Double> scales;
+
+    /**
+     * jpg 的编码质量,(0, 1]
+     */
+    private final float jpegQuality;
+
+    ImageVariantsConfig(String outputDir, List<Double> scales, float jpegQuality) {
+        this.outputDir = outputDir;
+        this.scales = scales;
+        this.jpegQuality = jpegQuality;
+    }
+
+    public String getOutputDir() {
+        return outputDir;
+    }
+
+    public List<Double> getScales() {
+        return scales;
+    }
+
+    public float getJpegQuality() {
+        return jpegQuality;
+    }
+
+    /**
+     * @param scale 缩放比例
+     * @return 这个比例的文件夹名,例如 1x, 0.5x
+     */
+    public static String bucket(double scale) {
+        return BigDecimal.valueOf(scale).stripTrailingZeros().toPlainString() + "x";
+    }
+}
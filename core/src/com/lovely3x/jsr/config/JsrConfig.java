@@ -0,0 +1,701 @@
+package com.lovely3x.jsr.config;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * jsr 配置快照
+ * <p>
+ * 由 project.json 和 jsr.json 各解析一次后构建,构建完成后不可修改。
+ * 配置查找顺序 project.json -> jsr.json -> default,
+ * roots 中每个资源根目录的配置优先于顶层的配置。
+ */
+public final class JsrConfig {
+
+    public static final int CASE_SENSITIVE_UPPERCASE = 1;
+    public static final int CASE_SENSITIVE_LOWERCASE = -1;
+    public static final int CASE_SENSITIVE_UNSPECIFIED = 0;
+
+    public static final int CACHE_BUST_NONE = 0;
+    public static final int CACHE_BUST_QUERY = 1;
+    public static final int CACHE_BUST_FILENAME = 2;
+
+    public static final String DEFAULT_RES_DIR = "res";
+    public static final String DEFAULT_SRC_DIR = "src";
+    public static final String DEFAULT_TEMPLATE_INDICATOR = "%%";
+    public static final String DEFAULT_PRELOAD_INDICATOR = "%%preload%%";
+
+    public static final String DEFAULT_CONVERT_RE = "[/\\.\\-]";
+    public static final String DEFAULT_CONVERT_VALUE = "_";
+
+    public static final long DEFAULT_REGENERATE_QUIET_MILLIS = 300;
+    public static final long DEFAULT_REGENERATE_MAX_DELAY_MILLIS = 3000;
+
+    public static final int DEFAULT_SCAN_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 读取资源的文件位置(需要生成源代码的资源文件)
+     */
+    public static final String RES_DIR_KEY = "resourceDir";
+
+    /**
+     * 生成的源代码文件放置位置
+     */
+    public static final String SRC_DIR_KEY = "srcDir";
+
+    /**
+     * 用于获取生成源代码的模板文件的key,
+     * 模板第一行是 {{! jsr-template }} 时才支持 each, if 等标签,见 {@link com.lovely3x.jsr.generator.SourceTemplate}
+     */
+    public static final String TEMPLATE_FILE_KEY = "templateFile";
+
+    /**
+     * 生成的文件(相对于项目根目录),默认放在 srcDir 中并且和模板文件同名
+     */
+    public static final String OUTPUT_FILE_KEY = "outputFile";
+
+    /**
+     * 需要包含的资源文件的 glob 规则,字符串或字符串数组,见 {@link ResourceFilter}
+     */
+    public static final String INCLUDE_KEY = "include";
+
+    /**
+     * 需要排除的资源文件或文件夹的 glob 规则,字符串或字符串数组,见 {@link ResourceFilter}
+     */
+    public static final String EXCLUDE_KEY = "exclude";
+
+    /**
+     * 预加载列表的插入标识,模板中这个标识将被替换为按类型和分组整理的预加载列表
+     */
+    public static final String PRELOAD_INDICATOR_KEY = "preloadIndicator";
+
+    /**
+     * 预加载分组,对象的每个属性是一个分组,值为 glob 字符串或字符串数组,例如
+     * {"menu": ["scenes/menu/**", "common/**"]}
+     */
+    public static final String PRELOAD_GROUPS_KEY = "preloadGroups";
+
+    /**
+     * 资源元数据清单(相对于项目根目录),以 .js 结尾时写为js变量,否则写为JSON,没有配置时不提取元数据
+     */
+    public static final String METADATA_FILE_KEY = "metadataFile";
+
+    /**
+     * 给资源地址加上内容摘要: none(默认), query(res/a.png?v=摘要) 或 filename(res/a.摘要.png)
+     */
+    public static final String CACHE_BUST_KEY = "cacheBust";
+
+    /**
+     * filename 模式下摘要文件名 -> 原文件名的映射文件(相对于项目根目录),供发布时重命名文件使用
+     */
+    public static final String CACHE_BUST_MAP_FILE_KEY = "cacheBustMapFile";
+
+    /**
+     * 是否把内容相同的资源合并为同一个地址(true/false,默认false),
+     * 重复的文件在 res 中仍然保留各自的名字,但是指向同一个文件,预加载列表中只出现一次
+     */
+    public static final String DUPLICATE_ALIASES_KEY = "duplicateAliases";
+
+    /**
+     * 是否解析 .plist 图集和 .fnt 位图字体(true/false,默认false),开启后生成帧名常量(res_frames)、
+     * 图集到纹理的依赖关系(res_deps),并且从预加载列表中去掉已经由图集加载的纹理
+     */
+    public static final String SPRITE_SHEETS_KEY = "spriteSheets";
+
+    /**
+     * 在生成之前打包为图集的图片文件夹,数组中的每一个对象都包含 dir(相对于资源文件夹),例如
+     * [{"dir": "ui/icons"}, {"dir": "effects", "output": "packed/fx", "maxSize": 1024, "padding": 1}]
+     * output 是生成的图集(相对于资源文件夹,没有扩展名,默认 packed/文件夹路径中的 / 换为 _),
+     * maxSize 是图集的最大宽高(默认2048),padding 是图片之间的间距(默认2)
+     */
+    public static final String ATLASES_KEY = "atlases";
+
+    public static final String ATLAS_DIR_KEY = "dir";
+    public static final String ATLAS_OUTPUT_KEY = "output";
+    public static final String ATLAS_MAX_SIZE_KEY = "maxSize";
+    public static final String ATLAS_PADDING_KEY = "padding";
+
+    public static final String DEFAULT_ATLAS_OUTPUT_DIR = "packed/";
+
+    /**
+     * 图片优化和多分辨率版本,例如 {"outputDir": "build/res", "scales": [1, 0.5], "jpegQuality": 0.85}
+     * outputDir(相对于项目根目录)必须配置,不能和资源文件夹互相嵌套,配置了多个资源根目录时每个根目录的 outputDir
+     * 也不能重复或者互相嵌套(各自会删除不属于自己的过期版本),所以顶层的 imageVariants 只适用于一个资源根目录;scales 默认 [1],
+     * 生成的资源对象使用第一个比例的地址,所有比例的路径前缀写入 res_variants
+     */
+    public static final String IMAGE_VARIANTS_KEY = "imageVariants";
+
+    public static final String IMAGE_VARIANTS_OUTPUT_DIR_KEY = "outputDir";
+    public static final String IMAGE_VARIANTS_SCALES_KEY = "scales";
+    public static final String IMAGE_VARIANTS_JPEG_QUALITY_KEY = "jpegQuality";
+
+    /**
+     * 额外生成的文件,数组中的每一个对象都包含 type 和 outputFile,例如
+     * [{"type": "dts", "outputFile": "typings/resource.d.ts"},
+     * {"type": "json", "outputFile": "build/resource-manifest.json", "hash": true}]
+     * type 为 js 时可以配置 templateFile, templateIndicator, preloadIndicator(默认和资源根目录相同),
+     * 为 dts 时可以配置 variable(声明的变量名,默认 res),为 json 时可以配置 hash(是否包含内容的MD5,默认false)
+     */
+    public static final String EMITTERS_KEY = "emitters";
+
+    public static final String EMITTER_TYPE_KEY = "type";
+    public static final String EMITTER_VARIABLE_KEY = "variable";
+    public static final String EMITTER_HASH_KEY = "hash";
+
+    /**
+     * 多个资源根目录,数组中的每一个对象都可以包含
+     * resourceDir, srcDir, templateFile, templateIndicator, outputFile, include, exclude,
+     * preloadIndicator, preloadGroups, metadataFile, cacheBust, cacheBustMapFile,
+     * duplicateAliases, spriteSheets, atlases, imageVariants, emitters
+     */
+    public static final String ROOTS_KEY = "roots";
+
+    /***
+     * 用于获取模板标识符(在生成源代码文件时,将会把模板文件中的标识符替换为生成的资源文件列表)
+     */
+    public static final String TEMPLATE_INDICATOR_KEY = "templateIndicator";
+
+    /***
+     * 用于替换时的正则表达式
+     */
+    public static final String CONVERT_RE_KEY = "convertRe";
+
+    /***
+     * 用于替换时的值
+     */
+    public static final String CONVERT_VALUE_KEY = "convertValue";
+
+    /***
+     * 将转换内容转换为小写的key
+     */
+    public static final String TO_LOWERCASE_KEY = "toLowercase";
+
+    /***
+     * 将转换内容转换为大写的key
+     */
+    public static final String TO_UPPERCASE_KEY = "toUppercase";
+
+    /***
+     * 重新生成的安静窗口期(毫秒),窗口期内没有新的文件事件才会执行生成
+     */
+    public static final String REGENERATE_QUIET_MILLIS_KEY = "regenerateQuietMillis";
+
+    /***
+     * 重新生成的最大等待时间(毫秒),从第一个待处理的事件开始计算
+     */
+    public static final String REGENERATE_MAX_DELAY_MILLIS_KEY = "regenerateMaxDelayMillis";
+
+    /***
+     * 扫描资源文件时并行的线程数
+     */
+    public static final String SCAN_PARALLELISM_KEY = "scanParallelism";
+
+    /**
+     * 全部使用默认值的配置
+     */
+    public static final JsrConfig DEFAULT = new JsrConfig(null, null);
+
+    /**
+     * 所有的资源根目录
+     */
+    private final List<RootConfig> roots;
+
+    private final String convertRe;
+    private final String convertValue;
+
+    /**
+     * 编译后的 convertRe
+     */
+    private final Pattern convertPattern;
+
+    private final int caseSensitive;
+
+    private final long regenerateQuietMillis;
+    private final long regenerateMaxDelayMillis;
+
+    private final int scanParallelism;
+
+    /**
+     * @param projectJson project.json 的内容,不存在时为null
+     * @param jsrJson     jsr.json 的内容,不存在时为null
+     * @throws IllegalArgumentException 配置不合法
+     */
+    JsrConfig(JsonObject projectJson, JsonObject jsrJson) {
+        Lookup lookup = new Lookup(projectJson, jsrJson);
+
+        roots = parseRoots(projectJson, jsrJson);
+        convertRe = lookup.getString(CONVERT_RE_KEY, DEFAULT_CONVERT_RE);
+        convertValue = lookup.getString(CONVERT_VALUE_KEY, DEFAULT_CONVERT_VALUE);
+        try {
+            convertPattern = Pattern.compile(convertRe);
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("jsr描述 convertRe 不是合法的正则表达式: " + e.getMessage());
+        }
+
+        boolean toLowercase = Boolean.valueOf(lookup.getString(TO_LOWERCASE_KEY, null));
+        boolean toUppercase = Boolean.valueOf(lookup.getString(TO_UPPERCASE_KEY, null));
+        if (toLowercase && toUppercase) {
+            throw new IllegalArgumentException("jsr描述 toLowercase 和 toUppercase 仅能同时存在其中一个。");
+        }
+
+        if (toLowercase) {
+            caseSensitive = CASE_SENSITIVE_LOWERCASE;
+        } else if (toUppercase) {
+            caseSensitive = CASE_SENSITIVE_UPPERCASE;
+        } else {
+            caseSensitive = CASE_SENSITIVE_UNSPECIFIED;
+        }
+
+        regenerateQuietMillis = lookup.getLong(REGENERATE_QUIET_MILLIS_KEY, DEFAULT_REGENERATE_QUIET_MILLIS);
+        regenerateMaxDelayMillis = lookup.getLong(REGENERATE_MAX_DELAY_MILLIS_KEY, DEFAULT_REGENERATE_MAX_DELAY_MILLIS);
+        scanParallelism = (int) Math.max(1, lookup.getLong(SCAN_PARALLELISM_KEY, DEFAULT_SCAN_PARALLELISM));
+    }
+
+    /**
+     * @return 所有的资源根目录,至少有一个
+     */
+    public List<RootConfig> getRoots() {
+        return roots;
+    }
+
+    public String getConvertRe() {
+        return convertRe;
+    }
+
+    public String getConvertValue() {
+        return convertValue;
+    }
+
+    public Pattern getConvertPattern() {
+        return convertPattern;
+    }
+
+    /**
+     * @return {@link #CASE_SENSITIVE_UPPERCASE}, {@link #CASE_SENSITIVE_LOWERCASE} 或 {@link #CASE_SENSITIVE_UNSPECIFIED}
+     */
+    public int getCaseSensitive() {
+        return caseSensitive;
+    }
+
+    public long getRegenerateQuietMillis() {
+        return regenerateQuietMillis;
+    }
+
+    public long getRegenerateMaxDelayMillis() {
+        return regenerateMaxDelayMillis;
+    }
+
+    public int getScanParallelism() {
+        return scanParallelism;
+    }
+
+    /**
+     * 解析资源根目录,没有配置 roots 时使用顶层的配置作为唯一的资源根目录
+     */
+    private static List<RootConfig> parseRoots(JsonObject projectJson, JsonObject jsrJson) {
+        JsonElement rootsElement = new Lookup(projectJson, jsrJson).getElement(ROOTS_KEY);
+        if (rootsElement == null) {
+            return Collections.singletonList(parseRoot(new Lookup(projectJson, jsrJson)));
+        }
+
+        if (!rootsElement.isJsonArray() || rootsElement.getAsJsonArray().size() == 0) {
+            throw new IllegalArgumentException("jsr描述 roots 必须是非空的数组。");
+        }
+
+        JsonArray array = rootsElement.getAsJsonArray();
+        List<RootConfig> roots = new ArrayList<>(array.size());
+        List<String> resDirs = new ArrayList<>(array.size());
+        List<String> variantDirs = new ArrayList<>(array.size());
+        Set<String> outputFiles = new HashSet<>();
+        for (JsonElement element : array) {
+            if (!element.isJsonObject()) {
+                throw new IllegalArgumentException("jsr描述 roots 中的每一项都必须是对象。");
+            }
+
+            RootConfig root = parseRoot(new Lookup(element.getAsJsonObject(), projectJson, jsrJson));
+            String resDir = normalizeDir(root.getResDir());
+            for (String other : resDirs) {
+                //资源文件夹不能重复,也不能互相嵌套,否则一个文件会同时属于两个资源根目录
+                if (resDir.equals(other) || resDir.startsWith(other) || other.startsWith(resDir)) {
+                    throw new IllegalArgumentException("jsr描述 roots 中的资源文件夹重复或者互相嵌套: " + root.getResDir());
+                }
+            }
+            resDirs.add(resDir);
+            for (String outputFile : outputFiles(root)) {
+                if (!outputFiles.add(outputFile)) {
+                    throw new IllegalArgumentException("jsr描述 roots 中的生成文件重复: " + outputFile);
+                }
+            }
+            if (root.getImageVariants() != null) {
+                //每个资源根目录都会删除输出文件夹中不属于自己的版本
+                String variantDir = normalizeDir(root.getImageVariants().getOutputDir());
+                for (String other : variantDirs) {
+                    if (variantDir.startsWith(other) || other.startsWith(variantDir)) {
+                        throw new IllegalArgumentException("jsr描述 roots 中 imageVariants 的 outputDir 重复或者互相嵌套,"
+                                + "请为每个资源根目录单独配置: " + root.getImageVariants().getOutputDir());
+                    }
+                }
+                variantDirs.add(variantDir);
+            }
+            roots.add(root);
+        }
+
+        //生成的版本不能被其他资源根目录当作资源扫描
+        for (RootConfig root : roots) {
+            if (root.getImageVariants() == null) continue;
+            String variantDir = normalizeDir(root.getImageVariants().getOutputDir());
+            for (String resDir : resDirs) {
+                if (variantDir.startsWith(resDir) || resDir.startsWith(variantDir)) {
+                    throw new IllegalArgumentException("jsr描述 imageVariants 的 outputDir 不能和资源文件夹互相嵌套: "
+                            + root.getImageVariants().getOutputDir());
+                }
+            }
+        }
+        return Collections.unmodifiableList(roots);
+    }
+
+    /**
+     * @return 资源根目录生成的源代码文件和所有额外生成的文件,已经规范化
+     */
+    private static List<String> outputFiles(RootConfig root) {
+        List<String> files = new ArrayList<>();
+        files.add(normalizePath(root.resolveOutputFile(".").getPath()));
+        for (EmitterConfig emitter : root.getEmitters()) {
+            files.add(normalizePath(emitter.getOutputFile()));
+        }
+        return files;
+    }
+
+    /**
+     * 规范化文件夹路径,使用 '/' 分隔并且以 '/' 结尾
+     */
+    private static String normalizeDir(String dir) {
+        String path = normalizePath(dir);
+        return path.isEmpty() || path.endsWith("/") ? path : path + '/';
+    }
+
+    /**
+     * 规范化路径,使用 '/' 分隔
+     */
+    private static String normalizePath(String path) {
+        return new File(path).toPath().normalize().toString().replace(File.separatorChar, '/');
+    }
+
+    private static RootConfig parseRoot(Lookup lookup) {
+        String resDir = lookup.getString(RES_DIR_KEY, DEFAULT_RES_DIR);
+        String templateIndicator = lookup.getString(TEMPLATE_INDICATOR_KEY, DEFAULT_TEMPLATE_INDICATOR);
+        String preloadIndicator = lookup.getString(PRELOAD_INDICATOR_KEY, DEFAULT_PRELOAD_INDICATOR);
+        RootConfig root = new RootConfig(
+                resDir,
+                lookup.getString(SRC_DIR_KEY, DEFAULT_SRC_DIR),
+                lookup.getString(TEMPLATE_FILE_KEY, null),
+                templateIndicator,
+                lookup.getString(OUTPUT_FILE_KEY, null),
+                new ResourceFilter(lookup.getStringList(INCLUDE_KEY), lookup.getStringList(EXCLUDE_KEY)),
+                preloadIndicator,
+                parsePreloadGroups(lookup.getElement(PRELOAD_GROUPS_KEY)),
+                lookup.getString(METADATA_FILE_KEY, null),
+                parseCacheBust(lookup.getString(CACHE_BUST_KEY, null)),
+                lookup.getString(CACHE_BUST_MAP_FILE_KEY, null),
+                lookup.getBoolean(DUPLICATE_ALIASES_KEY, false),
+                lookup.getBoolean(SPRITE_SHEETS_KEY, false),
+                parseAtlases(lookup.getElement(ATLASES_KEY)),
+                parseImageVariants(lookup.getElement(IMAGE_VARIANTS_KEY), resDir),
+                parseEmitters(lookup.getElement(EMITTERS_KEY), templateIndicator, preloadIndicator));
+
+        //同一个资源根目录生成的文件也不能重复
+        Set<String> outputFiles = new HashSet<>();
+        for (String outputFile : outputFiles(root)) {
+            if (!outputFiles.add(outputFile)) {
+                throw new IllegalArgumentException("jsr描述 emitters 中的生成文件重复: " + outputFile);
+            }
+        }
+        return root;
+    }
+
+    /**
+     * 解析额外生成的文件
+     */
+    private static List<EmitterConfig> parseEmitters(JsonElement element, String templateIndicator,
+                                                     String preloadIndicator) {
+        if (element == null) return Collections.emptyList();
+        if (!element.isJsonArray()) {
+            throw new IllegalArgumentException("jsr描述 emitters 必须是数组。");
+        }
+
+        List<EmitterConfig> emitters = new ArrayList<>();
+        for (JsonElement item : element.getAsJsonArray()) {
+            if (!item.isJsonObject()) {
+                throw new IllegalArgumentException("jsr描述 emitters 中的每一项都必须是对象。");
+            }
+            Lookup lookup = new Lookup(item.getAsJsonObject());
+            String type = lookup.getString(EMITTER_TYPE_KEY, null);
+            if (!EmitterConfig.TYPE_JS.equals(type) && !EmitterConfig.TYPE_DTS.equals(type)
+                    && !EmitterConfig.TYPE_JSON.equals(type)) {
+                throw new IllegalArgumentException("jsr描述 emitters 的 type 只能是 js, dts 或 json: " + type);
+            }
+            String outputFile = lookup.getString(OUTPUT_FILE_KEY, null);
+            if (outputFile == null) {
+                throw new IllegalArgumentException("jsr描述 emitters 中的每一项都必须配置 outputFile。");
+            }
+            String variable = lookup.getString(EMITTER_VARIABLE_KEY, EmitterConfig.DEFAULT_DTS_VARIABLE);
+            if (!variable.matches("[A-Za-z_$][A-Za-z0-9_$]*")) {
+                throw new IllegalArgumentException("jsr描述 emitters 的 variable 不是合法的变量名: " + variable);
+            }
+            emitters.add(new EmitterConfig(type, outputFile,
+                    lookup.getString(TEMPLATE_FILE_KEY, null),
+                    lookup.getString(TEMPLATE_INDICATOR_KEY, templateIndicator),
+                    lookup.getString(PRELOAD_INDICATOR_KEY, preloadIndicator),
+                    variable,
+                    lookup.getBoolean(EMITTER_HASH_KEY, false)));
+        }
+        return Collections.unmodifiableList(emitters);
+    }
+
+    /**
+     * 解析需要打包的图片文件夹
+     */
+    private static List<AtlasConfig> parseAtlases(JsonElement element) {
+        if (element == null) return Collections.emptyList();
+        if (!element.isJsonArray()) {
+            throw new IllegalArgumentException("jsr描述 atlases 必须是数组。");
+        }
+
+        List<AtlasConfig> atlases = new ArrayList<>();
+        Set<String> outputs = new HashSet<>();
+        for (JsonElement item : element.getAsJsonArray()) {
+            if (!item.isJsonObject()) {
+                throw new IllegalArgumentException("jsr描述 atlases 中的每一项都必须是对象。");
+            }
+            Lookup lookup = new Lookup(item.getAsJsonObject());
+            String dir = trimSlashes(lookup.getString(ATLAS_DIR_KEY, ""));
+            if (dir.isEmpty()) {
+                throw new IllegalArgumentException("jsr描述 atlases 中的每一项都必须配置 dir。");
+            }
+            String output = trimSlashes(lookup.getString(ATLAS_OUTPUT_KEY,
+                    DEFAULT_ATLAS_OUTPUT_DIR + dir.replace('/', '_')));
+            long maxSize = lookup.getLong(ATLAS_MAX_SIZE_KEY, AtlasConfig.DEFAULT_MAX_SIZE);
+            if (maxSize < AtlasConfig.MIN_MAX_SIZE || maxSize > AtlasConfig.MAX_MAX_SIZE) {
+                throw new IllegalArgumentException(String.format(Locale.US, "jsr描述 atlases 的 maxSize 必须在 %d 和 %d 之间: %d",
+                        AtlasConfig.MIN_MAX_SIZE, AtlasConfig.MAX_MAX_SIZE, maxSize));
+            }
+            long padding = lookup.getLong(ATLAS_PADDING_KEY, AtlasConfig.DEFAULT_PADDING);
+            if (padding < 0 || padding > AtlasConfig.MAX_PADDING) {
+                throw new IllegalArgumentException(String.format(Locale.US, "jsr描述 atlases 的 padding 必须在 0 和 %d 之间: %d",
+                        AtlasConfig.MAX_PADDING, padding));
+            }
+            if (!outputs.add(output)) {
+                throw new IllegalArgumentException("jsr描述 atlases 中的 output 重复: " + output);
+            }
+            atlases.add(new AtlasConfig(dir, output, (int) maxSize, (int) padding));
+        }
+
+        for (AtlasConfig atlas : atlases) {
+            for (AtlasConfig other : atlases) {
+                //图集不能被打包到自己或者其他图集中,文件夹也不能互相嵌套
+                if (other.contains(atlas.getOutput())) {
+                    throw new IllegalArgumentException("jsr描述 atlases 的 output 不能在需要打包的文件夹中: "
+                            + atlas.getOutput());
+                }
+                if (atlas != other && (atlas.getDir().equals(other.getDir()) || other.contains(atlas.getDir()))) {
+                    throw new IllegalArgumentException("jsr描述 atlases 中的文件夹重复或者互相嵌套: " + atlas.getDir());
+                }
+            }
+        }
+        return Collections.unmodifiableList(atlases);
+    }
+
+    /**
+     * 解析图片优化的配置,没有配置时返回null
+     */
+    private static ImageVariantsConfig parseImageVariants(JsonElement element, String resDir) {
+        if (element == null) return null;
+        if (!element.isJsonObject()) {
+            throw new IllegalArgumentException("jsr描述 imageVariants 必须是对象。");
+        }
+
+        JsonObject object = element.getAsJsonObject();
+        Lookup lookup = new Lookup(object);
+        String outputDir = trimSlashes(lookup.getString(IMAGE_VARIANTS_OUTPUT_DIR_KEY, ""));
+        if (outputDir.isEmpty()) {
+            throw new IllegalArgumentException("jsr描述 imageVariants 必须配置 outputDir。");
+        }
+        String output = normalizeDir(outputDir);
+        String resource = normalizeDir(resDir);
+        if (resource.isEmpty() || output.startsWith(resource) || resource.startsWith(output)) {
+            throw new IllegalArgumentException("jsr描述 imageVariants 的 outputDir 不能和资源文件夹互相嵌套: " + outputDir);
+        }
+
+        List<Double> scales = new ArrayList<>();
+        JsonElement scalesElement = object.get(IMAGE_VARIANTS_SCALES_KEY);
+        if (scalesElement == null || scalesElement.isJsonNull()) {
+            scales.add(1.0);
+        } else {
+            if (!scalesElement.isJsonArray() || scalesElement.getAsJsonArray().size() == 0) {
+                throw new IllegalArgumentException("jsr描述 imageVariants 的 scales 必须是非空的数组。");
+            }
+            for (JsonElement item : scalesElement.getAsJsonArray()) {
+                double scale;
+                try {
+                    scale = item.getAsDouble();
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException("jsr描述 imageVariants 的 scales 必须是数字: " + item);
+                }
+                if (!(scale > 0 && scale <= 1)) {
+                    throw new IllegalArgumentException("jsr描述 imageVariants 的 scales 必须在 (0, 1] 之间: " + item);
+                }
+                if (scales.contains(scale)) {
+                    throw new IllegalArgumentException("jsr描述 imageVariants 的 scales 重复: " + item);
+                }
+                scales.add(scale);
+            }
+        }
+
+        String quality = lookup.getString(IMAGE_VARIANTS_JPEG_QUALITY_KEY, null);
+        float jpegQuality = ImageVariantsConfig.DEFAULT_JPEG_QUALITY;
+        if (quality != null) {
+            try {
+                jpegQuality = Float.parseFloat(quality.trim());
+            } catch (NumberFormatException e) {
+                jpegQuality = -1;
+            }
+            if (!(jpegQuality > 0 && jpegQuality <= 1)) {
+                throw new IllegalArgumentException("jsr描述 imageVariants 的 jpegQuality 必须在 (0, 1] 之间: " + quality);
+            }
+        }
+        return new ImageVariantsConfig(outputDir, Collections.unmodifiableList(scales), jpegQuality);
+    }
+
+    /**
+     * 使用 '/' 分隔并且去掉开头和结尾的 '/'
+     */
+    private static String trimSlashes(String path) {
+        String result = path.trim().replace('\\', '/');
+        while (result.startsWith("/")) result = result.substring(1);
+        while (result.endsWith("/")) result = result.substring(0, result.length() - 1);
+        return result;
+    }
+
+    private static int parseCacheBust(String value) {
+        if (value == null || "none".equals(value)) return CACHE_BUST_NONE;
+        if ("query".equals(value)) return CACHE_BUST_QUERY;
+        if ("filename".equals(value)) return CACHE_BUST_FILENAME;
+        throw new IllegalArgumentException("jsr描述 cacheBust 只能是 none, query 或 filename: " + value);
+    }
+
+    /**
+     * 解析预加载分组
+     */
+    private static Map<String, ResourceFilter> parsePreloadGroups(JsonElement element) {
+        if (element == null) return Collections.emptyMap();
+        if (!element.isJsonObject()) {
+            throw new IllegalArgumentException("jsr描述 preloadGroups 必须是对象。");
+        }
+
+        Map<String, ResourceFilter> groups = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+            JsonObject holder = new JsonObject();
+            holder.add(entry.getKey(), entry.getValue());
+            List<String> globs = new Lookup(holder).getStringList(entry.getKey());
+            groups.put(entry.getKey(), new ResourceFilter(globs, Collections.emptyList()));
+        }
+        return Collections.unmodifiableMap(groups);
+    }
+
+    /**
+     * 按照给定的顺序(project.json -> jsr.json)查找配置,找不到时使用默认值
+     */
+    private static class Lookup {
+
+        private final JsonObject[] mSources;
+
+        Lookup(JsonObject... sources) {
+            this.mSources = sources;
+        }
+
+        JsonElement getElement(String key) {
+            for (JsonObject source : mSources) {
+                if (source != null && source.has(key) && !source.get(key).isJsonNull()) {
+                    return source.get(key);
+                }
+            }
+            return null;
+        }
+
+        String getString(String key, String defaultValue) {
+            for (JsonObject source : mSources) {
+                String value = findString(source, key);
+                if (value != null) return value;
+            }
+            return defaultValue;
+        }
+
+        /**
+         * 读取字符串或字符串数组,找不到时返回空列表
+         */
+        List<String> getStringList(String key) {
+            JsonElement element = getElement(key);
+            if (element == null) return Collections.emptyList();
+
+            if (element.isJsonPrimitive()) {
+                String value = element.getAsString().trim();
+                return value.isEmpty() ? Collections.emptyList() : Collections.singletonList(value);
+            }
+
+            if (!element.isJsonArray()) {
+                throw new IllegalArgumentException(String.format(Locale.US, "jsr描述 %s 必须是字符串或字符串数组。", key));
+            }
+            List<String> values = new ArrayList<>();
+            for (JsonElement item : element.getAsJsonArray()) {
+                if (!item.isJsonPrimitive()) {
+                    throw new IllegalArgumentException(String.format(Locale.US, "jsr描述 %s 必须是字符串或字符串数组。", key));
+                }
+                String value = item.getAsString().trim();
+                if (!value.isEmpty()) values.add(value);
+            }
+            return Collections.unmodifiableList(values);
+        }
+
+        long getLong(String key, long defaultValue) {
+            String value = getString(key, null);
+            if (value == null) return defaultValue;
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(String.format(Locale.US, "jsr描述 %s 必须是整数: %s", key, value));
+            }
+        }
+
+        boolean getBoolean(String key, boolean defaultValue) {
+            String value = getString(key, null);
+            if (value == null) return defaultValue;
+            value = value.trim();
+            if ("true".equalsIgnoreCase(value)) return true;
+            if ("false".equalsIgnoreCase(value)) return false;
+            throw new IllegalArgumentException(String.format(Locale.US, "jsr描述 %s 必须是 true 或 false: %s", key, value));
+        }
+
+        private static String findString(JsonObject jo, String key) {
+            if (jo == null || !jo.has(key)) return null;
+
+            JsonElement element = jo.get(key);
+            if (!element.isJsonPrimitive()) return null;
+
+            String value = element.getAsString();
+            return value.trim().length() > 0 ? value : null;
+        }
+    }
+}
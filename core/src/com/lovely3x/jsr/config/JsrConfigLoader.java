@@ -0,0 +1,113 @@
+package com.lovely3x.jsr.config;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * jsr 配置加载器
+ * <p>
+ * project.json 和 jsr.json 按照文件的修改时间和大小缓存,只有文件发生变化时才会重新解析;
+ * 解析失败时保留上一次成功加载的配置,错误信息可以通过 {@link #getLastError()} 获取。
+ */
+public class JsrConfigLoader {
+
+    public static final String JSR_JSON_FILE = "jsr.json";
+    public static final String PROJECT_JSON_FILE = "project.json";
+
+    private final CachedJson mProjectJson;
+    private final CachedJson mJsrJson;
+
+    private JsrConfig mConfig = JsrConfig.DEFAULT;
+
+    private String mLastError;
+
+    public JsrConfigLoader(String projectBasePath) {
+        this.mProjectJson = new CachedJson(new File(projectBasePath, PROJECT_JSON_FILE));
+        this.mJsrJson = new CachedJson(new File(projectBasePath, JSR_JSON_FILE));
+    }
+
+    /**
+     * 加载配置,配置文件没有变化时直接返回上一次的快照
+     *
+     * @return 最新的配置快照,解析失败时返回上一次成功加载的快照
+     */
+    public synchronized JsrConfig load() {
+        try {
+            boolean changed = mProjectJson.refresh();
+            changed |= mJsrJson.refresh();
+            if (changed) {
+                mConfig = new JsrConfig(mProjectJson.mContent, mJsrJson.mContent);
+            }
+            mLastError = null;
+        } catch (IOException | JsonParseException | IllegalArgumentException | IllegalStateException e) {
+            //下次加载时重新解析
+            mProjectJson.invalidate();
+            mJsrJson.invalidate();
+            mLastError = e.getMessage();
+        }
+        return mConfig;
+    }
+
+    /**
+     * @return 最近一次加载的错误信息,成功时为null
+     */
+    public synchronized String getLastError() {
+        return mLastError;
+    }
+
+    /**
+     * 按文件修改时间和大小缓存的json文件内容
+     */
+    private static class CachedJson {
+
+        private final File mFile;
+
+        private long mLastModified = -1;
+        private long mLength = -1;
+        private JsonObject mContent;
+
+        CachedJson(File file) {
+            this.mFile = file;
+        }
+
+        /**
+         * 文件发生变化时重新解析
+         *
+         * @return 内容是否发生了变化
+         */
+        boolean refresh() throws IOException {
+            long lastModified = mFile.lastModified();
+            long length = mFile.length();
+            if (lastModified == mLastModified && length == mLength) return false;
+
+            JsonObject content = null;
+            if (lastModified != 0 && mFile.canRead()) {
+                try (Reader reader = new InputStreamReader(new FileInputStream(mFile), StandardCharsets.UTF_8)) {
+                    JsonElement element = new JsonParser().parse(reader);
+                    if (!element.isJsonNull()) {
+                        content = element.getAsJsonObject();
+                    }
+                }
+            }
+
+            mContent = content;
+            mLastModified = lastModified;
+            mLength = length;
+            return true;
+        }
+
+        void invalidate() {
+            mLastModified = -1;
+            mLength = -1;
+        }
+    }
+}
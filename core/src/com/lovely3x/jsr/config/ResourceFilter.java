@@ -0,0 +1,264 @@
+package com.lovely3x.jsr.config;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 资源文件过滤器
+ * <p>
+ * 由 jsr.json 中的 include 和 exclude 两组 glob 规则编译而成,每组规则合并为一个正则表达式。
+ * 路径都是相对于资源文件夹的路径,使用 '/' 分隔。
+ * <ul>
+ * <li>{@code *} 匹配一级路径中的任意字符, {@code **} 匹配任意多级路径, {@code ?} 匹配一个字符</li>
+ * <li>{@code {a,b}} 匹配其中任意一个, {@code [abc]} 匹配字符集合</li>
+ * <li>不包含 '/' 的规则匹配任意一级的文件名或文件夹名,例如 {@code *.psd}</li>
+ * <li>以 '/' 结尾的规则只匹配文件夹,例如 {@code raw/}; {@code art/src/**} 等同于 {@code /art/src/}</li>
+ * </ul>
+ * exclude 匹配到的文件夹整个被跳过,扫描时不会进入;include 只作用于文件,没有配置 include 时包含所有文件。
+ * <p>
+ * 隐藏的文件在规则之前就被排除,扫描、文件事件和监听模式都使用 {@link #isHidden(String, boolean)} 判断;
+ * 和最初使用 File#isHidden() 的扫描相同,隐藏的文件夹本身仍然会被扫描,需要跳过时使用 exclude 规则,例如 {@code .svn/}。
+ */
+public final class ResourceFilter {
+
+    /**
+     * 包含所有文件的过滤器
+     */
+    public static final ResourceFilter ALL = new ResourceFilter(Collections.emptyList(), Collections.emptyList());
+
+    private final List<String> mIncludes;
+    private final List<String> mExcludes;
+
+    /**
+     * 所有的 include 规则,没有配置时为null
+     */
+    private final Pattern mIncludePattern;
+
+    /**
+     * 可以匹配文件的 exclude 规则,没有时为null
+     */
+    private final Pattern mExcludeFilePattern;
+
+    /**
+     * 所有的 exclude 规则,用于判断文件夹,没有时为null
+     */
+    private final Pattern mExcludeDirectoryPattern;
+
+    /**
+     * @param includes include 规则
+     * @param excludes exclude 规则
+     * @throws IllegalArgumentException 规则不合法
+     */
+    ResourceFilter(List<String> includes, List<String> excludes) {
+        this.mIncludes = includes;
+        this.mExcludes = excludes;
+
+        StringBuilder include = new StringBuilder();
+        for (String glob : includes) {
+            append(include, toRegex(stripDirectorySuffix(glob)));
+        }
+
+        StringBuilder excludeFile = new StringBuilder();
+        StringBuilder excludeDirectory = new StringBuilder();
+        for (String exclude : excludes) {
+            String glob = exclude;
+            if (glob.endsWith("/**") && glob.length() > 3) {
+                //排除文件夹下的所有内容,等同于排除这个文件夹,扫描时可以直接跳过
+                glob = glob.substring(0, glob.length() - 2);
+                if (!glob.startsWith("/")) glob = '/' + glob;
+            }
+            String regex = toRegex(stripDirectorySuffix(glob));
+            append(excludeDirectory, regex);
+            if (!glob.endsWith("/")) append(excludeFile, regex);
+        }
+
+        this.mIncludePattern = compile(include);
+        this.mExcludeFilePattern = compile(excludeFile);
+        this.mExcludeDirectoryPattern = compile(excludeDirectory);
+    }
+
+    /**
+     * 是否包含给定的文件,调用者需要保证它的上级文件夹都没有被排除,用于扫描
+     *
+     * @param relativePath 文件相对于资源文件夹的路径
+     * @return true or false
+     */
+    public boolean acceptFile(String relativePath) {
+        if (mExcludeFilePattern != null && mExcludeFilePattern.matcher(relativePath).matches()) return false;
+        return mIncludePattern == null || mIncludePattern.matcher(relativePath).matches();
+    }
+
+    /**
+     * 给定的文件夹是否被排除
+     *
+     * @param relativePath 文件夹相对于资源文件夹的路径,不以 '/' 结尾
+     * @return true or false
+     */
+    public boolean isExcludedDirectory(String relativePath) {
+        return mExcludeDirectoryPattern != null && mExcludeDirectoryPattern.matcher(relativePath).matches();
+    }
+
+    /**
+     * 给定路径的某一级上级文件夹是否被排除,用于文件事件
+     *
+     * @param relativePath 文件或文件夹相对于资源文件夹的路径
+     * @return true or false
+     */
+    public boolean isInExcludedDirectory(String relativePath) {
+        if (mExcludeDirectoryPattern == null) return false;
+        for (int index = relativePath.indexOf('/'); index >= 0; index = relativePath.indexOf('/', index + 1)) {
+            if (isExcludedDirectory(relativePath.substring(0, index))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 是否包含给定的文件,会检查所有的上级文件夹,用于文件事件
+     *
+     * @param relativePath 文件相对于资源文件夹的路径
+     * @return true or false
+     */
+    public boolean accept(String relativePath) {
+        return acceptFile(relativePath) && !isInExcludedDirectory(relativePath);
+    }
+
+    /**
+     * 文件是否是隐藏的:以 '.' 开头,或者有文件系统的隐藏属性(Windows)
+     *
+     * @param name            文件名
+     * @param hiddenAttribute 是否有隐藏属性
+     * @return true or false
+     */
+    public static boolean isHidden(String name, boolean hiddenAttribute) {
+        return hiddenAttribute || name.startsWith(".");
+    }
+
+    /**
+     * 路径的最后一级是否是隐藏的,只根据名字判断,用于已经找不到文件的事件
+     *
+     * @param relativePath 文件相对于资源文件夹的路径
+     * @return true or false
+     */
+    public static boolean isHiddenPath(String relativePath) {
+        return relativePath.startsWith(".", relativePath.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * @return 描述过滤规则的字符串,规则相同时结果相同
+     */
+    public String getFingerprint() {
+        return String.join("\u0000", mIncludes) + '\u0001' + String.join("\u0000", mExcludes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ResourceFilter)) return false;
+        ResourceFilter that = (ResourceFilter) o;
+        return mIncludes.equals(that.mIncludes) && mExcludes.equals(that.mExcludes);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * mIncludes.hashCode() + mExcludes.hashCode();
+    }
+
+    private static String stripDirectorySuffix(String glob) {
+        String result = glob;
+        while (result.endsWith("/")) {
+            result = result.substring(0, result.length() - 1);
+        }
+        return result;
+    }
+
+    private static void append(StringBuilder builder, String regex) {
+        if (builder.length() > 0) builder.append('|');
+        builder.append("(?:").append(regex).append(')');
+    }
+
+    private static Pattern compile(StringBuilder regex) {
+        return regex.length() == 0 ? null : Pattern.compile(regex.toString());
+    }
+
+    /**
+     * 将 glob 规则转换为正则表达式
+     *
+     * @param glob glob 规则,不以 '/' 结尾
+     * @return 正则表达式
+     * @throws IllegalArgumentException 规则不合法
+     */
+    static String toRegex(String glob) {
+        String pattern = glob.startsWith("/") ? glob.substring(1) : glob;
+        if (pattern.isEmpty()) {
+            throw new IllegalArgumentException("jsr描述 include/exclude 中不能有空的规则。");
+        }
+
+        StringBuilder regex = new StringBuilder();
+        //不包含 '/' 的规则可以匹配任意一级
+        if (!glob.startsWith("/") && pattern.indexOf('/') < 0) regex.append("(?:.*/)?");
+
+        boolean inGroup = false;
+        int length = pattern.length();
+        for (int i = 0; i < length; i++) {
+            char c = pattern.charAt(i);
+            switch (c) {
+                case '*':
+                    if (i + 1 < length && pattern.charAt(i + 1) == '*') {
+                        i++;
+                        if (i + 1 < length && pattern.charAt(i + 1) == '/') {
+                            i++;
+                            regex.append("(?:.*/)?");
+                        } else {
+                            regex.append(".*");
+                        }
+                    } else {
+                        regex.append("[^/]*");
+                    }
+                    break;
+                case '?':
+                    regex.append("[^/]");
+                    break;
+                case '{':
+                    if (inGroup) throw new IllegalArgumentException("jsr描述 include/exclude 不支持嵌套的 {}: " + glob);
+                    inGroup = true;
+                    regex.append("(?:");
+                    break;
+                case '}':
+                    if (!inGroup) throw new IllegalArgumentException("jsr描述 include/exclude 中的 {} 不匹配: " + glob);
+                    inGroup = false;
+                    regex.append(')');
+                    break;
+                case ',':
+                    regex.append(inGroup ? "|" : ",");
+                    break;
+                case '[': {
+                    int end = pattern.indexOf(']', i + 1);
+                    if (end < 0) throw new IllegalArgumentException("jsr描述 include/exclude 中的 [] 不匹配: " + glob);
+                    String set = pattern.substring(i + 1, end);
+                    regex.append('[');
+                    if (set.startsWith("!")) {
+                        regex.append('^');
+                        set = set.substring(1);
+                    }
+                    regex.append(set.replace("\\", "\\\\").replace("[", "\\[")).append(']');
+                    i = end;
+                    break;
+                }
+                default:
+                    if ("\\.^$+|()".indexOf(c) >= 0) regex.append('\\');
+                    regex.append(c);
+                    break;
+            }
+        }
+        if (inGroup) throw new IllegalArgumentException("jsr描述 include/exclude 中的 {} 不匹配: " + glob);
+
+        try {
+            Pattern.compile(regex.toString());
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("jsr描述 include/exclude 不是合法的规则: " + glob);
+        }
+        return regex.toString();
+    }
+}
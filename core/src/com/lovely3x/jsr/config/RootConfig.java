@@ -0,0 +1,232 @@
+package com.lovely3x.jsr.config;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一个资源根目录的配置
+ * <p>
+ * 每个资源根目录都有自己的资源文件夹、模板和生成的文件,互相独立地生成。
+ * 没有配置 roots 时,使用顶层的配置作为唯一的资源根目录。
+ */
+public final class RootConfig {
+
+    public static final String DEFAULT_TEMPLATE_RESOURCE_JS_NAME = "resource.js";
+
+    /**
+     * 需要生成的资源存放文件夹
+     */
+    private final String resDir;
+
+    /**
+     * 源代码放置文件夹
+     */
+    private final String srcDir;
+
+    /**
+     * 模板文件,没有配置时为null
+     */
+    private final String templateFile;
+
+    /**
+     * 模板代码插入标识
+     */
+    private final String templateIndicator;
+
+    /**
+     * 生成的文件(相对于项目根目录),没有配置时为null
+     */
+    private final String outputFile;
+
+    /**
+     * 资源文件过滤器
+     */
+    private final ResourceFilter filter;
+
+    /**
+     * 预加载列表的插入标识
+     */
+    private final String preloadIndicator;
+
+    /**
+     * 预加载分组名 -> 分组包含的资源
+     */
+    private final Map<String, ResourceFilter> preloadGroups;
+
+    /**
+     * 资源元数据清单(相对于项目根目录),没有配置时为null
+     */
+    private final String metadataFile;
+
+    /**
+     * {@link JsrConfig#CACHE_BUST_NONE}, {@link JsrConfig#CACHE_BUST_QUERY} 或 {@link JsrConfig#CACHE_BUST_FILENAME}
+     */
+    private final int cacheBust;
+
+    /**
+     * 摘要文件名的映射文件(相对于项目根目录),没有配置时为null
+     */
+    private final String cacheBustMapFile;
+
+    /**
+     * 是否把内容相同的资源合并为同一个地址
+     */
+    private final boolean duplicateAliases;
+
+    /**
+     * 是否解析 .plist 图集和 .fnt 位图字体
+     */
+    private final boolean spriteSheets;
+
+    /**
+     * 在生成之前打包为图集的图片文件夹
+     */
+    private final List<AtlasConfig> atlases;
+
+    /**
+     * 图片优化和多分辨率版本,没有配置时为null
+     */
+    private final ImageVariantsConfig imageVariants;
+
+    /**
+     * 额外生成的文件
+     */
+    private final List<EmitterConfig> emitters;
+
+    RootConfig(String resDir, String srcDir, String templateFile, String templateIndicator, String outputFile,
+               ResourceFilter filter, String preloadIndicator, Map<String, ResourceFilter> preloadGroups,
+               String metadataFile, int cacheBust, String cacheBustMapFile, boolean duplicateAliases,
+               boolean spriteSheets, List<AtlasConfig> atlases, ImageVariantsConfig imageVariants,
+               List<EmitterConfig> emitters) {
+        this.resDir = resDir;
+        this.srcDir = srcDir;
+        this.templateFile = templateFile;
+        this.templateIndicator = templateIndicator;
+        this.outputFile = outputFile;
+        this.filter = filter;
+        this.preloadIndicator = preloadIndicator;
+        this.preloadGroups = preloadGroups;
+        this.metadataFile = metadataFile;
+        this.cacheBust = cacheBust;
+        this.cacheBustMapFile = cacheBustMapFile;
+        this.duplicateAliases = duplicateAliases;
+        this.spriteSheets = spriteSheets;
+        this.atlases = atlases;
+        this.imageVariants = imageVariants;
+        this.emitters = emitters;
+    }
+
+    public String getResDir() {
+        return resDir;
+    }
+
+    public String getSrcDir() {
+        return srcDir;
+    }
+
+    public String getTemplateFile() {
+        return templateFile;
+    }
+
+    public String getTemplateIndicator() {
+        return templateIndicator;
+    }
+
+    public String getOutputFile() {
+        return outputFile;
+    }
+
+    public ResourceFilter getFilter() {
+        return filter;
+    }
+
+    public String getPreloadIndicator() {
+        return preloadIndicator;
+    }
+
+    public Map<String, ResourceFilter> getPreloadGroups() {
+        return preloadGroups;
+    }
+
+    public String getMetadataFile() {
+        return metadataFile;
+    }
+
+    public int getCacheBust() {
+        return cacheBust;
+    }
+
+    public String getCacheBustMapFile() {
+        return cacheBustMapFile;
+    }
+
+    public boolean isDuplicateAliases() {
+        return duplicateAliases;
+    }
+
+    public boolean isSpriteSheets() {
+        return spriteSheets;
+    }
+
+    public List<AtlasConfig> getAtlases() {
+        return atlases;
+    }
+
+    public ImageVariantsConfig getImageVariants() {
+        return imageVariants;
+    }
+
+    public List<EmitterConfig> getEmitters() {
+        return emitters;
+    }
+
+    /**
+     * @return 生成的内容是否和资源文件的内容有关,有关时资源文件的内容变化也需要重新生成
+     */
+    public boolean isContentSensitive() {
+        if (metadataFile != null || cacheBust != JsrConfig.CACHE_BUST_NONE || duplicateAliases
+                || spriteSheets || !atlases.isEmpty() || imageVariants != null) {
+            return true;
+        }
+        for (EmitterConfig emitter : emitters) {
+            if (emitter.isContentSensitive()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 生成的文件,没有配置 outputFile 时放在 srcDir 中,文件名和模板文件相同
+     *
+     * @param projectBasePath 项目根目录
+     * @return 生成的文件
+     */
+    public File resolveOutputFile(String projectBasePath) {
+        if (outputFile != null) {
+            return new File(projectBasePath, outputFile);
+        }
+        return new File(new File(projectBasePath, srcDir),
+                templateFile == null ? DEFAULT_TEMPLATE_RESOURCE_JS_NAME : new File(templateFile).getName());
+    }
+
+    /**
+     * @param projectBasePath 项目根目录
+     * @return 资源文件夹
+     */
+    public File resolveResourceDir(String projectBasePath) {
+        return new File(projectBasePath, resDir);
+    }
+
+    /**
+     * 生成的资源路径的前缀,例如 res/,资源文件夹就是项目根目录时为空字符串
+     *
+     * @return 前缀
+     */
+    public String getResourcePathPrefix() {
+        String prefix = resDir.replace('\\', '/');
+        while (prefix.endsWith("/")) {
+            prefix = prefix.substring(0, prefix.length() - 1);
+        }
+        return prefix.isEmpty() ? "" : prefix + '/';
+    }
+}
@@ -0,0 +1,252 @@
+package com.lovely3x.jsr.generator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 资源文件头解析
+ * <p>
+ * 只使用 {@link FileChannel#read(ByteBuffer, long)} 按位置读取需要的几个字节,不会读取整个文件:
+ * <ul>
+ * <li>PNG: IHDR 中的宽高</li>
+ * <li>JPEG: 逐个跳过标记段直到 SOF</li>
+ * <li>GIF, BMP: 文件头中的宽高</li>
+ * <li>OGG (vorbis, opus): 第一页中的采样率和最后一页的 granule position</li>
+ * <li>MP3: 跳过 ID3v2 后的第一帧,有 Xing/Info 头时使用其中的帧数,否则按固定码率估算</li>
+ * <li>WAV: fmt 块和 data 块的大小</li>
+ * </ul>
+ */
+class AssetHeaderReader {
+
+    /**
+     * 查找 JPEG SOF 或 MP3 帧头时最多检查的标记/字节数,避免损坏的文件导致长时间读取
+     */
+    private static final int MAX_JPEG_SEGMENTS = 64;
+    private static final int MP3_SYNC_WINDOW = 8 * 1024;
+
+    /**
+     * 读取 OGG 最后一页时从文件末尾向前读取的字节数
+     */
+    private static final int OGG_TAIL_SIZE = 64 * 1024;
+
+    private static final int[][] MP3_BITRATES = {
+            //MPEG1 layer 1, 2, 3
+            {0, 32, 64, 96, 128, 160, 192, 224, 256, 288, 320, 352, 384, 416, 448},
+            {0, 32, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, 384},
+            {0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320},
+            //MPEG2/2.5 layer 1, 2&3
+            {0, 32, 48, 56, 64, 80, 96, 112, 128, 144, 160, 176, 192, 224, 256},
+            {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160},
+    };
+
+    private static final int[] MP3_SAMPLE_RATES = {44100, 48000, 32000};
+
+    private AssetHeaderReader() {
+    }
+
+    /**
+     * 读取文件的元数据
+     *
+     * @param file 文件
+     * @param size 文件大小
+     * @return 元数据,格式无法识别时只有大小
+     */
+    static AssetMetadata read(Path file, long size) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            AssetMetadata metadata = read(channel, size);
+            return metadata != null ? metadata : AssetMetadata.unknown(size);
+        } catch (IOException | RuntimeException e) {
+            //文件不存在、无法读取或者已经损坏
+            return AssetMetadata.unknown(size);
+        }
+    }
+
+    private static AssetMetadata read(FileChannel channel, long size) throws IOException {
+        ByteBuffer head = readAt(channel, 0, 32);
+        if (head.remaining() < 12) return null;
+
+        int b0 = head.get(0) & 0xFF;
+        int b1 = head.get(1) & 0xFF;
+        if (b0 == 0x89 && startsWith(head, 1, "PNG") && head.remaining() >= 24) {
+            return AssetMetadata.image(size, "png", head.getInt(16), head.getInt(20));
+        }
+        if (b0 == 0xFF && b1 == 0xD8) {
+            return readJpeg(channel, size);
+        }
+        if (startsWith(head, 0, "GIF8")) {
+            head.order(ByteOrder.LITTLE_ENDIAN);
+            return AssetMetadata.image(size, "gif", head.getShort(6) & 0xFFFF, head.getShort(8) & 0xFFFF);
+        }
+        if (startsWith(head, 0, "BM") && head.remaining() >= 26) {
+            head.order(ByteOrder.LITTLE_ENDIAN);
+            return AssetMetadata.image(size, "bmp", head.getInt(18), Math.abs(head.getInt(22)));
+        }
+        if (startsWith(head, 0, "RIFF") && startsWith(head, 8, "WEBP")) {
+            return readWebp(head, size);
+        }
+        if (startsWith(head, 0, "RIFF") && startsWith(head, 8, "WAVE")) {
+            return readWav(channel, size);
+        }
+        if (startsWith(head, 0, "OggS")) {
+            return readOgg(channel, size);
+        }
+        if (startsWith(head, 0, "ID3") || (b0 == 0xFF && (b1 & 0xE0) == 0xE0)) {
+            return readMp3(channel, head, size);
+        }
+        return null;
+    }
+
+    private static AssetMetadata readJpeg(FileChannel channel, long size) throws IOException {
+        long position = 2;
+        for (int i = 0; i < MAX_JPEG_SEGMENTS && position + 9 <= size; i++) {
+            ByteBuffer marker = readAt(channel, position, 9);
+            if (marker.remaining() < 4 || (marker.get(0) & 0xFF) != 0xFF) return null;
+
+            int type = marker.get(1) & 0xFF;
+            if (type == 0xFF) {
+                //填充字节
+                position++;
+                continue;
+            }
+            int length = marker.getShort(2) & 0xFFFF;
+            boolean sof = type >= 0xC0 && type <= 0xCF && type != 0xC4 && type != 0xC8 && type != 0xCC;
+            if (sof && marker.remaining() >= 9) {
+                return AssetMetadata.image(size, "jpeg", marker.getShort(7) & 0xFFFF, marker.getShort(5) & 0xFFFF);
+            }
+            position += 2 + length;
+        }
+        return null;
+    }
+
+    private static AssetMetadata readWebp(ByteBuffer head, long size) {
+        head.order(ByteOrder.LITTLE_ENDIAN);
+        if (startsWith(head, 12, "VP8X") && head.remaining() >= 30) {
+            int width = 1 + ((head.get(24) & 0xFF) | (head.get(25) & 0xFF) << 8 | (head.get(26) & 0xFF) << 16);
+            int height = 1 + ((head.get(27) & 0xFF) | (head.get(28) & 0xFF) << 8 | (head.get(29) & 0xFF) << 16);
+            return AssetMetadata.image(size, "webp", width, height);
+        }
+        if (startsWith(head, 12, "VP8 ") && head.remaining() >= 30) {
+            return AssetMetadata.image(size, "webp", head.getShort(26) & 0x3FFF, head.getShort(28) & 0x3FFF);
+        }
+        if (startsWith(head, 12, "VP8L") && head.remaining() >= 25) {
+            int bits = head.getInt(21);
+            return AssetMetadata.image(size, "webp", (bits & 0x3FFF) + 1, ((bits >> 14) & 0x3FFF) + 1);
+        }
+        return AssetMetadata.image(size, "webp", -1, -1);
+    }
+
+    private static AssetMetadata readWav(FileChannel channel, long size) throws IOException {
+        long position = 12;
+        long byteRate = -1;
+        while (position + 8 <= size) {
+            ByteBuffer chunk = readAt(channel, position, 20).order(ByteOrder.LITTLE_ENDIAN);
+            if (chunk.remaining() < 8) break;
+
+            long length = chunk.getInt(4) & 0xFFFFFFFFL;
+            if (startsWith(chunk, 0, "fmt ") && chunk.remaining() >= 20) {
+                byteRate = chunk.getInt(16) & 0xFFFFFFFFL;
+            } else if (startsWith(chunk, 0, "data")) {
+                long duration = byteRate > 0 ? Math.min(length, size - position - 8) * 1000 / byteRate : -1;
+                return AssetMetadata.audio(size, "wav", duration);
+            }
+            //块的长度是奇数时有一个填充字节
+            position += 8 + length + (length & 1);
+        }
+        return AssetMetadata.audio(size, "wav", -1);
+    }
+
+    private static AssetMetadata readOgg(FileChannel channel, long size) throws IOException {
+        //第一页: 27字节页头 + 段表,之后是 vorbis 标识头
+        ByteBuffer first = readAt(channel, 0, 27 + 255 + 30).order(ByteOrder.LITTLE_ENDIAN);
+        if (first.remaining() < 28) return AssetMetadata.audio(size, "ogg", -1);
+        int packet = 27 + (first.get(26) & 0xFF);
+        long sampleRate = -1;
+        if (first.remaining() >= packet + 16 && first.get(packet) == 1 && startsWith(first, packet + 1, "vorbis")) {
+            sampleRate = first.getInt(packet + 12) & 0xFFFFFFFFL;
+        } else if (startsWith(first, packet, "OpusHead")) {
+            //opus 的 granule position 总是按照 48kHz 计算
+            sampleRate = 48000;
+        }
+        if (sampleRate <= 0) return AssetMetadata.audio(size, "ogg", -1);
+
+        //最后一页的 granule position 就是总的采样数
+        long tailStart = Math.max(0, size - OGG_TAIL_SIZE);
+        ByteBuffer tail = readAt(channel, tailStart, (int) (size - tailStart)).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = tail.remaining() - 14; i >= 0; i--) {
+            if (tail.get(i) == 'O' && tail.get(i + 1) == 'g' && tail.get(i + 2) == 'g' && tail.get(i + 3) == 'S') {
+                long granule = tail.getLong(i + 6);
+                return AssetMetadata.audio(size, "ogg", granule > 0 ? granule * 1000 / sampleRate : -1);
+            }
+        }
+        return AssetMetadata.audio(size, "ogg", -1);
+    }
+
+    private static AssetMetadata readMp3(FileChannel channel, ByteBuffer head, long size) throws IOException {
+        long offset = 0;
+        if (startsWith(head, 0, "ID3")) {
+            //ID3v2 标签的长度使用 synchsafe 整数
+            int tagSize = (head.get(6) & 0x7F) << 21 | (head.get(7) & 0x7F) << 14
+                    | (head.get(8) & 0x7F) << 7 | (head.get(9) & 0x7F);
+            offset = 10 + tagSize + ((head.get(5) & 0x10) != 0 ? 10 : 0);
+        }
+
+        ByteBuffer window = readAt(channel, offset, MP3_SYNC_WINDOW);
+        for (int i = 0; i + 4 <= window.remaining(); i++) {
+            if ((window.get(i) & 0xFF) != 0xFF || (window.get(i + 1) & 0xE0) != 0xE0) continue;
+
+            int header = window.getInt(i);
+            int version = (header >> 19) & 3;//0: 2.5, 2: 2, 3: 1
+            int layer = 4 - ((header >> 17) & 3);
+            int bitrateIndex = (header >> 12) & 0xF;
+            int sampleRateIndex = (header >> 10) & 3;
+            if (version == 1 || layer == 4 || bitrateIndex == 0 || bitrateIndex == 15 || sampleRateIndex == 3) continue;
+
+            boolean mpeg1 = version == 3;
+            int bitrate = MP3_BITRATES[mpeg1 ? layer - 1 : (layer == 1 ? 3 : 4)][bitrateIndex] * 1000;
+            int sampleRate = MP3_SAMPLE_RATES[sampleRateIndex] >> (mpeg1 ? 0 : version == 2 ? 1 : 2);
+            int samplesPerFrame = layer == 1 ? 384 : layer == 2 || mpeg1 ? 1152 : 576;
+            boolean mono = ((header >> 6) & 3) == 3;
+
+            //Xing/Info 头位于第一帧的边信息之后
+            int sideInfo = mpeg1 ? (mono ? 17 : 32) : (mono ? 9 : 17);
+            int xing = i + 4 + sideInfo;
+            if (window.remaining() >= xing + 12
+                    && (startsWith(window, xing, "Xing") || startsWith(window, xing, "Info"))
+                    && (window.getInt(xing + 4) & 1) != 0) {
+                long frames = window.getInt(xing + 8) & 0xFFFFFFFFL;
+                return AssetMetadata.audio(size, "mp3", frames * samplesPerFrame * 1000 / sampleRate);
+            }
+
+            //固定码率估算
+            return AssetMetadata.audio(size, "mp3", (size - offset - i) * 8 * 1000 / bitrate);
+        }
+        return AssetMetadata.audio(size, "mp3", -1);
+    }
+
+    /**
+     * 从给定位置读取最多 length 个字节,返回的缓冲区已经准备好读取,使用大端序
+     */
+    private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) break;
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int offset, String ascii) {
+        byte[] expected = ascii.getBytes(StandardCharsets.US_ASCII);
+        if (buffer.remaining() < offset + expected.length) return false;
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(offset + i) != expected[i]) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,64 @@
+package com.lovely3x.jsr.generator;
+
+/**
+ * 资源文件的元数据,只从文件头中读取
+ * <p>
+ * 图片有宽高,音频有格式和时长,其他文件只有大小。无法识别的字段为 -1 或 null。
+ */
+public final class AssetMetadata {
+
+    private final long size;
+
+    /**
+     * 文件格式,例如 png, jpeg, ogg, mp3, wav,无法识别时为null
+     */
+    private final String format;
+
+    private final int width;
+    private final int height;
+
+    /**
+     * 音频时长,毫秒
+     */
+    private final long durationMillis;
+
+    AssetMetadata(long size, String format, int width, int height, long durationMillis) {
+        this.size = size;
+        this.format = format;
+        this.width = width;
+        this.height = height;
+        this.durationMillis = durationMillis;
+    }
+
+    static AssetMetadata image(long size, String format, int width, int height) {
+        return new AssetMetadata(size, format, width, height, -1);
+    }
+
+    static AssetMetadata audio(long size, String format, long durationMillis) {
+        return new AssetMetadata(size, format, -1, -1, durationMillis);
+    }
+
+    static AssetMetadata unknown(long size) {
+        return new AssetMetadata(size, null, -1, -1, -1);
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+}
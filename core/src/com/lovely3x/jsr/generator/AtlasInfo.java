@@ -0,0 +1,37 @@
+package com.lovely3x.jsr.generator;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 从 .plist 图集(或粒子)和 .fnt 位图字体中解析出的帧名和纹理
+ * <p>
+ * 纹理是文件中记录的原始路径,相对于图集所在的文件夹。
+ */
+public final class AtlasInfo {
+
+    static final AtlasInfo EMPTY = new AtlasInfo(Collections.emptyList(), Collections.emptyList());
+
+    /**
+     * 图集中所有帧的名字,按在文件中出现的顺序
+     */
+    private final List<String> frames;
+
+    /**
+     * 图集或字体使用的纹理
+     */
+    private final List<String> textures;
+
+    AtlasInfo(List<String> frames, List<String> textures) {
+        this.frames = frames;
+        this.textures = textures;
+    }
+
+    public List<String> getFrames() {
+        return frames;
+    }
+
+    public List<String> getTextures() {
+        return textures;
+    }
+}
@@ -0,0 +1,454 @@
+package com.lovely3x.jsr.generator;
+
+import com.lovely3x.jsr.config.AtlasConfig;
+
+import javax.imageio.ImageIO;
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 把一个图片文件夹打包为图集(png + Cocos plist format 2)
+ * <p>
+ * 按高度降序使用货架算法(shelf packing)放置图片,宽度从能容纳所有图片面积的最小的2的幂开始,
+ * 放不下时加倍,到 maxSize 仍然放不下时分为多页。图片不旋转,也不裁剪透明边缘,
+ * 帧名是图片相对于资源文件夹的路径。宽高超过 maxSize 或者无法识别的图片不打包,仍然作为普通资源。
+ * <p>
+ * 输入(打包参数、每个图片的路径和内容摘要)的摘要写在每一页 plist 的 metadata.smartupdate 中,
+ * 摘要相同并且所有页都还存在时不会重新打包,重启之后也是如此。
+ * <p>
+ * 图集写在资源文件夹中,写入的临时文件以 '.' 开头,和其他隐藏文件一样不会被扫描,也不会触发生成;
+ * 替换后的页面本身产生的文件事件由监听者通过 {@link GeneratedFiles} 忽略。
+ */
+class AtlasPacker {
+
+    /**
+     * 打包算法或者输出格式的版本,修改后已有的图集都会重新打包
+     */
+    private static final int VERSION = 1;
+
+    private static final Pattern SMART_UPDATE = Pattern.compile("<key>smartupdate</key>\\s*<string>([^<]*)</string>");
+
+    /**
+     * 一个图集的打包结果
+     */
+    static final class Result {
+
+        private final List<String> mFiles;
+        private final Map<String, String> mFrames;
+        private final boolean mPacked;
+
+        Result(List<String> files, Map<String, String> frames, boolean packed) {
+            this.mFiles = files;
+            this.mFrames = frames;
+            this.mPacked = packed;
+        }
+
+        /**
+         * @return 图集的所有文件(相对于资源文件夹),依次是每一页的 png 和 plist
+         */
+        List<String> getFiles() {
+            return mFiles;
+        }
+
+        /**
+         * @return 被打包的图片(相对于资源文件夹) -> 帧名
+         */
+        Map<String, String> getFrames() {
+            return mFrames;
+        }
+
+        /**
+         * @return 本次是否重新打包并写入了文件
+         */
+        boolean isPacked() {
+            return mPacked;
+        }
+    }
+
+    /**
+     * 一个需要放置的图片
+     */
+    private static final class Sprite {
+
+        private final String mPath;
+        private final int mWidth;
+        private final int mHeight;
+        private int mX;
+        private int mY;
+
+        Sprite(String path, int width, int height) {
+            this.mPath = path;
+            this.mWidth = width;
+            this.mHeight = height;
+        }
+    }
+
+    /**
+     * 一页的放置结果
+     */
+    private static final class Page {
+
+        private final List<Sprite> mSprites = new ArrayList<>();
+        private int mWidth;
+        private int mHeight;
+    }
+
+    /**
+     * 已经打包好的图集
+     */
+    private static final class Packed {
+
+        private final String mHash;
+        private final int mPageCount;
+
+        Packed(String hash, int pageCount) {
+            this.mHash = hash;
+            this.mPageCount = pageCount;
+        }
+    }
+
+    /**
+     * 第一页 plist 的绝对路径 -> 已经打包好的图集,避免每次都读取 plist
+     */
+    private final Map<String, Packed> mPacked = new ConcurrentHashMap<>();
+
+    /**
+     * @param relativePath 资源相对于资源文件夹的路径
+     * @return 是否是可以被 javax.imageio 读取的图片
+     */
+    static boolean isPackable(String relativePath) {
+        String name = relativePath.toLowerCase(Locale.ROOT);
+        return name.endsWith(".png") || name.endsWith(".jpg") || name.endsWith(".jpeg")
+                || name.endsWith(".gif") || name.endsWith(".bmp");
+    }
+
+    /**
+     * 打包一个图片文件夹,输入没有变化时直接使用已有的图集。可以在多个线程中同时打包不同的图集
+     *
+     * @param baseDir   资源文件夹
+     * @param config    图集的配置
+     * @param images    文件夹中的图片,见 {@link #isPackable(String)}
+     * @param digests   图片的相对路径 -> 内容摘要
+     * @param metadata  图片的相对路径 -> 元数据(宽高)
+     * @param cancelled 是否已经被取消
+     * @return 打包结果
+     * @throws IOException           图片无法读取或者图集写入失败
+     * @throws CancellationException 被取消
+     */
+    Result pack(File baseDir, AtlasConfig config, List<ResourceEntry> images, Map<String, String> digests,
+                Map<String, AssetMetadata> metadata, BooleanSupplier cancelled) throws IOException {
+        int maxSize = config.getMaxSize();
+        int padding = config.getPadding();
+        List<Sprite> sprites = new ArrayList<>();
+        for (ResourceEntry image : images) {
+            AssetMetadata value = metadata.get(image.getRelativePath());
+            if (value == null || value.getWidth() <= 0 || value.getHeight() <= 0
+                    || value.getWidth() > maxSize || value.getHeight() > maxSize) {
+                continue;
+            }
+            sprites.add(new Sprite(image.getRelativePath(), value.getWidth(), value.getHeight()));
+        }
+        sprites.sort(Comparator.comparing(sprite -> sprite.mPath));
+
+        Map<String, String> frames = new LinkedHashMap<>();
+        for (Sprite sprite : sprites) {
+            frames.put(sprite.mPath, sprite.mPath);
+        }
+        frames = Collections.unmodifiableMap(frames);
+
+        String hash = hash(config, sprites, digests);
+        File firstPlist = pageFile(baseDir, config, 0, ".plist");
+        int pageCount = reusablePages(baseDir, config, firstPlist, hash, sprites.isEmpty());
+        if (pageCount >= 0) return new Result(files(config, pageCount), frames, false);
+
+        List<Page> pages = layout(sprites, maxSize, padding);
+        for (int i = 0; i < pages.size(); i++) {
+            if (cancelled.getAsBoolean()) throw new CancellationException();
+            writePage(baseDir, config, i, pages.get(i), hash);
+        }
+        //删除之前多出来的页
+        for (int i = pages.size(); ; i++) {
+            File png = pageFile(baseDir, config, i, ".png");
+            File plist = pageFile(baseDir, config, i, ".plist");
+            if (!png.exists() && !plist.exists()) break;
+            Files.deleteIfExists(png.toPath());
+            Files.deleteIfExists(plist.toPath());
+        }
+
+        mPacked.put(firstPlist.getAbsolutePath(), new Packed(hash, pages.size()));
+        return new Result(files(config, pages.size()), frames, true);
+    }
+
+    /**
+     * @param empty 是否没有需要打包的图片,这时没有任何页也是有效的
+     * @return 已有的图集的输入摘要和 hash 相同并且所有页都存在时返回页数,否则返回-1
+     */
+    private int reusablePages(File baseDir, AtlasConfig config, File firstPlist, String hash, boolean empty)
+            throws IOException {
+        Packed packed = mPacked.get(firstPlist.getAbsolutePath());
+        if (packed != null && hash.equals(packed.mHash)) {
+            for (int i = 0; i < packed.mPageCount; i++) {
+                if (!pageFile(baseDir, config, i, ".png").isFile() || !pageFile(baseDir, config, i, ".plist").isFile()) {
+                    return -1;
+                }
+            }
+            return packed.mPageCount;
+        }
+
+        //重启后从 plist 中读取
+        int pageCount = 0;
+        while (true) {
+            File plist = pageFile(baseDir, config, pageCount, ".plist");
+            if (!plist.isFile()) break;
+            if (!hash.equals(readSmartUpdate(plist)) || !pageFile(baseDir, config, pageCount, ".png").isFile()) {
+                return -1;
+            }
+            pageCount++;
+        }
+        if (pageCount == 0 && !empty) return -1;
+        mPacked.put(firstPlist.getAbsolutePath(), new Packed(hash, pageCount));
+        return pageCount;
+    }
+
+    private static String readSmartUpdate(File plist) throws IOException {
+        String content = new String(Files.readAllBytes(plist.toPath()), StandardCharsets.UTF_8);
+        Matcher matcher = SMART_UPDATE.matcher(content);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    /**
+     * 打包参数和所有图片的路径、尺寸、内容摘要的摘要
+     */
+    private static String hash(AtlasConfig config, List<Sprite> sprites, Map<String, String> digests) {
+        MessageDigest md = ContentHasher.newDigest();
+        StringBuilder sb = new StringBuilder();
+        sb.append(VERSION).append('\u0000').append(config.getOutput()).append('\u0000')
+                .append(config.getMaxSize()).append('\u0000').append(config.getPadding()).append('\u0000');
+        for (Sprite sprite : sprites) {
+            sb.append(sprite.mPath).append('\u0000').append(sprite.mWidth).append('x').append(sprite.mHeight)
+                    .append('\u0000').append(digests.get(sprite.mPath)).append('\u0000');
+        }
+        md.update(sb.toString().getBytes(StandardCharsets.UTF_8));
+        return ContentHasher.toHex(md.digest());
+    }
+
+    /**
+     * 放置所有的图片
+     */
+    private static List<Page> layout(List<Sprite> sprites, int maxSize, int padding) {
+        if (sprites.isEmpty()) return Collections.emptyList();
+
+        List<Sprite> sorted = new ArrayList<>(sprites);
+        sorted.sort((a, b) -> a.mHeight != b.mHeight ? b.mHeight - a.mHeight
+                : a.mWidth != b.mWidth ? b.mWidth - a.mWidth : a.mPath.compareTo(b.mPath));
+
+        long area = 0;
+        int maxWidth = 0;
+        for (Sprite sprite : sorted) {
+            area += (long) (sprite.mWidth + padding) * (sprite.mHeight + padding);
+            maxWidth = Math.max(maxWidth, sprite.mWidth);
+        }
+        int width = Math.min(maxSize, powerOfTwo(Math.max(maxWidth, (int) Math.ceil(Math.sqrt(area)))));
+        while (width < maxSize) {
+            Page page = new Page();
+            if (shelf(sorted, page, width, maxSize, padding).isEmpty()) return Collections.singletonList(page);
+            width *= 2;
+        }
+
+        List<Page> pages = new ArrayList<>();
+        List<Sprite> remaining = sorted;
+        while (!remaining.isEmpty()) {
+            Page page = new Page();
+            remaining = shelf(remaining, page, maxSize, maxSize, padding);
+            pages.add(page);
+        }
+        return pages;
+    }
+
+    /**
+     * 货架算法: 从左到右放置,当前一行放不下时开始新的一行,行高是这一行中最高的图片
+     *
+     * @return 这一页放不下的图片
+     */
+    private static List<Sprite> shelf(List<Sprite> sprites, Page page, int width, int height, int padding) {
+        List<Sprite> remaining = new ArrayList<>();
+        int x = 0;
+        int y = 0;
+        int shelfHeight = 0;
+        int usedWidth = 0;
+        int usedHeight = 0;
+        for (Sprite sprite : sprites) {
+            if (x > 0 && x + sprite.mWidth > width) {
+                y += shelfHeight;
+                x = 0;
+                shelfHeight = 0;
+            }
+            if (x + sprite.mWidth > width || y + sprite.mHeight > height) {
+                remaining.add(sprite);
+                continue;
+            }
+            sprite.mX = x;
+            sprite.mY = y;
+            page.mSprites.add(sprite);
+            usedWidth = Math.max(usedWidth, x + sprite.mWidth);
+            usedHeight = Math.max(usedHeight, y + sprite.mHeight);
+            x += sprite.mWidth + padding;
+            shelfHeight = Math.max(shelfHeight, sprite.mHeight + padding);
+        }
+        page.mWidth = powerOfTwo(usedWidth);
+        page.mHeight = powerOfTwo(usedHeight);
+        return remaining;
+    }
+
+    private static int powerOfTwo(int value) {
+        int result = 1;
+        while (result < value) result <<= 1;
+        return result;
+    }
+
+    /**
+     * 绘制一页并写入 png 和 plist,都先写入同一个文件夹中的隐藏临时文件再替换,plist 最后替换
+     */
+    private static void writePage(File baseDir, AtlasConfig config, int index, Page page, String hash)
+            throws IOException {
+        BufferedImage texture = new BufferedImage(page.mWidth, page.mHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = texture.createGraphics();
+        try {
+            graphics.setComposite(AlphaComposite.Src);
+            for (Sprite sprite : page.mSprites) {
+                BufferedImage image = ImageIO.read(new File(baseDir, sprite.mPath));
+                if (image == null || image.getWidth() != sprite.mWidth || image.getHeight() != sprite.mHeight) {
+                    throw new IOException("无法读取图片或者图片在打包时被修改: " + sprite.mPath);
+                }
+                graphics.drawImage(image, sprite.mX, sprite.mY, null);
+            }
+        } finally {
+            graphics.dispose();
+        }
+
+        File png = pageFile(baseDir, config, index, ".png");
+        File plist = pageFile(baseDir, config, index, ".plist");
+        Files.createDirectories(png.getParentFile().toPath());
+
+        Path pngTemp = tempFile(png);
+        try {
+            if (!ImageIO.write(texture, "png", pngTemp.toFile())) throw new IOException("No PNG writer");
+            replace(pngTemp, png.toPath());
+        } finally {
+            Files.deleteIfExists(pngTemp);
+        }
+
+        Path plistTemp = tempFile(plist);
+        try {
+            try (Writer out = Files.newBufferedWriter(plistTemp, StandardCharsets.UTF_8)) {
+                writePlist(out, page, png.getName(), hash);
+            }
+            replace(plistTemp, plist.toPath());
+        } finally {
+            Files.deleteIfExists(plistTemp);
+        }
+    }
+
+    /**
+     * @return 和 file 在同一个文件夹中的隐藏临时文件,替换时可以原子地移动
+     */
+    private static Path tempFile(File file) {
+        return new File(file.getParentFile(), "." + file.getName() + ".tmp").toPath();
+    }
+
+    private static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void writePlist(Writer out, Page page, String textureFileName, String hash) throws IOException {
+        List<Sprite> sprites = new ArrayList<>(page.mSprites);
+        sprites.sort(Comparator.comparing(sprite -> sprite.mPath));
+
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<!DOCTYPE plist PUBLIC \"-//Apple//DTD PLIST 1.0//EN\" "
+                + "\"http://www.apple.com/DTDs/PropertyList-1.0.dtd\">\n");
+        out.write("<plist version=\"1.0\">\n");
+        out.write("    <dict>\n");
+        out.write("        <key>frames</key>\n");
+        out.write("        <dict>\n");
+        for (Sprite sprite : sprites) {
+            String size = "{" + sprite.mWidth + "," + sprite.mHeight + "}";
+            out.write("            <key>" + escapeXml(sprite.mPath) + "</key>\n");
+            out.write("            <dict>\n");
+            out.write("                <key>frame</key>\n");
+            out.write("                <string>{{" + sprite.mX + "," + sprite.mY + "}," + size + "}</string>\n");
+            out.write("                <key>offset</key>\n");
+            out.write("                <string>{0,0}</string>\n");
+            out.write("                <key>rotated</key>\n");
+            out.write("                <false/>\n");
+            out.write("                <key>sourceColorRect</key>\n");
+            out.write("                <string>{{0,0}," + size + "}</string>\n");
+            out.write("                <key>sourceSize</key>\n");
+            out.write("                <string>" + size + "</string>\n");
+            out.write("            </dict>\n");
+        }
+        out.write("        </dict>\n");
+        out.write("        <key>metadata</key>\n");
+        out.write("        <dict>\n");
+        out.write("            <key>format</key>\n");
+        out.write("            <integer>2</integer>\n");
+        out.write("            <key>realTextureFileName</key>\n");
+        out.write("            <string>" + escapeXml(textureFileName) + "</string>\n");
+        out.write("            <key>size</key>\n");
+        out.write("            <string>{" + page.mWidth + "," + page.mHeight + "}</string>\n");
+        out.write("            <key>smartupdate</key>\n");
+        out.write("            <string>" + hash + "</string>\n");
+        out.write("            <key>textureFileName</key>\n");
+        out.write("            <string>" + escapeXml(textureFileName) + "</string>\n");
+        out.write("        </dict>\n");
+        out.write("    </dict>\n");
+        out.write("</plist>\n");
+    }
+
+    private static String escapeXml(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    /**
+     * @return 第 index 页的文件,第一页没有后缀,之后的页是 -1, -2 ...
+     */
+    private static File pageFile(File baseDir, AtlasConfig config, int index, String extension) {
+        return new File(baseDir, config.getOutput() + (index == 0 ? "" : "-" + index) + extension);
+    }
+
+    private static List<String> files(AtlasConfig config, int pageCount) {
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < pageCount; i++) {
+            String base = config.getOutput() + (i == 0 ? "" : "-" + i);
+            files.add(base + ".png");
+            files.add(base + ".plist");
+        }
+        return files;
+    }
+}
@@ -0,0 +1,164 @@
+package com.lovely3x.jsr.generator;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+
+/**
+ * 图集和位图字体解析
+ * <p>
+ * <ul>
+ * <li>.plist: 使用 StAX 流式读取,只保留 frames 中的帧名和 metadata 中的纹理文件名,不会构建整个文档;
+ * 粒子的 plist 使用顶层的 textureFileName。二进制 plist 引擎不支持,不解析。</li>
+ * <li>.fnt: 文本和 XML 格式都只读取 page 行中的纹理文件名,读到 chars 后停止。</li>
+ * </ul>
+ */
+class AtlasReader {
+
+    private static final Pattern FNT_PAGE_FILE = Pattern.compile("\\bfile\\s*=\\s*\"([^\"]*)\"");
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+
+    static {
+        //plist 带有 DOCTYPE,不能去网络上读取 DTD
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private AtlasReader() {
+    }
+
+    /**
+     * 读取图集或字体
+     *
+     * @param file 文件
+     * @param size 文件大小
+     * @return 帧名和纹理,无法识别时两者都为空
+     */
+    static AtlasInfo read(Path file, long size) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        try {
+            if (name.endsWith(".plist")) return readPlist(file);
+            if (name.endsWith(".fnt")) return readFnt(file);
+        } catch (IOException | XMLStreamException | RuntimeException e) {
+            //文件不存在、无法读取或者已经损坏
+        }
+        return AtlasInfo.EMPTY;
+    }
+
+    private static AtlasInfo readPlist(Path file) throws IOException, XMLStreamException {
+        try (InputStream in = Files.newInputStream(file)) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            try {
+                return readPlist(reader, file.getFileName().toString());
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    private static AtlasInfo readPlist(XMLStreamReader reader, String fileName) throws XMLStreamException {
+        //<plist><dict>
+        while (reader.hasNext() && reader.next() != START_ELEMENT) {
+            //跳过 DOCTYPE 和注释
+        }
+        if (!reader.isStartElement() || !"plist".equals(reader.getLocalName())
+                || reader.nextTag() != START_ELEMENT || !"dict".equals(reader.getLocalName())) {
+            return AtlasInfo.EMPTY;
+        }
+
+        List<String> frames = new ArrayList<>();
+        String texture = null;
+        String realTexture = null;
+        String particleTexture = null;
+        //顶层 dict 中的 <key>...</key><值>
+        while (reader.nextTag() == START_ELEMENT) {
+            String key = reader.getElementText();
+            reader.nextTag();
+            String type = reader.getLocalName();
+            if ("frames".equals(key) && "dict".equals(type)) {
+                while (reader.nextTag() == START_ELEMENT) {
+                    frames.add(reader.getElementText());
+                    reader.nextTag();
+                    skip(reader);
+                }
+            } else if ("metadata".equals(key) && "dict".equals(type)) {
+                while (reader.nextTag() == START_ELEMENT) {
+                    String metaKey = reader.getElementText();
+                    reader.nextTag();
+                    if ("textureFileName".equals(metaKey) && "string".equals(reader.getLocalName())) {
+                        texture = reader.getElementText();
+                    } else if ("realTextureFileName".equals(metaKey) && "string".equals(reader.getLocalName())) {
+                        realTexture = reader.getElementText();
+                    } else {
+                        skip(reader);
+                    }
+                }
+            } else if ("textureFileName".equals(key) && "string".equals(type)) {
+                particleTexture = reader.getElementText();
+            } else {
+                skip(reader);
+            }
+        }
+
+        if (frames.isEmpty()) {
+            return particleTexture == null || particleTexture.isEmpty() ? AtlasInfo.EMPTY
+                    : new AtlasInfo(Collections.emptyList(), Collections.singletonList(particleTexture));
+        }
+        //和引擎相同: 优先使用 textureFileName,都没有时使用和图集同名的 png
+        if (texture == null || texture.isEmpty()) texture = realTexture;
+        if (texture == null || texture.isEmpty()) {
+            int dot = fileName.lastIndexOf('.');
+            texture = fileName.substring(0, dot) + ".png";
+        }
+        return new AtlasInfo(Collections.unmodifiableList(frames), Collections.singletonList(texture));
+    }
+
+    /**
+     * 跳过当前元素(包括子元素),结束后停在它的结束标签上
+     */
+    private static void skip(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == START_ELEMENT) {
+                depth++;
+            } else if (event == END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static AtlasInfo readFnt(Path file) throws IOException {
+        List<String> textures = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                //二进制格式或者已经到了字符表
+                if (line.startsWith("BMF") || line.startsWith("chars") || line.startsWith("<chars")) break;
+                if (!line.startsWith("page") && !line.startsWith("<page")) continue;
+
+                Matcher matcher = FNT_PAGE_FILE.matcher(line);
+                if (matcher.find() && !matcher.group(1).isEmpty()) textures.add(matcher.group(1));
+            }
+        }
+        return textures.isEmpty() ? AtlasInfo.EMPTY
+                : new AtlasInfo(Collections.emptyList(), Collections.unmodifiableList(textures));
+    }
+}
@@ -0,0 +1,68 @@
+package com.lovely3x.jsr.generator;
+
+import com.lovely3x.jsr.config.JsrConfig;
+import com.lovely3x.jsr.utils.JsUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 给资源地址加上内容摘要,资源内容变化后地址也会变化,浏览器和CDN不会使用过期的缓存
+ * <p>
+ * query 模式: res/a.png -> res/a.png?v=摘要;
+ * filename 模式: res/a.png -> res/a.摘要.png,同时记录摘要文件名到原文件名的映射,写为 JSON,发布时按映射重命名文件。
+ */
+public class CacheBuster implements SourceFileWriter.Content {
+
+    private final int mMode;
+
+    /**
+     * 摘要文件名 -> 原文件名
+     */
+    private final Map<String, String> mMapping = new TreeMap<>();
+
+    /**
+     * @param mode {@link JsrConfig#CACHE_BUST_QUERY} 或 {@link JsrConfig#CACHE_BUST_FILENAME}
+     */
+    public CacheBuster(int mode) {
+        this.mMode = mode;
+    }
+
+    /**
+     * 给资源地址加上摘要
+     *
+     * @param path 资源路径,例如 res/some.png
+     * @param digest 内容摘要,见 {@link ContentHasher#digest},无法读取文件时为null,这时返回原路径
+     * @return 加上摘要后的地址
+     */
+    public String bust(String path, String digest) {
+        if (digest == null) return path;
+
+        String hash = digest.substring(0, Math.min(digest.length(), ContentHasher.HASH_LENGTH));
+        if (mMode == JsrConfig.CACHE_BUST_QUERY) return path + "?v=" + hash;
+
+        int nameStart = path.lastIndexOf('/') + 1;
+        int dot = path.lastIndexOf('.');
+        String busted = dot > nameStart
+                ? path.substring(0, dot) + '.' + hash + path.substring(dot)
+                : path + '.' + hash;
+        mMapping.put(busted, path);
+        return busted;
+    }
+
+    @Override
+    public void writeTo(Writer out) throws IOException {
+        out.write("{");
+        boolean first = true;
+        for (Map.Entry<String, String> entry : mMapping.entrySet()) {
+            out.write(first ? "\n\t" : ",\n\t");
+            first = false;
+            JsUtils.writeQuoted(out, entry.getKey());
+            out.write(" : ");
+            JsUtils.writeQuoted(out, entry.getValue());
+        }
+        out.write(first ? "}\n" : "\n}\n");
+    }
+}
@@ -0,0 +1,81 @@
+package com.lovely3x.jsr.generator;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 资源文件内容摘要
+ * <p>
+ * 使用内存映射读取文件,大文件按窗口分段映射,摘要直接从映射的缓冲区计算,不需要复制到堆中。
+ * 完整的摘要用于查找内容相同的资源,前 {@link #HASH_LENGTH} 个十六进制字符用于给资源地址加上版本号。
+ */
+public class ContentHasher {
+
+    /**
+     * 资源地址中摘要的长度(十六进制字符数)
+     */
+    public static final int HASH_LENGTH = 8;
+
+    private static final String DIGEST_ALGORITHM = "MD5";
+
+    /**
+     * 每次映射的最大长度
+     */
+    private static final long MAP_WINDOW = 64L * 1024 * 1024;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private ContentHasher() {
+    }
+
+    /**
+     * 计算文件内容的摘要
+     *
+     * @param file 文件
+     * @param size 文件大小
+     * @return 完整摘要的十六进制字符串,无法读取时返回null
+     */
+    public static String digest(Path file, long size) {
+        MessageDigest md = newDigest();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = Math.min(size, channel.size());
+            for (long position = 0; position < length; position += MAP_WINDOW) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                        position, Math.min(MAP_WINDOW, length - position));
+                md.update(buffer);
+            }
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+
+        return toHex(md.digest());
+    }
+
+    /**
+     * @return 和资源内容摘要相同算法的 MessageDigest
+     */
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return 摘要的十六进制字符串
+     */
+    static String toHex(byte[] digest) {
+        char[] hex = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            hex[i * 2] = HEX[(digest[i] & 0xFF) >> 4];
+            hex[i * 2 + 1] = HEX[digest[i] & 0xF];
+        }
+        return new String(hex);
+    }
+}
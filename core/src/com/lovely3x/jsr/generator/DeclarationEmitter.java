@@ -0,0 +1,72 @@
+package com.lovely3x.jsr.generator;
+
+import java.io.File;
+
+/**
+ * 生成 TypeScript 声明文件
+ * <p>
+ * 声明资源对象的每一个属性,编辑器可以补全资源名并检查拼写,例如
+ * <pre>
+ * declare const res: {
+ *     readonly res_some_png: string;
+ * };
+ * </pre>
+ * 有帧名常量时还会以同样的方式声明 res_frames(变量名加上 _frames)。
+ */
+public class DeclarationEmitter implements Emitter {
+
+    private final File mOutputFile;
+
+    private final String mVariable;
+
+    /**
+     * @param outputFile 生成的文件
+     * @param variable   资源对象的变量名,和模板中的变量名相同
+     */
+    public DeclarationEmitter(File outputFile, String variable) {
+        this.mOutputFile = outputFile;
+        this.mVariable = variable;
+    }
+
+    @Override
+    public File getOutputFile() {
+        return mOutputFile;
+    }
+
+    @Override
+    public boolean needsPreload() {
+        return false;
+    }
+
+    @Override
+    public boolean needsDigests() {
+        return false;
+    }
+
+    @Override
+    public SourceFileWriter.Content render(GeneratedResources resources) {
+        return out -> {
+            out.write("// Generated by Cocos2d-JSR, do not edit.\n");
+            out.write("declare const ");
+            out.write(mVariable);
+            out.write(": {\n");
+            for (String name : resources.getUrls().keySet()) {
+                out.write("\treadonly ");
+                out.write(name);
+                out.write(": string;\n");
+            }
+            out.write("};\n");
+
+            if (resources.getFrames().isEmpty()) return;
+            out.write("declare const ");
+            out.write(mVariable);
+            out.write("_frames: {\n");
+            for (String name : resources.getFrames().keySet()) {
+                out.write("\treadonly ");
+                out.write(name);
+                out.write(": string;\n");
+            }
+            out.write("};\n");
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package com.lovely3x.jsr.generator;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 查找内容相同的资源文件
+ * <p>
+ * 先按文件大小分组,只有大小相同的文件才需要计算摘要,大多数资源不会被读取;
+ * 摘要和缓存破坏使用同一个 {@link FileInfoCache},没有变化的文件不会被再次读取。
+ * 空文件不参与比较。
+ */
+public class DuplicateFinder {
+
+    private DuplicateFinder() {
+    }
+
+    /**
+     * @param digests   内容摘要的缓存,值由 {@link ContentHasher#digest} 计算
+     * @param pool      读取文件的线程池
+     * @param baseDir   资源文件夹
+     * @param entries   资源文件
+     * @param cancelled 是否已经被取消
+     * @return 重复的文件,按可以节省的字节数从大到小排列
+     * @throws java.util.concurrent.CancellationException 被取消
+     */
+    public static List<DuplicateSet> find(FileInfoCache<String> digests, FileReaderPool pool, File baseDir,
+                                          List<ResourceEntry> entries, BooleanSupplier cancelled) {
+        Map<Long, List<ResourceEntry>> bySize = new HashMap<>();
+        for (ResourceEntry entry : entries) {
+            if (entry.getSize() > 0) bySize.computeIfAbsent(entry.getSize(), k -> new ArrayList<>(2)).add(entry);
+        }
+
+        List<ResourceEntry> candidates = new ArrayList<>();
+        for (List<ResourceEntry> group : bySize.values()) {
+            if (group.size() > 1) candidates.addAll(group);
+        }
+        if (candidates.isEmpty()) return Collections.emptyList();
+
+        Map<String, String> digestMap = digests.get(pool, baseDir, candidates, cancelled);
+
+        //(大小, 摘要) -> 文件,TreeMap保证结果稳定
+        Map<String, List<String>> byContent = new TreeMap<>();
+        for (ResourceEntry entry : candidates) {
+            String digest = digestMap.get(entry.getRelativePath());
+            if (digest == null) continue;
+            byContent.computeIfAbsent(entry.getSize() + ":" + digest, k -> new ArrayList<>(2))
+                    .add(entry.getRelativePath());
+        }
+
+        List<DuplicateSet> result = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : byContent.entrySet()) {
+            List<String> paths = entry.getValue();
+            if (paths.size() < 2) continue;
+
+            Collections.sort(paths);
+            String key = entry.getKey();
+            int colon = key.indexOf(':');
+            result.add(new DuplicateSet(Long.parseLong(key.substring(0, colon)), key.substring(colon + 1),
+                    Collections.unmodifiableList(paths)));
+        }
+        result.sort((a, b) -> Long.compare(b.getWastedBytes(), a.getWastedBytes()));
+        return result;
+    }
+
+    /**
+     * @param duplicates 重复的文件
+     * @return 重复的文件 -> 保留的文件,保留的文件本身不在结果中
+     */
+    public static Map<String, String> aliases(List<DuplicateSet> duplicates) {
+        Map<String, String> aliases = new HashMap<>();
+        for (DuplicateSet set : duplicates) {
+            List<String> paths = set.getPaths();
+            for (int i = 1; i < paths.size(); i++) {
+                aliases.put(paths.get(i), set.getCanonicalPath());
+            }
+        }
+        return aliases;
+    }
+}
@@ -0,0 +1,50 @@
+package com.lovely3x.jsr.generator;
+
+import java.util.List;
+
+/**
+ * 一组内容完全相同的资源文件
+ */
+public final class DuplicateSet {
+
+    private final long mSize;
+
+    private final String mDigest;
+
+    /**
+     * 相对于资源文件夹的路径,按字典序排列,第一个是保留的文件
+     */
+    private final List<String> mPaths;
+
+    DuplicateSet(long size, String digest, List<String> paths) {
+        this.mSize = size;
+        this.mDigest = digest;
+        this.mPaths = paths;
+    }
+
+    public long getSize() {
+        return mSize;
+    }
+
+    public String getDigest() {
+        return mDigest;
+    }
+
+    public List<String> getPaths() {
+        return mPaths;
+    }
+
+    /**
+     * @return 保留的文件,其他文件都可以使用它代替
+     */
+    public String getCanonicalPath() {
+        return mPaths.get(0);
+    }
+
+    /**
+     * @return 去掉重复文件后可以节省的字节数
+     */
+    public long getWastedBytes() {
+        return mSize * (mPaths.size() - 1);
+    }
+}
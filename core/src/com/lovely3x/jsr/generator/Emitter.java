@@ -0,0 +1,35 @@
+package com.lovely3x.jsr.generator;
+
+import java.io.File;
+
+/**
+ * 根据资源索引生成一个文件
+ * <p>
+ * 一次生成中所有的生成器共用同一份 {@link GeneratedResources},资源文件夹只扫描一次;
+ * 生成的内容交给 {@link SourceFileWriter},内容没有变化时不会写入。
+ */
+public interface Emitter {
+
+    /**
+     * @return 生成的文件
+     */
+    File getOutputFile();
+
+    /**
+     * @return 是否需要预加载列表
+     */
+    boolean needsPreload();
+
+    /**
+     * @return 是否需要资源内容的摘要
+     */
+    boolean needsDigests();
+
+    /**
+     * 生成文件的内容
+     *
+     * @param resources 本次生成的所有资源
+     * @return 内容,写入时可能会被调用多次
+     */
+    SourceFileWriter.Content render(GeneratedResources resources);
+}
@@ -0,0 +1,139 @@
+package com.lovely3x.jsr.generator;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 按照 (路径, 大小, 修改时间) 缓存的文件信息
+ * <p>
+ * 缓存中没有或者已经过期的文件在 {@link FileReaderPool} 中并行读取,文件没有变化时不会再次读取。
+ * 大小和修改时间直接使用资源索引中的记录,不需要额外的系统调用。
+ *
+ * @param <T> 文件信息的类型
+ */
+public class FileInfoCache<T> {
+
+    /**
+     * 读取一个文件的信息
+     *
+     * @param <T> 文件信息的类型
+     */
+    public interface Reader<T> {
+
+        /**
+         * 在读取线程中调用,不能抛出异常
+         *
+         * @param file 文件
+         * @param size 文件大小
+         * @return 文件信息,无法读取时可以返回null
+         */
+        T read(Path file, long size);
+    }
+
+    /**
+     * 缓存的最大数量,超过后清空,避免被删除的资源一直占用内存
+     */
+    private static final int MAX_CACHE_SIZE = 1 << 18;
+
+    /**
+     * 每个任务处理的文件数量
+     */
+    private static final int BATCH_SIZE = 64;
+
+    private final Reader<T> mReader;
+
+    /**
+     * 文件绝对路径 -> 文件信息
+     */
+    private final Map<String, Cached<T>> mCache = new ConcurrentHashMap<>();
+
+    public FileInfoCache(Reader<T> reader) {
+        this.mReader = reader;
+    }
+
+    /**
+     * 获取资源文件的信息
+     *
+     * @param pool      读取文件的线程池
+     * @param baseDir   资源文件夹
+     * @param entries   资源文件
+     * @param cancelled 是否已经被取消
+     * @return 相对路径 -> 文件信息,无法读取的文件对应的值为null
+     * @throws CancellationException 被取消
+     */
+    public Map<String, T> get(FileReaderPool pool, File baseDir, List<ResourceEntry> entries, BooleanSupplier cancelled) {
+        if (mCache.size() + entries.size() > MAX_CACHE_SIZE) mCache.clear();
+
+        String basePath = baseDir.getAbsolutePath() + File.separatorChar;
+        Map<String, T> result = new HashMap<>(entries.size() * 2);
+        List<ResourceEntry> missing = new ArrayList<>();
+        for (ResourceEntry entry : entries) {
+            Cached<T> cached = mCache.get(basePath + entry.getRelativePath());
+            if (cached != null && cached.mSize == entry.getSize() && cached.mLastModified == entry.getLastModified()) {
+                result.put(entry.getRelativePath(), cached.mValue);
+            } else {
+                missing.add(entry);
+            }
+        }
+        if (missing.isEmpty()) return result;
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int start = 0; start < missing.size(); start += BATCH_SIZE) {
+            List<ResourceEntry> batch = missing.subList(start, Math.min(missing.size(), start + BATCH_SIZE));
+            futures.add(pool.submit(() -> {
+                for (ResourceEntry entry : batch) {
+                    if (cancelled.getAsBoolean()) return null;
+
+                    String path = basePath + entry.getRelativePath();
+                    T value = mReader.read(new File(path).toPath(), entry.getSize());
+                    mCache.put(path, new Cached<>(entry.getSize(), entry.getLastModified(), value));
+                }
+                return null;
+            }));
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            for (Future<?> future : futures) {
+                future.cancel(false);
+            }
+        }
+        if (cancelled.getAsBoolean()) throw new CancellationException();
+
+        for (ResourceEntry entry : missing) {
+            Cached<T> cached = mCache.get(basePath + entry.getRelativePath());
+            result.put(entry.getRelativePath(), cached != null ? cached.mValue : null);
+        }
+        return result;
+    }
+
+    private static final class Cached<T> {
+
+        private final long mSize;
+        private final long mLastModified;
+        private final T mValue;
+
+        Cached(long size, long lastModified, T value) {
+            this.mSize = size;
+            this.mLastModified = lastModified;
+            this.mValue = value;
+        }
+    }
+}
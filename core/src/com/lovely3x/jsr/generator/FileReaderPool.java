@@ -0,0 +1,58 @@
+package com.lovely3x.jsr.generator;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 读取资源文件内容的线程池
+ * <p>
+ * 线程数固定,空闲时线程会退出;元数据提取和内容摘要计算共用这一个线程池,同时读取的文件数量不会超过线程数。
+ */
+public class FileReaderPool {
+
+    private final ThreadPoolExecutor mExecutor;
+
+    /**
+     * @param parallelism 并行读取的线程数
+     */
+    public FileReaderPool(int parallelism) {
+        int threads = Math.max(1, parallelism);
+        this.mExecutor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "JSR-File-Reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.mExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 修改并行读取的线程数
+     *
+     * @param parallelism 并行读取的线程数
+     */
+    public synchronized void setParallelism(int parallelism) {
+        int threads = Math.max(1, parallelism);
+        if (threads > mExecutor.getMaximumPoolSize()) {
+            mExecutor.setMaximumPoolSize(threads);
+            mExecutor.setCorePoolSize(threads);
+        } else {
+            mExecutor.setCorePoolSize(threads);
+            mExecutor.setMaximumPoolSize(threads);
+        }
+    }
+
+    <T> Future<T> submit(Callable<T> task) {
+        return mExecutor.submit(task);
+    }
+
+    /**
+     * 关闭线程池
+     */
+    public void shutdown() {
+        mExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,56 @@
+package com.lovely3x.jsr.generator;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 生成时写入资源文件夹的文件(打包的图集),以及写入后的大小和修改时间
+ * <p>
+ * 写入这些文件同样会产生文件事件,监听者用它区分事件是不是生成本身引起的:
+ * 文件的大小和修改时间和写入时相同,说明之后没有被修改过,不需要因此再生成一次。
+ * 删除事件不应该被忽略,被删除的图集需要重新打包。
+ * 路径是使用 '/' 分隔并且规范化的绝对路径,和 VirtualFile#getPath() 一致。这个类是线程安全的。
+ */
+public class GeneratedFiles {
+
+    /**
+     * 路径 -> {大小, 修改时间}
+     */
+    private final Map<String, long[]> mFiles = new ConcurrentHashMap<>();
+
+    /**
+     * 记录刚刚写入的文件
+     *
+     * @param file 被写入的文件
+     */
+    public void add(File file) {
+        mFiles.put(path(file), new long[]{file.length(), file.lastModified()});
+    }
+
+    /**
+     * @param path         使用 '/' 分隔的绝对路径
+     * @param length       文件现在的大小
+     * @param lastModified 文件现在的修改时间
+     * @return 文件是否是生成时写入的,并且之后没有被修改
+     */
+    public boolean isUnchanged(String path, long length, long lastModified) {
+        long[] written = mFiles.get(path);
+        return written != null && written[0] == length && written[1] == lastModified;
+    }
+
+    /**
+     * @param file 文件
+     * @return 文件是否是生成时写入的,并且之后没有被修改,文件已经不存在时返回false
+     */
+    public boolean isUnchanged(File file) {
+        return file.isFile() && isUnchanged(path(file), file.length(), file.lastModified());
+    }
+
+    /**
+     * 项目路径可能是相对路径(例如命令行中的 "."),需要去掉其中的 "." 和 ".."
+     */
+    private static String path(File file) {
+        return file.toPath().toAbsolutePath().normalize().toString().replace('\\', '/');
+    }
+}
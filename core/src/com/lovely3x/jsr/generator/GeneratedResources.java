@@ -0,0 +1,230 @@
+package com.lovely3x.jsr.generator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * 一次生成中所有 {@link Emitter} 共用的资源数据
+ */
+public final class GeneratedResources {
+
+    /**
+     * 一个资源
+     */
+    public static final class Item {
+
+        private final String mName;
+        private final String mPath;
+        private final String mUrl;
+        private final ResourceType mType;
+        private final long mSize;
+        private final String mDigest;
+
+        Item(String name, String path, String url, ResourceType type, long size, String digest) {
+            this.mName = name;
+            this.mPath = path;
+            this.mUrl = url;
+            this.mType = type;
+            this.mSize = size;
+            this.mDigest = digest;
+        }
+
+        /**
+         * @return 变量名,例如 res_some_png
+         */
+        public String getName() {
+            return mName;
+        }
+
+        /**
+         * @return 资源路径,例如 res/some.png
+         */
+        public String getPath() {
+            return mPath;
+        }
+
+        /**
+         * @return 生成的地址,可能带有内容摘要,重复的资源指向保留的文件
+         */
+        public String getUrl() {
+            return mUrl;
+        }
+
+        public ResourceType getType() {
+            return mType;
+        }
+
+        public long getSize() {
+            return mSize;
+        }
+
+        /**
+         * @return 内容的MD5,没有生成器需要摘要时为null
+         */
+        public String getDigest() {
+            return mDigest;
+        }
+    }
+
+    /**
+     * 变量名 -> 地址,按变量名排序
+     */
+    private final SortedMap<String, String> mUrls = new TreeMap<>();
+
+    /**
+     * 所有的资源,按资源路径排序
+     */
+    private final List<Item> mItems = new ArrayList<>();
+
+    /**
+     * 帧名常量 -> 帧名,按常量名排序
+     */
+    private final SortedMap<String, String> mFrames = new TreeMap<>();
+
+    /**
+     * 帧名 -> 所在的图集,用于报告重复的常量
+     */
+    private final Map<String, String> mFrameAtlases = new HashMap<>();
+
+    /**
+     * 资源路径 -> 依赖的纹理路径,按资源路径排序
+     */
+    private final SortedMap<String, List<String>> mDependencies = new TreeMap<>();
+
+    /**
+     * 图片版本的文件夹名 -> 地址前缀,按配置的顺序
+     */
+    private final Map<String, String> mVariants = new LinkedHashMap<>();
+
+    private final PreloadLists mPreload;
+
+    GeneratedResources(PreloadLists preload) {
+        this.mPreload = preload;
+    }
+
+    /**
+     * 只有变量名和地址的资源数据,每个资源的路径就是地址,没有大小和摘要
+     *
+     * @param urls    变量名 -> 地址
+     * @param preload 预加载列表,可以为null
+     * @return 资源数据
+     */
+    static GeneratedResources of(Map<String, String> urls, PreloadLists preload) {
+        GeneratedResources resources = new GeneratedResources(preload);
+        for (Map.Entry<String, String> entry : new TreeMap<>(urls).entrySet()) {
+            String url = entry.getValue();
+            resources.mUrls.put(entry.getKey(), url);
+            resources.mItems.add(new Item(entry.getKey(), url, url, ResourceType.of(url), -1, null));
+        }
+        return resources;
+    }
+
+    /**
+     * 添加一个资源,必须按资源路径的顺序添加
+     *
+     * @throws IllegalArgumentException 变量名重复
+     */
+    void add(Item item) {
+        String existing = mUrls.get(item.mName);
+        if (existing != null) {
+            throw new IllegalArgumentException(
+                    String.format(Locale.US, "资源名重复 [%s],重复的文件是[%s]和[%s],请尝试修改文件名后重新生成。",
+                            item.mName, existing, item.mPath));
+        }
+        mUrls.put(item.mName, item.mUrl);
+        mItems.add(item);
+    }
+
+    /**
+     * 添加图集中的一个帧,不同图集中相同的帧名只保留一个常量(引擎中后加载的图集会覆盖先加载的)
+     *
+     * @param name  常量名
+     * @param frame 帧名
+     * @param atlas 图集的资源路径
+     * @throws IllegalArgumentException 不同的帧名转换为相同的常量名
+     */
+    void addFrame(String name, String frame, String atlas) {
+        String existing = mFrames.get(name);
+        if (existing != null && !existing.equals(frame)) {
+            throw new IllegalArgumentException(
+                    String.format(Locale.US, "帧名常量重复 [%s],重复的帧是[%s](%s)和[%s](%s),请尝试修改帧名后重新生成。",
+                            name, existing, mFrameAtlases.get(existing), frame, atlas));
+        }
+        mFrames.put(name, frame);
+        mFrameAtlases.putIfAbsent(frame, atlas);
+    }
+
+    /**
+     * 添加一个资源依赖的纹理
+     *
+     * @param path    资源路径,例如 res/ui.plist
+     * @param texture 纹理的资源路径,例如 res/ui.png
+     */
+    void addDependency(String path, String texture) {
+        List<String> textures = mDependencies.computeIfAbsent(path, key -> new ArrayList<>());
+        if (!textures.contains(texture)) textures.add(texture);
+    }
+
+    /**
+     * 添加一个图片版本
+     *
+     * @param bucket 文件夹名,例如 0.5x
+     * @param prefix 这个版本的地址前缀,例如 build/res/0.5x/
+     */
+    void addVariant(String bucket, String prefix) {
+        mVariants.put(bucket, prefix);
+    }
+
+    /**
+     * @return 变量名 -> 地址,按变量名排序
+     */
+    public Map<String, String> getUrls() {
+        return Collections.unmodifiableSortedMap(mUrls);
+    }
+
+    /**
+     * @return 所有的资源,按资源路径排序
+     */
+    public List<Item> getItems() {
+        return Collections.unmodifiableList(mItems);
+    }
+
+    /**
+     * @return 帧名常量 -> 帧名,按常量名排序,没有开启 spriteSheets 时为空
+     */
+    public Map<String, String> getFrames() {
+        return Collections.unmodifiableSortedMap(mFrames);
+    }
+
+    /**
+     * @return 资源路径 -> 依赖的纹理路径(按在文件中出现的顺序),按资源路径排序,没有开启 spriteSheets 时为空
+     */
+    public Map<String, List<String>> getDependencies() {
+        return Collections.unmodifiableSortedMap(mDependencies);
+    }
+
+    /**
+     * @return 图片版本的文件夹名 -> 地址前缀,资源对象使用第一个版本,没有配置 imageVariants 时为空
+     */
+    public Map<String, String> getVariants() {
+        return Collections.unmodifiableMap(mVariants);
+    }
+
+    /**
+     * @return 预加载列表,没有生成器需要时为null
+     */
+    public PreloadLists getPreload() {
+        return mPreload;
+    }
+
+    public int size() {
+        return mItems.size();
+    }
+}
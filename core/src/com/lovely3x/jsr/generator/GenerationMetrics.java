@@ -0,0 +1,253 @@
+package com.lovely3x.jsr.generator;
+
+import com.lovely3x.jsr.utils.JsUtils;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * 一次生成的统计数据
+ * <p>
+ * 扫描部分由调用者(插件或者命令行)填写,其余部分由 {@link SourceGenerator} 填写。
+ * 每次生成都会写入 {@link MetricsLog},插件中最近一次的结果显示在状态栏上。
+ */
+public class GenerationMetrics {
+
+    private final String mRoot;
+
+    private final long mStartTime = System.currentTimeMillis();
+
+    private final long mStartNanos = System.nanoTime();
+
+    private long mScanMillis;
+    private int mFileCount;
+    private int mScannedDirectories;
+    private int mReusedDirectories;
+
+    private int mEvents;
+    private long mTotalEvents;
+    private long mTotalRuns;
+
+    private long mPackMillis;
+    private int mAtlasesPacked;
+    private int mAtlasesReused;
+
+    private long mVariantsMillis;
+    private int mVariantsWritten;
+    private int mVariantsReused;
+
+    private long mHashMillis;
+    private long mRenderMillis;
+    private long mTotalMillis;
+
+    private int mFilesWritten;
+    private long mBytesWritten;
+    private int mWritesSkipped;
+
+    /**
+     * @param root 资源根目录的资源路径前缀,例如 res/
+     */
+    public GenerationMetrics(String root) {
+        this.mRoot = root;
+    }
+
+    /**
+     * 记录扫描的结果,增量更新索引时没有扫描,不需要调用
+     *
+     * @param scanMillis 扫描耗时
+     * @param result     扫描结果
+     */
+    public void setScan(long scanMillis, ScanResult result) {
+        this.mScanMillis = scanMillis;
+        this.mScannedDirectories = result.getDirectories().size();
+        this.mReusedDirectories = result.getReusedDirectories();
+    }
+
+    /**
+     * @param events      本次生成合并的事件数量
+     * @param totalEvents 累计收到的事件数量
+     * @param totalRuns   累计执行的生成次数
+     */
+    public void setEvents(int events, long totalEvents, long totalRuns) {
+        this.mEvents = events;
+        this.mTotalEvents = totalEvents;
+        this.mTotalRuns = totalRuns;
+    }
+
+    void setFileCount(int fileCount) {
+        this.mFileCount = fileCount;
+    }
+
+    /**
+     * @param packMillis    打包图集的耗时
+     * @param atlasesPacked 重新打包的图集数量
+     * @param atlasesReused 输入没有变化、直接使用的图集数量
+     */
+    void setPack(long packMillis, int atlasesPacked, int atlasesReused) {
+        this.mPackMillis = packMillis;
+        this.mAtlasesPacked = atlasesPacked;
+        this.mAtlasesReused = atlasesReused;
+    }
+
+    /**
+     * @param variantsMillis 生成图片版本的耗时
+     * @param written        重新编码并写入的图片版本数量
+     * @param reused         输入没有变化、直接使用的图片版本数量
+     */
+    void setVariants(long variantsMillis, int written, int reused) {
+        this.mVariantsMillis = variantsMillis;
+        this.mVariantsWritten = written;
+        this.mVariantsReused = reused;
+    }
+
+    void setHashMillis(long hashMillis) {
+        this.mHashMillis = hashMillis;
+    }
+
+    void setRenderMillis(long renderMillis) {
+        this.mRenderMillis = renderMillis;
+    }
+
+    /**
+     * 记录一个生成的文件的写入结果
+     *
+     * @param bytes {@link SourceFileWriter#writeIfChanged} 的返回值
+     */
+    void addWrite(long bytes) {
+        if (bytes < 0) {
+            mWritesSkipped++;
+        } else {
+            mFilesWritten++;
+            mBytesWritten += bytes;
+        }
+    }
+
+    /**
+     * 生成结束,记录总耗时
+     */
+    public void finish() {
+        mTotalMillis = (System.nanoTime() - mStartNanos) / 1000000;
+    }
+
+    public String getRoot() {
+        return mRoot;
+    }
+
+    public long getStartTime() {
+        return mStartTime;
+    }
+
+    public long getScanMillis() {
+        return mScanMillis;
+    }
+
+    public int getFileCount() {
+        return mFileCount;
+    }
+
+    public int getScannedDirectories() {
+        return mScannedDirectories;
+    }
+
+    public int getReusedDirectories() {
+        return mReusedDirectories;
+    }
+
+    public int getEvents() {
+        return mEvents;
+    }
+
+    public long getTotalEvents() {
+        return mTotalEvents;
+    }
+
+    public long getTotalRuns() {
+        return mTotalRuns;
+    }
+
+    public long getHashMillis() {
+        return mHashMillis;
+    }
+
+    public long getRenderMillis() {
+        return mRenderMillis;
+    }
+
+    public long getPackMillis() {
+        return mPackMillis;
+    }
+
+    public int getAtlasesPacked() {
+        return mAtlasesPacked;
+    }
+
+    public int getAtlasesReused() {
+        return mAtlasesReused;
+    }
+
+    public long getVariantsMillis() {
+        return mVariantsMillis;
+    }
+
+    public int getVariantsWritten() {
+        return mVariantsWritten;
+    }
+
+    public int getVariantsReused() {
+        return mVariantsReused;
+    }
+
+    public long getTotalMillis() {
+        return mTotalMillis;
+    }
+
+    public int getFilesWritten() {
+        return mFilesWritten;
+    }
+
+    public long getBytesWritten() {
+        return mBytesWritten;
+    }
+
+    public int getWritesSkipped() {
+        return mWritesSkipped;
+    }
+
+    /**
+     * 写为一行JSON
+     *
+     * @param out 输出
+     * @throws IOException 写入失败
+     */
+    public void writeJson(Writer out) throws IOException {
+        out.write("{\"time\":");
+        out.write(Long.toString(mStartTime));
+        out.write(",\"root\":");
+        JsUtils.writeQuoted(out, mRoot);
+        out.write(String.format(Locale.US, ",\"scanMs\":%d,\"files\":%d,\"dirs\":%d,\"reusedDirs\":%d"
+                        + ",\"events\":%d,\"totalEvents\":%d,\"totalRuns\":%d"
+                        + ",\"packMs\":%d,\"atlasesPacked\":%d,\"atlasesReused\":%d"
+                        + ",\"variantsMs\":%d,\"variantsWritten\":%d,\"variantsReused\":%d"
+                        + ",\"hashMs\":%d,\"renderMs\":%d,\"totalMs\":%d"
+                        + ",\"filesWritten\":%d,\"bytesWritten\":%d,\"writesSkipped\":%d}",
+                mScanMillis, mFileCount, mScannedDirectories, mReusedDirectories,
+                mEvents, mTotalEvents, mTotalRuns,
+                mPackMillis, mAtlasesPacked, mAtlasesReused,
+                mVariantsMillis, mVariantsWritten, mVariantsReused,
+                mHashMillis, mRenderMillis, mTotalMillis,
+                mFilesWritten, mBytesWritten, mWritesSkipped));
+    }
+
+    @Override
+    public String toString() {
+        StringWriter out = new StringWriter();
+        try {
+            writeJson(out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,473 @@
+package com.lovely3x.jsr.generator;
+
+import com.lovely3x.jsr.config.ImageVariantsConfig;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.awt.image.WritableRaster;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 生成优化后的图片和缩小的版本
+ * <p>
+ * 每个图片只解码一次,按照每一个缩放比例编码后写入 outputDir/比例x/相对路径:
+ * <ul>
+ * <li>png: 颜色不超过256种时写为调色板图片,不透明时去掉 alpha 通道,都是无损的;
+ * 原始比例的结果不比原文件小时直接复制原文件</li>
+ * <li>jpg: 按照 jpegQuality 重新编码,原始比例同样不会比原文件大</li>
+ * <li>缩小时在预乘 alpha 的图片上逐次减半进行双线性插值,透明边缘不会出现黑边</li>
+ * </ul>
+ * 每个输出文件对应的输入(原图的内容摘要、比例和编码参数)保存在 outputDir/.jsr-variants 中,
+ * 输入没有变化并且输出文件存在时不会重新编码;原图被删除后对应的输出文件也会被删除。
+ * 所有的编码任务都在 {@link FileReaderPool} 中执行,同时处理的图片数量不会超过它的线程数。
+ */
+class ImageVariantGenerator {
+
+    private static final int MAGIC = 0x4A535256;//JSRV
+
+    /**
+     * 编码方式的版本,修改后所有的图片都会重新编码
+     */
+    private static final int VERSION = 1;
+
+    static final String STORE_FILE_NAME = ".jsr-variants";
+
+    /**
+     * 每个任务处理的图片数量
+     */
+    private static final int BATCH_SIZE = 8;
+
+    /**
+     * 生成结果
+     */
+    static final class Result {
+
+        private final Set<String> mAvailable;
+        private final List<File> mWritten;
+        private final int mReused;
+
+        Result(Set<String> available, List<File> written, int reused) {
+            this.mAvailable = available;
+            this.mWritten = written;
+            this.mReused = reused;
+        }
+
+        /**
+         * @return 所有版本都已经生成的图片(相对于资源文件夹)
+         */
+        Set<String> getAvailable() {
+            return mAvailable;
+        }
+
+        /**
+         * @return 这一次写入的输出文件
+         */
+        List<File> getWritten() {
+            return mWritten;
+        }
+
+        int getReused() {
+            return mReused;
+        }
+    }
+
+    /**
+     * 一个输出文件夹中所有输出文件的输入
+     */
+    private static final class Store {
+
+        /**
+         * 输出文件(相对于输出文件夹) -> 输入
+         */
+        private final Map<String, String> mInputs = new ConcurrentHashMap<>();
+
+        private volatile boolean mDirty;
+    }
+
+    /**
+     * 输出文件夹的绝对路径 -> 输入记录
+     */
+    private final Map<String, Store> mStores = new ConcurrentHashMap<>();
+
+    /**
+     * @param relativePath 资源相对于资源文件夹的路径
+     * @return 是否是可以生成版本的图片
+     */
+    static boolean isSupported(String relativePath) {
+        String name = relativePath.toLowerCase(Locale.ROOT);
+        return name.endsWith(".png") || isJpeg(name);
+    }
+
+    private static boolean isJpeg(String relativePath) {
+        String name = relativePath.toLowerCase(Locale.ROOT);
+        return name.endsWith(".jpg") || name.endsWith(".jpeg");
+    }
+
+    /**
+     * 生成所有图片的所有版本,输入没有变化的版本不会重新编码
+     *
+     * @param pool      执行编码的线程池
+     * @param baseDir   资源文件夹
+     * @param outputDir 输出文件夹
+     * @param config    配置
+     * @param images    需要处理的图片,见 {@link #isSupported(String)}
+     * @param digests   图片的相对路径 -> 内容摘要
+     * @param cancelled 是否已经被取消
+     * @return 生成结果
+     * @throws IOException           输出文件写入失败
+     * @throws CancellationException 被取消,已经完成的版本仍然会被记录
+     */
+    Result generate(FileReaderPool pool, File baseDir, File outputDir, ImageVariantsConfig config,
+                    List<ResourceEntry> images, Map<String, String> digests, BooleanSupplier cancelled)
+            throws IOException {
+        Store store = mStores.computeIfAbsent(outputDir.getAbsolutePath(), path -> load(outputDir));
+        synchronized (store) {
+            List<Double> scales = config.getScales();
+            String[] fingerprints = new String[scales.size()];
+            for (int i = 0; i < scales.size(); i++) {
+                fingerprints[i] = String.format(Locale.ROOT, ":%d:%s:%s", VERSION, scales.get(i), config.getJpegQuality());
+            }
+
+            Set<String> expected = new HashSet<>();
+            List<ResourceEntry> pending = new ArrayList<>();
+            Set<String> available = Collections.newSetFromMap(new ConcurrentHashMap<>());
+            int reused = 0;
+            for (ResourceEntry image : images) {
+                String digest = digests.get(image.getRelativePath());
+                if (digest == null) continue;
+
+                boolean complete = true;
+                for (int i = 0; i < scales.size(); i++) {
+                    String output = output(scales.get(i), image.getRelativePath());
+                    expected.add(output);
+                    if ((digest + fingerprints[i]).equals(store.mInputs.get(output))
+                            && new File(outputDir, output).isFile()) {
+                        reused++;
+                    } else {
+                        complete = false;
+                    }
+                }
+                if (complete) {
+                    available.add(image.getRelativePath());
+                } else {
+                    pending.add(image);
+                }
+            }
+
+            Queue<File> written = new ConcurrentLinkedQueue<>();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int start = 0; start < pending.size(); start += BATCH_SIZE) {
+                List<ResourceEntry> batch = pending.subList(start, Math.min(pending.size(), start + BATCH_SIZE));
+                futures.add(pool.submit(() -> {
+                    for (ResourceEntry image : batch) {
+                        if (cancelled.getAsBoolean()) return null;
+
+                        String digest = digests.get(image.getRelativePath());
+                        if (write(baseDir, outputDir, config, image, digest, fingerprints, store, written)) {
+                            available.add(image.getRelativePath());
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) throw (IOException) cause;
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                throw new IllegalStateException(cause);
+            } finally {
+                for (Future<?> future : futures) {
+                    future.cancel(false);
+                }
+                //已经完成的版本在取消或者失败时也要记录下来
+                if (!cancelled.getAsBoolean()) removeStale(outputDir, store, expected);
+                save(outputDir, store);
+            }
+            if (cancelled.getAsBoolean()) throw new CancellationException();
+
+            return new Result(Collections.unmodifiableSet(new HashSet<>(available)), new ArrayList<>(written), reused);
+        }
+    }
+
+    /**
+     * 生成一个图片的所有版本,图片无法解码时删除之前的版本
+     *
+     * @return 所有版本是否都已经生成
+     */
+    private static boolean write(File baseDir, File outputDir, ImageVariantsConfig config, ResourceEntry image,
+                                 String digest, String[] fingerprints, Store store, Queue<File> written)
+            throws IOException {
+        String relativePath = image.getRelativePath();
+        File source = new File(baseDir, relativePath);
+        List<Double> scales = config.getScales();
+
+        BufferedImage decoded;
+        try {
+            decoded = ImageIO.read(source);
+        } catch (IOException | RuntimeException e) {
+            decoded = null;
+        }
+        if (decoded == null) {
+            //例如 CMYK 的 jpg,继续使用原图
+            for (Double scale : scales) {
+                String output = output(scale, relativePath);
+                Files.deleteIfExists(new File(outputDir, output).toPath());
+                if (store.mInputs.remove(output) != null) store.mDirty = true;
+            }
+            return false;
+        }
+
+        boolean jpeg = isJpeg(relativePath);
+        for (int i = 0; i < scales.size(); i++) {
+            String output = output(scales.get(i), relativePath);
+            String input = digest + fingerprints[i];
+            File target = new File(outputDir, output);
+            if (input.equals(store.mInputs.get(output)) && target.isFile()) continue;
+
+            double scale = scales.get(i);
+            byte[] bytes = encode(scale == 1 ? decoded : scale(decoded, scale), jpeg, config.getJpegQuality());
+            Files.createDirectories(target.getParentFile().toPath());
+            Path temp = new File(target.getPath() + ".tmp").toPath();
+            try {
+                if (scale == 1 && bytes.length >= source.length()) {
+                    Files.copy(source.toPath(), temp, StandardCopyOption.REPLACE_EXISTING);
+                } else {
+                    Files.write(temp, bytes);
+                }
+                replace(temp, target.toPath());
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            store.mInputs.put(output, input);
+            store.mDirty = true;
+            written.add(target);
+        }
+        return true;
+    }
+
+    /**
+     * 删除已经不存在的图片或者比例的输出文件
+     */
+    private static void removeStale(File outputDir, Store store, Set<String> expected) throws IOException {
+        Iterator<String> iterator = store.mInputs.keySet().iterator();
+        while (iterator.hasNext()) {
+            String output = iterator.next();
+            if (expected.contains(output)) continue;
+
+            Files.deleteIfExists(new File(outputDir, output).toPath());
+            iterator.remove();
+            store.mDirty = true;
+        }
+    }
+
+    /**
+     * @return 输出文件相对于输出文件夹的路径
+     */
+    private static String output(double scale, String relativePath) {
+        return ImageVariantsConfig.bucket(scale) + '/' + relativePath;
+    }
+
+    private static byte[] encode(BufferedImage image, boolean jpeg, float quality) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        if (!jpeg) {
+            if (!ImageIO.write(reduce(image), "png", bytes)) throw new IOException("No PNG writer");
+            return bytes.toByteArray();
+        }
+
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) throw new IOException("No JPEG writer");
+        ImageWriter writer = writers.next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(convert(image, BufferedImage.TYPE_INT_RGB), null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 无损地减小 png: 颜色不超过256种时使用调色板,不透明时去掉 alpha 通道
+     */
+    private static BufferedImage reduce(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+
+        boolean opaque = true;
+        Map<Integer, Integer> palette = new HashMap<>();
+        for (int pixel : pixels) {
+            if (pixel >>> 24 != 0xFF) opaque = false;
+            if (palette.size() <= 256 && !palette.containsKey(pixel)) palette.put(pixel, palette.size());
+        }
+
+        if (palette.size() <= 256) {
+            int size = palette.size();
+            byte[] r = new byte[size];
+            byte[] g = new byte[size];
+            byte[] b = new byte[size];
+            byte[] a = new byte[size];
+            for (Map.Entry<Integer, Integer> entry : palette.entrySet()) {
+                int color = entry.getKey();
+                int index = entry.getValue();
+                a[index] = (byte) (color >>> 24);
+                r[index] = (byte) (color >> 16);
+                g[index] = (byte) (color >> 8);
+                b[index] = (byte) color;
+            }
+            IndexColorModel model = opaque ? new IndexColorModel(8, size, r, g, b)
+                    : new IndexColorModel(8, size, r, g, b, a);
+            BufferedImage indexed = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_INDEXED, model);
+            WritableRaster raster = indexed.getRaster();
+            int[] row = new int[width];
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    row[x] = palette.get(pixels[y * width + x]);
+                }
+                raster.setPixels(0, y, width, 1, row);
+            }
+            return indexed;
+        }
+        return convert(image, opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+    }
+
+    /**
+     * 逐次减半缩小,每一步都是双线性插值,比一次缩小到目标尺寸更清晰
+     */
+    private static BufferedImage scale(BufferedImage image, double scale) {
+        int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+        BufferedImage current = convert(image, BufferedImage.TYPE_INT_ARGB_PRE);
+        while (current.getWidth() != targetWidth || current.getHeight() != targetHeight) {
+            int width = Math.max(targetWidth, current.getWidth() / 2);
+            int height = Math.max(targetHeight, current.getHeight() / 2);
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setComposite(AlphaComposite.Src);
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        }
+        return convert(current, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    private static BufferedImage convert(BufferedImage image, int type) {
+        if (image.getType() == type) return image;
+
+        BufferedImage converted = new BufferedImage(image.getWidth(), image.getHeight(), type);
+        Graphics2D graphics = converted.createGraphics();
+        try {
+            graphics.setComposite(AlphaComposite.Src);
+            graphics.drawImage(image, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        return converted;
+    }
+
+    private static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * 读取输出文件夹中的输入记录,文件不存在、损坏或者版本不一致时返回空的记录
+     */
+    private static Store load(File outputDir) {
+        Store store = new Store();
+        File file = new File(outputDir, STORE_FILE_NAME);
+        if (!file.isFile()) return store;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return store;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                store.mInputs.put(in.readUTF(), in.readUTF());
+            }
+        } catch (IOException e) {
+            store.mInputs.clear();
+        }
+        return store;
+    }
+
+    private static void save(File outputDir, Store store) throws IOException {
+        if (!store.mDirty) return;
+
+        Files.createDirectories(outputDir.toPath());
+        File file = new File(outputDir, STORE_FILE_NAME);
+        Path temp = new File(file.getPath() + ".tmp").toPath();
+        try {
+            Map<String, String> inputs = new HashMap<>(store.mInputs);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(temp.toFile())))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(inputs.size());
+                for (Map.Entry<String, String> entry : inputs.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeUTF(entry.getValue());
+                }
+            }
+            replace(temp, file.toPath());
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        store.mDirty = false;
+    }
+}
@@ -0,0 +1,74 @@
+package com.lovely3x.jsr.generator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按文件夹分组的资源索引快照
+ * <p>
+ * 增量扫描时,修改时间没有变化的文件夹直接复用快照中记录的文件和子文件夹,不需要重新列出文件夹的内容。
+ */
+public class IndexSnapshot {
+
+    /**
+     * 文件夹相对路径前缀 -> 修改时间
+     */
+    private final Map<String, Long> mDirectories;
+
+    private final Map<String, List<ResourceEntry>> mFilesByDir = new HashMap<>();
+    private final Map<String, List<String>> mSubdirectoriesByDir = new HashMap<>();
+
+    /**
+     * @param files       所有资源文件
+     * @param directories 所有文件夹(相对路径前缀) -> 修改时间
+     */
+    public IndexSnapshot(Collection<ResourceEntry> files, Map<String, Long> directories) {
+        this.mDirectories = directories;
+
+        for (ResourceEntry entry : files) {
+            mFilesByDir.computeIfAbsent(parentOf(entry.getRelativePath()), k -> new ArrayList<>()).add(entry);
+        }
+        for (String dir : directories.keySet()) {
+            if (dir.isEmpty()) continue;
+            mSubdirectoriesByDir.computeIfAbsent(parentOf(dir.substring(0, dir.length() - 1)), k -> new ArrayList<>()).add(dir);
+        }
+    }
+
+    /**
+     * @param relativePrefix 文件夹相对路径前缀
+     * @return 文件夹记录的修改时间,没有记录时返回null
+     */
+    public Long getDirectoryModified(String relativePrefix) {
+        return mDirectories.get(relativePrefix);
+    }
+
+    /**
+     * @return 文件夹下直接包含的资源文件
+     */
+    public List<ResourceEntry> getFiles(String relativePrefix) {
+        List<ResourceEntry> files = mFilesByDir.get(relativePrefix);
+        return files == null ? Collections.emptyList() : files;
+    }
+
+    /**
+     * @return 文件夹下直接包含的子文件夹(相对路径前缀)
+     */
+    public List<String> getSubdirectories(String relativePrefix) {
+        List<String> dirs = mSubdirectoriesByDir.get(relativePrefix);
+        return dirs == null ? Collections.emptyList() : dirs;
+    }
+
+    public int getFileCount() {
+        int count = 0;
+        for (List<ResourceEntry> files : mFilesByDir.values()) count += files.size();
+        return count;
+    }
+
+    private static String parentOf(String relativePath) {
+        return relativePath.substring(0, relativePath.lastIndexOf('/') + 1);
+    }
+}
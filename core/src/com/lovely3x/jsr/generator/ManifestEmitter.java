@@ -0,0 +1,84 @@
+package com.lovely3x.jsr.generator;
+
+import com.lovely3x.jsr.utils.JsUtils;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * 生成 JSON 资源清单,供热更新服务器比较资源版本
+ * <p>
+ * 按资源路径排序,每个资源包含变量名、生成的地址和大小,开启摘要时还包含内容的MD5,例如
+ * <pre>
+ * {"assets" : {
+ *     "res/some.png" : {"name" : "res_some_png", "url" : "res/some.png", "size" : 1024, "md5" : "..."}
+ * }}
+ * </pre>
+ * 开启 spriteSheets 时,图集和字体还有 "depends" : 依赖的纹理路径数组。
+ */
+public class ManifestEmitter implements Emitter {
+
+    private final File mOutputFile;
+
+    private final boolean mHash;
+
+    /**
+     * @param outputFile 生成的文件
+     * @param hash       是否包含内容的MD5
+     */
+    public ManifestEmitter(File outputFile, boolean hash) {
+        this.mOutputFile = outputFile;
+        this.mHash = hash;
+    }
+
+    @Override
+    public File getOutputFile() {
+        return mOutputFile;
+    }
+
+    @Override
+    public boolean needsPreload() {
+        return false;
+    }
+
+    @Override
+    public boolean needsDigests() {
+        return mHash;
+    }
+
+    @Override
+    public SourceFileWriter.Content render(GeneratedResources resources) {
+        return out -> {
+            out.write("{\"assets\" : {");
+            boolean first = true;
+            for (GeneratedResources.Item item : resources.getItems()) {
+                out.write(first ? "\n" : ",\n");
+                first = false;
+
+                out.write('\t');
+                JsUtils.writeQuoted(out, item.getPath());
+                out.write(" : {\"name\" : ");
+                JsUtils.writeQuoted(out, item.getName());
+                out.write(", \"url\" : ");
+                JsUtils.writeQuoted(out, item.getUrl());
+                out.write(", \"size\" : ");
+                out.write(Long.toString(item.getSize()));
+                if (mHash && item.getDigest() != null) {
+                    out.write(", \"md5\" : ");
+                    JsUtils.writeQuoted(out, item.getDigest());
+                }
+                List<String> depends = resources.getDependencies().get(item.getPath());
+                if (depends != null) {
+                    out.write(", \"depends\" : [");
+                    for (int i = 0; i < depends.size(); i++) {
+                        if (i > 0) out.write(", ");
+                        JsUtils.writeQuoted(out, depends.get(i));
+                    }
+                    out.write(']');
+                }
+                out.write('}');
+            }
+            out.write(first ? "}}\n" : "\n}}\n");
+        };
+    }
+}
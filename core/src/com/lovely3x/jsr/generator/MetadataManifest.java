@@ -0,0 +1,78 @@
+package com.lovely3x.jsr.generator;
+
+import com.lovely3x.jsr.utils.JsUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 资源元数据清单
+ * <p>
+ * 以资源路径(例如 res/some.png)为键,按字典序输出每个资源的大小、图片宽高、音频格式和时长(秒)。
+ * 输出文件以 .js 结尾时写为 {@code var res_meta = {...};},否则写为 JSON。
+ */
+public class MetadataManifest implements SourceFileWriter.Content {
+
+    public static final String JS_VARIABLE = "res_meta";
+
+    /**
+     * 资源路径 -> 元数据
+     */
+    private final Map<String, AssetMetadata> mEntries = new TreeMap<>();
+
+    private final boolean mJavaScript;
+
+    /**
+     * @param javaScript 是否写为js文件
+     */
+    public MetadataManifest(boolean javaScript) {
+        this.mJavaScript = javaScript;
+    }
+
+    /**
+     * 添加一个资源
+     *
+     * @param path     资源路径,例如 res/some.png
+     * @param metadata 元数据
+     */
+    public void add(String path, AssetMetadata metadata) {
+        mEntries.put(path, metadata);
+    }
+
+    @Override
+    public void writeTo(Writer out) throws IOException {
+        if (mJavaScript) out.write("var " + JS_VARIABLE + " = ");
+        out.write("{");
+        boolean first = true;
+        for (Map.Entry<String, AssetMetadata> entry : mEntries.entrySet()) {
+            out.write(first ? "\n" : ",\n");
+            first = false;
+
+            AssetMetadata metadata = entry.getValue();
+            out.write('\t');
+            JsUtils.writeQuoted(out, entry.getKey());
+            out.write(" : {\"size\" : ");
+            out.write(Long.toString(metadata.getSize()));
+            if (metadata.getFormat() != null) {
+                out.write(", \"format\" : ");
+                JsUtils.writeQuoted(out, metadata.getFormat());
+            }
+            if (metadata.getWidth() >= 0 && metadata.getHeight() >= 0) {
+                out.write(", \"width\" : ");
+                out.write(Integer.toString(metadata.getWidth()));
+                out.write(", \"height\" : ");
+                out.write(Integer.toString(metadata.getHeight()));
+            }
+            if (metadata.getDurationMillis() >= 0) {
+                out.write(", \"duration\" : ");
+                out.write(String.format(Locale.ROOT, "%.3f", metadata.getDurationMillis() / 1000.0));
+            }
+            out.write('}');
+        }
+        out.write(first ? "}" : "\n}");
+        out.write(mJavaScript ? ";\n" : "\n");
+    }
+}
@@ -0,0 +1,68 @@
+package com.lovely3x.jsr.generator;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 滚动的生成统计日志,每次生成写入一行JSON
+ * <p>
+ * 文件超过 {@link #MAX_FILE_SIZE} 后重命名为 name.1,原来的 name.1 重命名为 name.2,以此类推,
+ * 最多保留 {@link #MAX_BACKUPS} 个旧文件。
+ */
+public class MetricsLog {
+
+    private static final long MAX_FILE_SIZE = 1024 * 1024;
+
+    private static final int MAX_BACKUPS = 3;
+
+    private final File mFile;
+
+    public MetricsLog(File file) {
+        this.mFile = file;
+    }
+
+    public File getFile() {
+        return mFile;
+    }
+
+    /**
+     * 追加一次生成的统计数据
+     *
+     * @param metrics 统计数据
+     * @throws IOException 写入失败
+     */
+    public synchronized void append(GenerationMetrics metrics) throws IOException {
+        if (mFile.length() >= MAX_FILE_SIZE) rotate();
+
+        File parent = mFile.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Can not create directory " + parent);
+        }
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(mFile, true), StandardCharsets.UTF_8))) {
+            metrics.writeJson(out);
+            out.write('\n');
+        }
+    }
+
+    private void rotate() throws IOException {
+        File oldest = backup(MAX_BACKUPS);
+        if (oldest.exists() && !oldest.delete()) throw new IOException("Can not delete " + oldest);
+        for (int i = MAX_BACKUPS - 1; i >= 1; i--) {
+            File backup = backup(i);
+            if (backup.exists() && !backup.renameTo(backup(i + 1))) {
+                throw new IOException("Can not rename " + backup);
+            }
+        }
+        if (!mFile.renameTo(backup(1))) throw new IOException("Can not rename " + mFile);
+    }
+
+    private File backup(int index) {
+        return new File(mFile.getPath() + '.' + index);
+    }
+}
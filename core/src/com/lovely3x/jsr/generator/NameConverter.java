@@ -0,0 +1,101 @@
+package com.lovely3x.jsr.generator;
+
+import com.lovely3x.jsr.config.JsrConfig;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 资源路径到js变量名的转换器
+ * <p>
+ * 转换规则(convertRe, convertValue 和大小写)在创建时就已经确定,
+ * 正则表达式只会编译一次,转换结果按照路径缓存,规则不变时可以一直复用。
+ */
+public class NameConverter {
+
+    /**
+     * 缓存的最大数量,超过后清空,避免被删除的资源一直占用内存
+     */
+    private static final int MAX_CACHE_SIZE = 1 << 18;
+
+    private final Pattern mPattern;
+    private final String mConvertValue;
+    private final int mCaseSensitive;
+
+    /**
+     * 相对路径 -> 变量名
+     */
+    private final Map<String, String> mCache = new ConcurrentHashMap<>();
+
+    public NameConverter(JsrConfig config) {
+        this.mPattern = config.getConvertPattern();
+        this.mConvertValue = config.getConvertValue();
+        this.mCaseSensitive = config.getCaseSensitive();
+    }
+
+    /**
+     * 给定配置的转换规则是否和当前转换器一致,一致时可以继续复用这个转换器(以及它的缓存)
+     *
+     * @param config 配置
+     * @return true or false
+     */
+    public boolean isSameRule(JsrConfig config) {
+        return mPattern.pattern().equals(config.getConvertRe())
+                && mConvertValue.equals(config.getConvertValue())
+                && mCaseSensitive == config.getCaseSensitive();
+    }
+
+    /**
+     * @return 描述转换规则的字符串,规则相同时结果相同
+     */
+    public String getRuleFingerprint() {
+        return mPattern.pattern() + '\u0000' + mConvertValue + '\u0000' + mCaseSensitive;
+    }
+
+    /**
+     * 使用之前保存的转换结果预先填充缓存,调用者需要保证这些结果是按照相同的规则转换的
+     *
+     * @param identifiers 路径 -> 变量名
+     */
+    public void seed(Map<String, String> identifiers) {
+        if (mCache.size() + identifiers.size() < MAX_CACHE_SIZE) {
+            mCache.putAll(identifiers);
+        }
+    }
+
+    /**
+     * 将文件路径转换为js变量名
+     *
+     * @param relativePath 需要转换的路径
+     * @return 转换后的变量名
+     */
+    public String convert(String relativePath) {
+        String formatted = mCache.get(relativePath);
+        if (formatted == null) {
+            if (mCache.size() >= MAX_CACHE_SIZE) mCache.clear();
+
+            formatted = doConvert(relativePath);
+            mCache.put(relativePath, formatted);
+        }
+        return formatted;
+    }
+
+    private String doConvert(String relativePath) {
+        Matcher matcher = mPattern.matcher(relativePath);
+        String formatted = matcher.replaceAll(mConvertValue);
+
+        switch (mCaseSensitive) {
+            case JsrConfig.CASE_SENSITIVE_LOWERCASE:
+                formatted = formatted.toLowerCase(Locale.ROOT);
+                break;
+            case JsrConfig.CASE_SENSITIVE_UPPERCASE:
+                formatted = formatted.toUpperCase(Locale.ROOT);
+                break;
+        }
+
+        return formatted;
+    }
+}
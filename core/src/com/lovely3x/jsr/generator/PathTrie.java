@@ -0,0 +1,71 @@
+package com.lovely3x.jsr.generator;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 按路径分段的前缀树
+ * <p>
+ * 用于把文件事件路由到它所属的资源根目录,查找的代价只和路径的深度有关,和资源根目录的数量无关。
+ * 路径使用 '/' 分隔。这个类不是线程安全的,修改后应该整体替换。
+ *
+ * @param <T> 值的类型
+ */
+public class PathTrie<T> {
+
+    private final Node<T> mRoot = new Node<>();
+
+    /**
+     * 添加一个路径
+     *
+     * @param path  路径
+     * @param value 对应的值
+     */
+    public void put(String path, T value) {
+        Node<T> node = mRoot;
+        int start = 0;
+        int length = path.length();
+        while (start < length) {
+            int end = path.indexOf('/', start);
+            if (end == -1) end = length;
+            if (end > start) {
+                String segment = path.substring(start, end);
+                if (node.mChildren == null) node.mChildren = new HashMap<>();
+                node = node.mChildren.computeIfAbsent(segment, k -> new Node<>());
+            }
+            start = end + 1;
+        }
+        node.mValue = value;
+    }
+
+    /**
+     * 查找给定路径所属的值,也就是和给定路径匹配的最长的前缀对应的值
+     *
+     * @param path 需要查找的路径
+     * @return 匹配的值,没有匹配时返回null
+     */
+    public T findOwner(String path) {
+        Node<T> node = mRoot;
+        T owner = node.mValue;
+        int start = 0;
+        int length = path.length();
+        while (start < length && node.mChildren != null) {
+            int end = path.indexOf('/', start);
+            if (end == -1) end = length;
+            if (end > start) {
+                node = node.mChildren.get(path.substring(start, end));
+                if (node == null) break;
+                if (node.mValue != null) owner = node.mValue;
+            }
+            start = end + 1;
+        }
+        return owner;
+    }
+
+    private static class Node<T> {
+
+        private Map<String, Node<T>> mChildren;
+
+        private T mValue;
+    }
+}
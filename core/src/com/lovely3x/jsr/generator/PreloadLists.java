@@ -0,0 +1,106 @@
+package com.lovely3x.jsr.generator;
+
+import com.lovely3x.jsr.config.ResourceFilter;
+import com.lovely3x.jsr.utils.JsUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按类型和分组整理的预加载列表
+ * <p>
+ * 生成的js对象包含每种 {@link ResourceType} 的资源路径数组,以及一个 groups 对象,
+ * 其中是 jsr.json 中 preloadGroups 配置的每个分组的资源路径数组,
+ * 场景可以只把自己需要的分组交给 cc.LoaderScene.preload 加载。
+ */
+public class PreloadLists {
+
+    private final Map<ResourceType, List<String>> mTypes = new EnumMap<>(ResourceType.class);
+
+    private final Map<String, ResourceFilter> mGroupFilters;
+
+    private final Map<String, List<String>> mGroups = new LinkedHashMap<>();
+
+    /**
+     * @param groupFilters 分组名 -> 分组包含的资源
+     */
+    public PreloadLists(Map<String, ResourceFilter> groupFilters) {
+        this.mGroupFilters = groupFilters;
+        for (ResourceType type : ResourceType.values()) {
+            mTypes.put(type, new ArrayList<>());
+        }
+        for (String group : groupFilters.keySet()) {
+            mGroups.put(group, new ArrayList<>());
+        }
+    }
+
+    /**
+     * 添加一个资源
+     *
+     * @param relativePath 资源相对于资源文件夹的路径,用于判断类型和分组
+     * @param path         生成的资源路径,例如 res/some.png
+     */
+    public void add(String relativePath, String path) {
+        mTypes.get(ResourceType.of(relativePath)).add(path);
+        for (Map.Entry<String, ResourceFilter> group : mGroupFilters.entrySet()) {
+            if (group.getValue().accept(relativePath)) {
+                mGroups.get(group.getKey()).add(path);
+            }
+        }
+    }
+
+    /**
+     * 把预加载列表写为js对象,数组中的路径按字典序排列
+     *
+     * @param out 输出
+     * @throws IOException 写入失败
+     */
+    public void writeTo(Writer out) throws IOException {
+        out.write("{\n");
+        for (Map.Entry<ResourceType, List<String>> entry : mTypes.entrySet()) {
+            out.write('\t');
+            out.write(entry.getKey().getKey());
+            out.write(" : ");
+            writeArray(out, entry.getValue(), "\t");
+            out.write(",\n");
+        }
+
+        out.write("\tgroups : {");
+        boolean first = true;
+        for (Map.Entry<String, List<String>> entry : mGroups.entrySet()) {
+            out.write(first ? "\n" : ",\n");
+            first = false;
+
+            out.write("\t\t");
+            JsUtils.writeQuoted(out, entry.getKey());
+            out.write(" : ");
+            writeArray(out, entry.getValue(), "\t\t");
+        }
+        out.write(first ? "}\n}" : "\n\t}\n}");
+    }
+
+    private static void writeArray(Writer out, List<String> paths, String indent) throws IOException {
+        if (paths.isEmpty()) {
+            out.write("[]");
+            return;
+        }
+
+        Collections.sort(paths);
+        out.write("[\n");
+        for (int i = 0; i < paths.size(); i++) {
+            if (i > 0) out.write(",\n");
+            out.write(indent);
+            out.write('\t');
+            JsUtils.writeQuoted(out, paths.get(i));
+        }
+        out.write('\n');
+        out.write(indent);
+        out.write(']');
+    }
+}
@@ -0,0 +1,220 @@
+package com.lovely3x.jsr.generator;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 重新生成调度器
+ * <p>
+ * 文件事件不会立即触发生成,而是先在一个安静窗口期内收集起来,
+ * 窗口期内没有新事件到达时才执行一次生成;为了避免持续不断的事件导致一直无法生成,
+ * 从第一个待处理的事件开始,最多等待 maxDelay 毫秒就会强制执行一次。
+ * 这样一次 git checkout 产生的成千上万个事件只会触发一次生成。
+ */
+public class RegenerateScheduler {
+
+    /**
+     * 生成回调
+     */
+    public interface Callback {
+
+        /**
+         * 执行一次生成,在调度线程中回调
+         *
+         * @param flags          本次合并的所有请求的标识(按位或)
+         * @param absorbedEvents 本次生成合并的事件数量
+         */
+        void onRegenerate(int flags, int absorbedEvents);
+    }
+
+    private final ScheduledExecutorService mExecutor;
+
+    /**
+     * 线程池是否是这个调度器自己创建的
+     */
+    private final boolean mOwnExecutor;
+
+    private final Callback mCallback;
+
+    /**
+     * 生成回调抛出的异常交给它处理,插件中写入 IDE 日志,命令行中输出到错误流
+     */
+    private final Consumer<Throwable> mErrorHandler;
+
+    /**
+     * 安静窗口期,毫秒
+     */
+    private volatile long mQuietMillis;
+
+    /**
+     * 从第一个待处理事件开始的最大等待时间,毫秒
+     */
+    private volatile long mMaxDelayMillis;
+
+    private int mPendingFlags;
+    private int mPendingEvents;
+    private long mFirstPendingTime;
+    private ScheduledFuture<?> mPendingFuture;
+
+    private long mTotalEvents;
+    private long mTotalRuns;
+
+    private boolean mShutdown;
+
+    /**
+     * @param errorHandler 处理生成回调抛出的异常
+     */
+    public RegenerateScheduler(long quietMillis, long maxDelayMillis, Callback callback,
+                               Consumer<Throwable> errorHandler) {
+        this(newExecutor(), true, quietMillis, maxDelayMillis, callback, errorHandler);
+    }
+
+    /**
+     * 使用共享的线程池,多个调度器可以共用一个线程
+     *
+     * @param executor     共享的线程池,由调用者负责关闭
+     * @param errorHandler 处理生成回调抛出的异常
+     */
+    public RegenerateScheduler(ScheduledExecutorService executor, long quietMillis, long maxDelayMillis,
+                               Callback callback, Consumer<Throwable> errorHandler) {
+        this(executor, false, quietMillis, maxDelayMillis, callback, errorHandler);
+    }
+
+    private RegenerateScheduler(ScheduledExecutorService executor, boolean ownExecutor, long quietMillis,
+                                long maxDelayMillis, Callback callback, Consumer<Throwable> errorHandler) {
+        this.mExecutor = executor;
+        this.mOwnExecutor = ownExecutor;
+        this.mCallback = callback;
+        this.mErrorHandler = errorHandler;
+        setDelays(quietMillis, maxDelayMillis);
+    }
+
+    /**
+     * 创建调度使用的单线程线程池
+     */
+    public static ScheduledExecutorService newExecutor() {
+        return Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "JSR-Regenerate-Scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 更新窗口期配置,对下一次调度生效
+     *
+     * @param quietMillis    安静窗口期
+     * @param maxDelayMillis 最大等待时间
+     */
+    public void setDelays(long quietMillis, long maxDelayMillis) {
+        this.mQuietMillis = Math.max(0, quietMillis);
+        this.mMaxDelayMillis = Math.max(this.mQuietMillis, maxDelayMillis);
+    }
+
+    /**
+     * 提交一个事件
+     *
+     * @param flags 请求标识
+     */
+    public void schedule(int flags) {
+        schedule(flags, 1);
+    }
+
+    /**
+     * 提交一组事件
+     *
+     * @param flags  请求标识
+     * @param events 事件数量
+     */
+    public synchronized void schedule(int flags, int events) {
+        long now = now();
+        if (mPendingEvents == 0 && mPendingFlags == 0) {
+            mFirstPendingTime = now;
+        }
+        mPendingFlags |= flags;
+        mPendingEvents += events;
+        mTotalEvents += events;
+
+        long deadline = mFirstPendingTime + mMaxDelayMillis;
+        reschedule(Math.max(0, Math.min(mQuietMillis, deadline - now)));
+    }
+
+    /**
+     * 提交一个请求并立即执行,不等待窗口期,用于用户主动触发的生成
+     *
+     * @param flags 请求标识
+     */
+    public synchronized void scheduleNow(int flags) {
+        if (mPendingEvents == 0 && mPendingFlags == 0) {
+            mFirstPendingTime = now();
+        }
+        mPendingFlags |= flags;
+        reschedule(0);
+    }
+
+    private void reschedule(long delay) {
+        if (mPendingFuture != null) {
+            mPendingFuture.cancel(false);
+        }
+        if (!mShutdown && !mExecutor.isShutdown()) {
+            mPendingFuture = mExecutor.schedule(this::fire, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void fire() {
+        int flags;
+        int events;
+        synchronized (this) {
+            if (mPendingEvents == 0 && mPendingFlags == 0) return;
+            flags = mPendingFlags;
+            events = mPendingEvents;
+            mPendingFlags = 0;
+            mPendingEvents = 0;
+            mPendingFuture = null;
+            mTotalRuns++;
+        }
+
+        try {
+            mCallback.onRegenerate(flags, events);
+        } catch (RuntimeException e) {
+            mErrorHandler.accept(e);
+        }
+    }
+
+    /**
+     * @return 累计收到的事件数量
+     */
+    public synchronized long getTotalEvents() {
+        return mTotalEvents;
+    }
+
+    /**
+     * @return 累计执行的生成次数
+     */
+    public synchronized long getTotalRuns() {
+        return mTotalRuns;
+    }
+
+    /**
+     * 停止调度,尚未执行的请求将被丢弃
+     */
+    public synchronized void shutdown() {
+        mShutdown = true;
+        mPendingFlags = 0;
+        mPendingEvents = 0;
+        if (mPendingFuture != null) {
+            mPendingFuture.cancel(false);
+            mPendingFuture = null;
+        }
+        if (mOwnExecutor) {
+            mExecutor.shutdownNow();
+        }
+    }
+
+    private static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+}
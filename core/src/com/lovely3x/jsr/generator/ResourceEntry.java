@@ -0,0 +1,34 @@
+package com.lovely3x.jsr.generator;
+
+/**
+ * 资源索引中的一个资源文件
+ */
+public final class ResourceEntry {
+
+    /**
+     * 相对于资源文件夹的路径,使用 '/' 分隔
+     */
+    private final String mRelativePath;
+
+    private final long mSize;
+
+    private final long mLastModified;
+
+    public ResourceEntry(String relativePath, long size, long lastModified) {
+        this.mRelativePath = relativePath;
+        this.mSize = size;
+        this.mLastModified = lastModified;
+    }
+
+    public String getRelativePath() {
+        return mRelativePath;
+    }
+
+    public long getSize() {
+        return mSize;
+    }
+
+    public long getLastModified() {
+        return mLastModified;
+    }
+}
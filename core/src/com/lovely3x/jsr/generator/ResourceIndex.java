@@ -0,0 +1,210 @@
+package com.lovely3x.jsr.generator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 资源索引
+ * <p>
+ * 以资源文件相对于资源文件夹的路径(使用 '/' 分隔)作为键,
+ * 文件的创建、删除、移动、重命名都直接作用到索引上,
+ * 单个文件的变化只需要常数时间,不再需要重新遍历整个资源文件夹。
+ * 索引同时记录了扫描时每个文件夹的修改时间,用于下次打开项目时的增量扫描。
+ * <p>
+ * 索引是线程安全的,文件事件在UI线程中修改索引,生成任务在后台线程中读取索引。
+ * 每次增量修改(不论是否改变了内容)都会增加索引的版本号,后台的完整扫描据此判断扫描期间是否有文件事件到达。
+ */
+public class ResourceIndex {
+
+    private final Map<String, ResourceEntry> mFiles = new HashMap<>();
+
+    /**
+     * 文件夹相对路径前缀 -> 扫描时的修改时间
+     */
+    private final Map<String, Long> mDirectories = new HashMap<>();
+
+    private long mVersion;
+
+    /**
+     * 添加或者更新一个资源文件
+     *
+     * @param entry 资源文件
+     * @return 是否是新添加的资源文件
+     */
+    public synchronized boolean add(ResourceEntry entry) {
+        mVersion++;
+        return mFiles.put(entry.getRelativePath(), entry) == null;
+    }
+
+    /**
+     * 按顺序应用一批增量修改,整批修改只加锁一次,只增加一次版本号
+     *
+     * @param batch 增量修改
+     * @return 是否有资源文件被添加或者移除(只更新了大小和修改时间不算)
+     */
+    public synchronized boolean apply(Batch batch) {
+        if (batch.isEmpty()) return false;
+
+        mVersion++;
+        boolean changed = false;
+        for (int i = 0; i < batch.mPaths.size(); i++) {
+            ResourceEntry entry = batch.mEntries.get(i);
+            if (entry != null) {
+                changed |= mFiles.put(entry.getRelativePath(), entry) == null;
+            } else {
+                changed |= removeLocked(batch.mPaths.get(i));
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * 移除一个资源文件,或者一个文件夹下的所有资源文件
+     *
+     * @param relativePath 文件或文件夹的相对路径
+     * @return 索引是否发生了变化
+     */
+    public synchronized boolean remove(String relativePath) {
+        mVersion++;
+        return removeLocked(relativePath);
+    }
+
+    private boolean removeLocked(String relativePath) {
+        if (mFiles.remove(relativePath) != null) return true;
+
+        //不是文件,那么可能是文件夹;扫描过的文件夹才会有文件,其他路径(例如被过滤的文件)不需要遍历整个索引
+        String prefix = relativePath.isEmpty() ? "" : relativePath + '/';
+        if (!mDirectories.containsKey(prefix)) return false;
+        mDirectories.keySet().removeIf(dir -> dir.startsWith(prefix));
+
+        boolean changed = false;
+        Iterator<String> it = mFiles.keySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().startsWith(prefix)) {
+                it.remove();
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * 用完整扫描的结果替换索引的内容
+     *
+     * @param result          扫描结果
+     * @param expectedVersion 开始扫描时索引的版本号
+     * @return 扫描期间索引没有被修改过,替换成功时返回true
+     */
+    public synchronized boolean replaceAll(ScanResult result, long expectedVersion) {
+        if (mVersion != expectedVersion) return false;
+
+        mFiles.clear();
+        mDirectories.clear();
+        addAll(result);
+        return true;
+    }
+
+    /**
+     * 添加一个文件夹的扫描结果
+     *
+     * @param result 扫描结果
+     */
+    public synchronized void addAll(ScanResult result) {
+        mVersion++;
+        for (ResourceEntry entry : result.getFiles()) {
+            mFiles.put(entry.getRelativePath(), entry);
+        }
+        mDirectories.putAll(result.getDirectories());
+    }
+
+    /**
+     * 清空索引
+     */
+    public synchronized void clear() {
+        mFiles.clear();
+        mDirectories.clear();
+        mVersion++;
+    }
+
+    public synchronized int size() {
+        return mFiles.size();
+    }
+
+    /**
+     * @return 索引的版本号,每次增量修改都会增加
+     */
+    public synchronized long getVersion() {
+        return mVersion;
+    }
+
+    /**
+     * @return 当前所有资源文件相对路径的副本
+     */
+    public synchronized List<String> paths() {
+        return new ArrayList<>(mFiles.keySet());
+    }
+
+    /**
+     * @return 当前所有资源文件的副本
+     */
+    public synchronized List<ResourceEntry> entries() {
+        return new ArrayList<>(mFiles.values());
+    }
+
+    /**
+     * @return 当前所有文件夹修改时间记录的副本
+     */
+    public synchronized Map<String, Long> directories() {
+        return new HashMap<>(mDirectories);
+    }
+
+    /**
+     * 一批按顺序执行的增量修改,由同一批文件事件产生
+     */
+    public static class Batch {
+
+        private final List<String> mPaths = new ArrayList<>();
+
+        /**
+         * 和 mPaths 一一对应,null 表示移除
+         */
+        private final List<ResourceEntry> mEntries = new ArrayList<>();
+
+        /**
+         * 添加或者更新一个资源文件
+         */
+        public void add(ResourceEntry entry) {
+            mPaths.add(entry.getRelativePath());
+            mEntries.add(entry);
+        }
+
+        /**
+         * 移除一个资源文件,或者一个文件夹下的所有资源文件
+         */
+        public void remove(String relativePath) {
+            mPaths.add(relativePath);
+            mEntries.add(null);
+        }
+
+        public boolean isEmpty() {
+            return mPaths.isEmpty();
+        }
+    }
+
+    /**
+     * 计算给定路径相对于基础路径的相对路径,两者都必须是使用 '/' 分隔的路径
+     *
+     * @param basePath 基础路径
+     * @param path     需要计算的路径
+     * @return 相对路径,如果给定的路径不在基础路径下则返回null
+     */
+    public static String relativize(String basePath, String path) {
+        if (basePath == null || path == null || !path.startsWith(basePath)) return null;
+        if (path.length() == basePath.length()) return "";
+        if (path.charAt(basePath.length()) != '/') return null;
+        return path.substring(basePath.length() + 1);
+    }
+}
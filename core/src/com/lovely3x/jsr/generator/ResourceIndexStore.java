@@ -0,0 +1,154 @@
+package com.lovely3x.jsr.generator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 资源索引的磁盘存储
+ * <p>
+ * 项目关闭时把资源索引(相对路径、大小、修改时间、变量名)和文件夹的修改时间写入一个紧凑的二进制文件,
+ * 下次打开项目时读取出来,只有修改时间发生了变化的文件夹才需要重新扫描。
+ * 文件损坏或者版本不一致时返回null,由调用者执行完整扫描。
+ */
+public class ResourceIndexStore {
+
+    private static final int MAGIC = 0x4A535249;//JSRI
+
+    /**
+     * 4: 隐藏的文件夹重新被扫描,版本 3 的索引中没有它们的内容
+     */
+    private static final int VERSION = 4;
+
+    /**
+     * 读取出来的索引
+     */
+    public static class Stored {
+
+        private final IndexSnapshot mSnapshot;
+
+        private final String mRuleFingerprint;
+
+        /**
+         * 转换前的路径 -> 变量名
+         */
+        private final Map<String, String> mIdentifiers;
+
+        Stored(IndexSnapshot snapshot, String ruleFingerprint, Map<String, String> identifiers) {
+            this.mSnapshot = snapshot;
+            this.mRuleFingerprint = ruleFingerprint;
+            this.mIdentifiers = identifiers;
+        }
+
+        public IndexSnapshot getSnapshot() {
+            return mSnapshot;
+        }
+
+        /**
+         * @return 保存时的转换规则,见 {@link NameConverter#getRuleFingerprint()}
+         */
+        public String getRuleFingerprint() {
+            return mRuleFingerprint;
+        }
+
+        public Map<String, String> getIdentifiers() {
+            return mIdentifiers;
+        }
+    }
+
+    /**
+     * 保存资源索引
+     *
+     * @param file               存储文件
+     * @param resourceBasePath   资源文件夹的绝对路径
+     * @param resourcePathPrefix 生成的资源路径的前缀
+     * @param filterFingerprint  扫描时使用的过滤规则
+     * @param files              所有资源文件
+     * @param directories        所有文件夹的修改时间
+     * @param converter          变量名转换器
+     * @throws IOException 写入失败
+     */
+    public static void save(File file, String resourceBasePath, String resourcePathPrefix, String filterFingerprint,
+                            Collection<ResourceEntry> files, Map<String, Long> directories,
+                            NameConverter converter) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(resourceBasePath);
+            out.writeUTF(resourcePathPrefix);
+            out.writeUTF(converter.getRuleFingerprint());
+            out.writeUTF(filterFingerprint);
+
+            out.writeInt(directories.size());
+            for (Map.Entry<String, Long> dir : directories.entrySet()) {
+                out.writeUTF(dir.getKey());
+                out.writeLong(dir.getValue());
+            }
+
+            out.writeInt(files.size());
+            for (ResourceEntry entry : files) {
+                out.writeUTF(entry.getRelativePath());
+                out.writeLong(entry.getSize());
+                out.writeLong(entry.getLastModified());
+                out.writeUTF(converter.convert(resourcePathPrefix + entry.getRelativePath()));
+            }
+        }
+
+        if (file.exists() && !file.delete() || !tmp.renameTo(file)) {
+            throw new IOException("Can not replace " + file);
+        }
+    }
+
+    /**
+     * 读取资源索引
+     *
+     * @param file              存储文件
+     * @param resourceBasePath  资源文件夹的绝对路径,和保存时不一致时返回null
+     * @param filterFingerprint 过滤规则,和保存时不一致时返回null
+     * @return 读取出来的索引,文件不存在、损坏或者版本不一致时返回null
+     */
+    public static Stored load(File file, String resourceBasePath, String filterFingerprint) {
+        if (!file.isFile()) return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+            if (!resourceBasePath.equals(in.readUTF())) return null;
+            String resourcePathPrefix = in.readUTF();
+            String ruleFingerprint = in.readUTF();
+            if (!filterFingerprint.equals(in.readUTF())) return null;
+
+            int dirCount = in.readInt();
+            if (dirCount < 0) return null;
+            Map<String, Long> directories = new HashMap<>(dirCount * 2);
+            for (int i = 0; i < dirCount; i++) {
+                directories.put(in.readUTF(), in.readLong());
+            }
+
+            int fileCount = in.readInt();
+            if (fileCount < 0) return null;
+            List<ResourceEntry> files = new ArrayList<>(fileCount);
+            Map<String, String> identifiers = new HashMap<>(fileCount * 2);
+            for (int i = 0; i < fileCount; i++) {
+                String relativePath = in.readUTF();
+                files.add(new ResourceEntry(relativePath, in.readLong(), in.readLong()));
+                identifiers.put(resourcePathPrefix + relativePath, in.readUTF());
+            }
+
+            return new Stored(new IndexSnapshot(files, directories), ruleFingerprint, identifiers);
+        } catch (IOException | RuntimeException e) {
+            //文件损坏
+            return null;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.lovely3x.jsr.generator;
+
+import com.lovely3x.jsr.config.ResourceFilter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 资源文件扫描器
+ * <p>
+ * 使用 {@link Files#walkFileTree} 遍历文件夹,每个文件只需要读取一次 {@link BasicFileAttributes},
+ * 子文件夹会被拆分到 fork-join 线程池中并行扫描。
+ * 扫描结果为所有非隐藏的普通文件相对于资源文件夹的路径(使用 '/' 分隔),以及所有文件夹的修改时间;
+ * 隐藏文件的判断和文件事件相同,见 {@link ResourceFilter#isHidden(String, boolean)},隐藏的文件夹仍然会被扫描。
+ * 给定上一次的扫描结果时,修改时间没有变化的文件夹不会再列出内容,直接复用上一次的文件列表;
+ * 原地修改文件不会改变文件夹的修改时间,所以复用的文件仍然会各自读取一次属性,更新大小和修改时间。
+ * 被过滤器排除的文件夹不会被拆分成任务,也不会被列出,其中的文件不产生任何开销。
+ */
+public class ResourceScanner {
+
+    private final ForkJoinPool mPool;
+
+    /**
+     * @param parallelism 并行扫描的线程数
+     */
+    public ResourceScanner(int parallelism) {
+        this.mPool = new ForkJoinPool(Math.max(1, parallelism));
+    }
+
+    public int getParallelism() {
+        return mPool.getParallelism();
+    }
+
+    /**
+     * 扫描给定的文件夹
+     *
+     * @param dir            需要扫描的文件夹
+     * @param relativePrefix 这个文件夹相对于资源文件夹的路径前缀,例如 "" 或者 "sub/"
+     * @return 扫描结果
+     */
+    public ScanResult scan(Path dir, String relativePrefix) {
+        return scan(dir, relativePrefix, null, ResourceFilter.ALL, () -> false);
+    }
+
+    /**
+     * 扫描给定的文件夹
+     *
+     * @param dir            需要扫描的文件夹
+     * @param relativePrefix 这个文件夹相对于资源文件夹的路径前缀,例如 "" 或者 "sub/"
+     * @param previous       上一次的扫描结果,修改时间没有变化的文件夹不再列出内容,只重新读取其中文件的属性,为null时完整扫描,
+     *                       必须是使用相同的过滤器扫描的结果
+     * @param filter         资源文件过滤器,调用者需要保证给定的文件夹本身没有被排除
+     * @param cancelled      扫描是否已经被取消
+     * @return 扫描结果
+     * @throws CancellationException 扫描被取消
+     */
+    public ScanResult scan(Path dir, String relativePrefix, IndexSnapshot previous,
+                           ResourceFilter filter, BooleanSupplier cancelled) {
+        if (!Files.isDirectory(dir)) return new ScanResult();
+        return mPool.invoke(new DirectoryTask(dir, relativePrefix, Collections.emptySet(), previous, filter, cancelled));
+    }
+
+    /**
+     * 关闭扫描线程池
+     */
+    public void shutdown() {
+        mPool.shutdownNow();
+    }
+
+    /**
+     * 使用遍历时已经读取的属性判断,不需要额外的系统调用
+     */
+    private static boolean isHidden(String name, BasicFileAttributes attrs) {
+        return ResourceFilter.isHidden(name, attrs instanceof DosFileAttributes && ((DosFileAttributes) attrs).isHidden());
+    }
+
+    /**
+     * 扫描一个文件夹下的直接子文件,子文件夹拆分为新的任务
+     */
+    private static class DirectoryTask extends RecursiveTask<ScanResult> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Path mDir;
+        private final String mRelativePrefix;
+
+        /**
+         * 所有上级文件夹的标识,符号链接指向上级文件夹时会造成死循环
+         */
+        private final Set<Object> mAncestorDirs;
+
+        private final IndexSnapshot mPrevious;
+
+        private final ResourceFilter mFilter;
+
+        private final BooleanSupplier mCancelled;
+
+        DirectoryTask(Path dir, String relativePrefix, Set<Object> ancestorDirs,
+                      IndexSnapshot previous, ResourceFilter filter, BooleanSupplier cancelled) {
+            this.mDir = dir;
+            this.mRelativePrefix = relativePrefix;
+            this.mAncestorDirs = ancestorDirs;
+            this.mPrevious = previous;
+            this.mFilter = filter;
+            this.mCancelled = cancelled;
+        }
+
+        @Override
+        protected ScanResult compute() {
+            if (mCancelled.getAsBoolean()) throw new CancellationException();
+
+            ScanResult result = new ScanResult();
+            List<DirectoryTask> subTasks = new ArrayList<>();
+            Set<Object> ancestorDirs = new HashSet<>(mAncestorDirs);
+            boolean[] unchanged = {false};
+
+            try {
+                Files.walkFileTree(mDir, EnumSet.of(FileVisitOption.FOLLOW_LINKS), 1, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                        Object key = attrs.fileKey();
+                        if (key != null && !ancestorDirs.add(key)) return FileVisitResult.SKIP_SUBTREE;
+
+                        long lastModified = attrs.lastModifiedTime().toMillis();
+                        result.directories.put(mRelativePrefix, lastModified);
+
+                        //文件夹的修改时间没有变化,说明其中的文件没有增删,不需要再列出文件夹的内容
+                        if (mPrevious != null && Long.valueOf(lastModified).equals(mPrevious.getDirectoryModified(mRelativePrefix))) {
+                            unchanged[0] = true;
+                            return FileVisitResult.SKIP_SUBTREE;
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        String name = file.getFileName().toString();
+                        String relativePath = mRelativePrefix + name;
+                        if (attrs.isDirectory()) {
+                            //被排除的文件夹整个跳过
+                            if (!mFilter.isExcludedDirectory(relativePath)) {
+                                subTasks.add(fork(file, relativePath + '/', ancestorDirs));
+                            }
+                        } else if (attrs.isRegularFile() && !isHidden(name, attrs) && mFilter.acceptFile(relativePath)) {
+                            result.files.add(new ResourceEntry(relativePath,
+                                    attrs.size(), attrs.lastModifiedTime().toMillis()));
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            if (unchanged[0]) {
+                result.reusedDirectories++;
+                for (ResourceEntry entry : mPrevious.getFiles(mRelativePrefix)) {
+                    ResourceEntry current = refresh(entry);
+                    if (current != null) result.files.add(current);
+                }
+                for (String subdir : mPrevious.getSubdirectories(mRelativePrefix)) {
+                    String name = subdir.substring(mRelativePrefix.length(), subdir.length() - 1);
+                    subTasks.add(fork(mDir.resolve(name), subdir, ancestorDirs));
+                }
+            }
+
+            for (DirectoryTask task : subTasks) {
+                result.addAll(task.join());
+            }
+            return result;
+        }
+
+        /**
+         * 重新读取复用的文件的属性,内容可能在原地被修改过
+         *
+         * @return 更新后的记录,文件已经不存在时返回null
+         */
+        private ResourceEntry refresh(ResourceEntry entry) {
+            Path file = mDir.resolve(entry.getRelativePath().substring(mRelativePrefix.length()));
+            BasicFileAttributes attrs;
+            try {
+                attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            } catch (IOException e) {
+                return null;
+            }
+            if (!attrs.isRegularFile()) return null;
+
+            long size = attrs.size();
+            long lastModified = attrs.lastModifiedTime().toMillis();
+            if (size == entry.getSize() && lastModified == entry.getLastModified()) return entry;
+            return new ResourceEntry(entry.getRelativePath(), size, lastModified);
+        }
+
+        private DirectoryTask fork(Path dir, String relativePrefix, Set<Object> ancestorDirs) {
+            DirectoryTask task = new DirectoryTask(dir, relativePrefix, ancestorDirs, mPrevious, mFilter, mCancelled);
+            task.fork();
+            return task;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.lovely3x.jsr.generator;
+
+import java.util.Locale;
+
+/**
+ * 资源类型,和 resource.js 中 g_resources 的分段一一对应
+ * <p>
+ * 类型按照扩展名判断;音频文件所在的某一级文件夹名为 bgm 或 music 时是背景音乐,否则是音效。
+ */
+public enum ResourceType {
+
+    IMAGE("image"),
+    PLIST("plist"),
+    FNT("fnt"),
+    TMX("tmx"),
+    BGM("bgm"),
+    EFFECT("effect"),
+    OTHER("other");
+
+    private final String mKey;
+
+    ResourceType(String key) {
+        this.mKey = key;
+    }
+
+    /**
+     * @return 在生成的js对象中使用的名称
+     */
+    public String getKey() {
+        return mKey;
+    }
+
+    /**
+     * 判断资源的类型
+     *
+     * @param relativePath 资源相对于资源文件夹的路径
+     * @return 资源类型
+     */
+    public static ResourceType of(String relativePath) {
+        int dot = relativePath.lastIndexOf('.');
+        if (dot < 0 || dot < relativePath.lastIndexOf('/')) return OTHER;
+
+        switch (relativePath.substring(dot + 1).toLowerCase(Locale.ROOT)) {
+            case "png":
+            case "jpg":
+            case "jpeg":
+            case "gif":
+            case "bmp":
+            case "webp":
+                return IMAGE;
+            case "plist":
+                return PLIST;
+            case "fnt":
+                return FNT;
+            case "tmx":
+                return TMX;
+            case "mp3":
+            case "ogg":
+            case "wav":
+            case "m4a":
+            case "aac":
+                return isInMusicDirectory(relativePath) ? BGM : EFFECT;
+            default:
+                return OTHER;
+        }
+    }
+
+    private static boolean isInMusicDirectory(String relativePath) {
+        int start = 0;
+        for (int end = relativePath.indexOf('/'); end >= 0; end = relativePath.indexOf('/', start)) {
+            String segment = relativePath.substring(start, end);
+            if ("bgm".equalsIgnoreCase(segment) || "music".equalsIgnoreCase(segment)) return true;
+            start = end + 1;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,45 @@
+package com.lovely3x.jsr.generator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次扫描的结果
+ */
+public class ScanResult {
+
+    /**
+     * 扫描到的资源文件
+     */
+    final List<ResourceEntry> files = new ArrayList<>();
+
+    /**
+     * 扫描过的文件夹(相对路径前缀,例如 "" 或者 "sub/") -> 修改时间
+     */
+    final Map<String, Long> directories = new HashMap<>();
+
+    /**
+     * 修改时间没有变化,直接复用了上一次结果的文件夹数量
+     */
+    int reusedDirectories;
+
+    void addAll(ScanResult other) {
+        files.addAll(other.files);
+        directories.putAll(other.directories);
+        reusedDirectories += other.reusedDirectories;
+    }
+
+    public List<ResourceEntry> getFiles() {
+        return files;
+    }
+
+    public Map<String, Long> getDirectories() {
+        return directories;
+    }
+
+    public int getReusedDirectories() {
+        return reusedDirectories;
+    }
+}
@@ -0,0 +1,242 @@
+package com.lovely3x.jsr.generator;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 生成文件的写入器
+ * <p>
+ * 生成的内容以流的方式写入,不会在内存中拼接整个文件。
+ * 写入前会先渲染一遍只计算摘要,和磁盘上已有文件的摘要一致时跳过写入,
+ * 否则再渲染一遍直接写入文件通道。
+ * 磁盘文件的摘要按照文件的修改时间和大小缓存,文件没有被外部修改时不需要重新读取。
+ * <p>
+ * 子类可以覆盖 {@link #writeChanged(File, Content, BooleanSupplier)} 改变内容变化后的写入方式,例如插件通过IDE的文档修改文件;
+ * 写入必须在返回之前完成,之后才会记录文件的指纹。
+ * <p>
+ * 这个类是线程安全的。比较摘要和记录指纹按输出文件加锁,写入本身不持有任何锁
+ * (插件中的写入需要等待界面线程),不同的文件可以同时写入。
+ * 同一个文件同时有多次写入时,无法确定磁盘上留下的是哪一次的内容,不会记录指纹,下次比较时重新读取。
+ */
+public class SourceFileWriter {
+
+    private static final String DIGEST_ALGORITHM = "SHA-1";
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * 生成的内容
+     */
+    public interface Content {
+
+        /**
+         * 把内容写入到给定的输出中,每次调用都必须写入相同的内容
+         *
+         * @param out 输出
+         * @throws IOException 写入失败
+         */
+        void writeTo(Writer out) throws IOException;
+    }
+
+    /**
+     * 文件绝对路径 -> 文件的写入状态
+     */
+    private final Map<String, FileState> mFiles = new ConcurrentHashMap<>();
+
+    /**
+     * 写入生成的内容,内容和磁盘上的文件一致时跳过写入
+     *
+     * @param file    需要写入的文件
+     * @param content 生成的内容
+     * @return true 表示文件被写入, false 表示内容没有变化而跳过了写入
+     * @throws IOException 读取或写入失败
+     */
+    public boolean write(File file, Content content) throws IOException {
+        return writeIfChanged(file, content, () -> false) >= 0;
+    }
+
+    /**
+     * 写入生成的内容,内容和磁盘上的文件一致时跳过写入
+     *
+     * @param file      需要写入的文件
+     * @param content   生成的内容
+     * @param cancelled 写入的任务是否已经过期,过期的任务不能再写入
+     * @return 写入的字节数, -1 表示内容没有变化而跳过了写入
+     * @throws IOException           读取或写入失败
+     * @throws CancellationException 写入之前任务已经过期,文件没有被修改
+     */
+    public long writeIfChanged(File file, Content content, BooleanSupplier cancelled) throws IOException {
+        FileState state = mFiles.computeIfAbsent(file.getAbsolutePath(), key -> new FileState());
+
+        //第一遍只计算摘要和长度
+        MessageDigest md = newDigest();
+        CountingOutputStream counter = new CountingOutputStream();
+        try (Writer out = newWriter(new DigestOutputStream(counter, md))) {
+            content.writeTo(out);
+        }
+        byte[] digest = md.digest();
+
+        int write;
+        synchronized (state) {
+            //其他写入还没有完成时磁盘上的内容随时会变化,不能跳过
+            if (state.mWriting == 0 && Arrays.equals(digest, diskDigest(state, file, counter.mCount))) {
+                return -1;
+            }
+            //写入失败或者被取消时文件的状态未知,下次比较时重新读取
+            state.mFingerprint = null;
+            write = ++state.mWrites;
+            state.mWriting++;
+        }
+
+        boolean written = false;
+        try {
+            writeChanged(file, content, cancelled);
+            written = true;
+        } finally {
+            synchronized (state) {
+                state.mWriting--;
+                if (written && state.mWriting == 0 && state.mWrites == write) {
+                    state.mFingerprint = new Fingerprint(digest, file.lastModified(), file.length());
+                }
+            }
+        }
+        return counter.mCount;
+    }
+
+    /**
+     * 内容发生了变化,写入文件,返回时内容必须已经写入磁盘
+     *
+     * @param file      需要写入的文件
+     * @param content   生成的内容
+     * @param cancelled 写入的任务是否已经过期,过期的任务不能再写入
+     * @throws IOException           写入失败
+     * @throws CancellationException 写入之前任务已经过期,文件没有被修改
+     */
+    protected void writeChanged(File file, Content content, BooleanSupplier cancelled) throws IOException {
+        if (cancelled.getAsBoolean()) throw new CancellationException();
+
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Can not create directory " + parent);
+        }
+
+        //第二遍写入文件
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             Writer out = newWriter(Channels.newOutputStream(channel))) {
+            content.writeTo(out);
+        }
+    }
+
+    /**
+     * 获取磁盘上文件的摘要
+     *
+     * @param state          文件的写入状态,调用者持有它的锁
+     * @param expectedLength 生成内容的长度,长度不同时内容一定不同,不需要读取文件
+     * @return 摘要,文件不存在或者长度不同时返回null
+     */
+    private static byte[] diskDigest(FileState state, File file, long expectedLength) throws IOException {
+        long lastModified = file.lastModified();
+        long length = file.length();
+        if (lastModified == 0 || length != expectedLength) return null;
+
+        Fingerprint fingerprint = state.mFingerprint;
+        if (fingerprint != null && fingerprint.mLastModified == lastModified && fingerprint.mLength == length) {
+            return fingerprint.mDigest;
+        }
+
+        MessageDigest md = newDigest();
+        try (InputStream is = new DigestInputStream(Files.newInputStream(file.toPath()), md)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            //noinspection StatementWithEmptyBody
+            while (is.read(buffer) != -1) ;
+        }
+        byte[] digest = md.digest();
+        state.mFingerprint = new Fingerprint(digest, lastModified, length);
+        return digest;
+    }
+
+    private static Writer newWriter(OutputStream os) {
+        return new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            //所有的JRE都必须支持SHA-1
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 只统计写入字节数的输出流
+     */
+    private static class CountingOutputStream extends OutputStream {
+
+        private long mCount;
+
+        @Override
+        public void write(int b) {
+            mCount++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            mCount += len;
+        }
+    }
+
+    /**
+     * 一个输出文件的写入状态,只在持有它的锁时访问
+     */
+    private static class FileState {
+
+        /**
+         * 最近一次写入(或确认)的内容指纹
+         */
+        private Fingerprint mFingerprint;
+
+        /**
+         * 开始过的写入次数
+         */
+        private int mWrites;
+
+        /**
+         * 正在进行的写入数量
+         */
+        private int mWriting;
+    }
+
+    private static class Fingerprint {
+
+        private final byte[] mDigest;
+        private final long mLastModified;
+        private final long mLength;
+
+        Fingerprint(byte[] digest, long lastModified, long length) {
+            this.mDigest = digest;
+            this.mLastModified = lastModified;
+            this.mLength = length;
+        }
+    }
+}
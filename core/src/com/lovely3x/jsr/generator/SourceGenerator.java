@@ -0,0 +1,560 @@
+package com.lovely3x.jsr.generator;
+
+import com.lovely3x.jsr.config.AtlasConfig;
+import com.lovely3x.jsr.config.EmitterConfig;
+import com.lovely3x.jsr.config.ImageVariantsConfig;
+import com.lovely3x.jsr.config.JsrConfig;
+import com.lovely3x.jsr.config.RootConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 根据资源索引生成一个资源根目录的源代码文件、摘要文件名映射和元数据清单
+ * <p>
+ * 不依赖IDE,插件和命令行使用同一个实现,同样的资源和配置生成的文件完全相同。
+ * 文件内容摘要、元数据、图集和生成文件的摘要都缓存在这里,可以被多个资源根目录共用。
+ * <p>
+ * 开启 spriteSheets 时还会解析图集和位图字体,生成帧名常量和图集到纹理的依赖关系,
+ * 被图集或字体引用的纹理不再出现在预加载列表中,由引擎在加载图集时加载。
+ * 配置了 atlases 时,生成之前先把图片文件夹打包为图集,这些图片在资源对象中指向图集中的帧。
+ */
+public class SourceGenerator {
+
+    /**
+     * 默认模板在类路径中的位置
+     */
+    public static final String DEFAULT_TEMPLATE_RESOURCE_JS = "/resource.js";
+
+    /**
+     * 生成过程的回调
+     */
+    public interface Callback {
+
+        /**
+         * @return 是否已经被取消,被取消后生成会抛出 {@link CancellationException}
+         */
+        boolean isCanceled();
+
+        /**
+         * 生成进入了新的阶段
+         *
+         * @param text 阶段的描述
+         */
+        void onProgress(String text);
+
+        /**
+         * 开启了 duplicateAliases 时,每次生成都会查找重复的资源
+         *
+         * @param duplicates 重复的资源
+         */
+        void onDuplicatesFound(List<DuplicateSet> duplicates);
+
+        /**
+         * 文件的内容发生了变化并且已经写入
+         *
+         * @param file   被写入的文件
+         * @param direct true 表示文件由生成器直接写入磁盘(打包的图集和图片版本),
+         *               false 表示文件通过 {@link SourceFileWriter} 写入(生成的源代码文件)
+         */
+        void onFileWritten(File file, boolean direct);
+    }
+
+    private final FileReaderPool mFileReaderPool;
+
+    private final FileInfoCache<AssetMetadata> mMetadataCache = new FileInfoCache<>(AssetHeaderReader::read);
+
+    private final FileInfoCache<String> mDigestCache = new FileInfoCache<>(ContentHasher::digest);
+
+    private final FileInfoCache<AtlasInfo> mAtlasCache = new FileInfoCache<>(AtlasReader::read);
+
+    private final AtlasPacker mAtlasPacker = new AtlasPacker();
+
+    private final ImageVariantGenerator mImageVariantGenerator = new ImageVariantGenerator();
+
+    private final GeneratedFiles mGeneratedFiles = new GeneratedFiles();
+
+    private final SourceFileWriter mSourceFileWriter;
+
+    private final TemplateCache mTemplateCache = new TemplateCache();
+
+    /**
+     * @param fileReaderPool 读取资源文件内容(元数据、摘要)的线程池
+     */
+    public SourceGenerator(FileReaderPool fileReaderPool) {
+        this(fileReaderPool, new SourceFileWriter());
+    }
+
+    /**
+     * @param fileReaderPool   读取资源文件内容(元数据、摘要)的线程池
+     * @param sourceFileWriter 生成文件的写入器
+     */
+    public SourceGenerator(FileReaderPool fileReaderPool, SourceFileWriter sourceFileWriter) {
+        this.mFileReaderPool = fileReaderPool;
+        this.mSourceFileWriter = sourceFileWriter;
+    }
+
+    /**
+     * @return 打包图集时写入资源文件夹的文件,监听者用它忽略由写入这些文件引起的事件
+     */
+    public GeneratedFiles getGeneratedFiles() {
+        return mGeneratedFiles;
+    }
+
+    /**
+     * 获取资源根目录编译好的模板,没有配置模板文件或者模板文件不存在时使用默认模板
+     *
+     * @param projectBasePath 项目根目录
+     * @param rootConfig      资源根目录的配置
+     * @return 模板
+     * @throws IllegalArgumentException 模板语法错误
+     */
+    public SourceTemplate loadTemplate(String projectBasePath, RootConfig rootConfig) {
+        return loadTemplate(projectBasePath, rootConfig.getTemplateFile(),
+                rootConfig.getTemplateIndicator(), rootConfig.getPreloadIndicator());
+    }
+
+    /**
+     * 获取编译好的模板,模板文件为null或者不存在时使用默认模板
+     */
+    private SourceTemplate loadTemplate(String projectBasePath, String templateFile,
+                                        String templateIndicator, String preloadIndicator) {
+        File f = templateFile == null ? null : new File(projectBasePath, templateFile);
+        return mTemplateCache.get(f != null && f.exists() ? f : null, templateIndicator, preloadIndicator);
+    }
+
+    /**
+     * 创建资源根目录的所有生成器,第一个是使用资源根目录的模板生成源代码文件的生成器,
+     * 之后是 emitters 中配置的生成器。模板按照文件的修改时间缓存,没有变化的模板不会重新编译
+     *
+     * @param projectBasePath 项目根目录
+     * @param rootConfig      资源根目录的配置
+     * @return 生成器
+     * @throws IllegalArgumentException 模板语法错误
+     */
+    public List<Emitter> createEmitters(String projectBasePath, RootConfig rootConfig) {
+        List<Emitter> emitters = new ArrayList<>();
+        emitters.add(new TemplateEmitter(rootConfig.resolveOutputFile(projectBasePath),
+                loadTemplate(projectBasePath, rootConfig)));
+        for (EmitterConfig config : rootConfig.getEmitters()) {
+            File outputFile = new File(projectBasePath, config.getOutputFile());
+            switch (config.getType()) {
+                case EmitterConfig.TYPE_JS:
+                    emitters.add(new TemplateEmitter(outputFile, loadTemplate(projectBasePath,
+                            config.getTemplateFile(), config.getTemplateIndicator(), config.getPreloadIndicator())));
+                    break;
+                case EmitterConfig.TYPE_DTS:
+                    emitters.add(new DeclarationEmitter(outputFile, config.getVariable()));
+                    break;
+                case EmitterConfig.TYPE_JSON:
+                    emitters.add(new ManifestEmitter(outputFile, config.isHash()));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown emitter type " + config.getType());
+            }
+        }
+        return emitters;
+    }
+
+    /**
+     * 查找内容相同的资源文件
+     *
+     * @param resourceBaseFile 资源文件夹
+     * @param entries          资源文件
+     * @param cancelled        是否已经被取消
+     * @return 重复的文件
+     * @throws CancellationException 被取消
+     */
+    public List<DuplicateSet> findDuplicates(File resourceBaseFile, List<ResourceEntry> entries,
+                                             BooleanSupplier cancelled) {
+        return DuplicateFinder.find(mDigestCache, mFileReaderPool, resourceBaseFile, entries, cancelled);
+    }
+
+    /**
+     * 生成一个资源根目录的所有文件,内容没有变化的文件不会被写入
+     * 所有的生成器共用同一份资源数据,每个生成的文件单独比较内容
+     *
+     * @param projectBasePath 项目根目录
+     * @param rootConfig      资源根目录的配置
+     * @param emitters        资源根目录的生成器,见 {@link #createEmitters(String, RootConfig)}
+     * @param nameConverter   变量名转换器
+     * @param entries         资源索引中的所有文件
+     * @param metrics         统计数据,生成的部分在这里填写
+     * @param callback        回调
+     * @return 是否有文件被写入
+     * @throws IllegalArgumentException 资源名或帧名常量重复
+     * @throws CancellationException    被取消
+     * @throws IOException              写入失败
+     */
+    public boolean generate(String projectBasePath, RootConfig rootConfig, List<Emitter> emitters,
+                            NameConverter nameConverter, List<ResourceEntry> entries, GenerationMetrics metrics,
+                            Callback callback) throws IOException {
+        BooleanSupplier cancelled = callback::isCanceled;
+        File resourceBaseFile = rootConfig.resolveResourceDir(projectBasePath);
+        String resourcePathPrefix = rootConfig.getResourcePathPrefix();
+
+        boolean needsPreload = false;
+        boolean needsDigests = false;
+        for (Emitter emitter : emitters) {
+            needsPreload |= emitter.needsPreload();
+            needsDigests |= emitter.needsDigests();
+        }
+
+        //打包图集,被打包的图片 -> 帧名
+        entries = new ArrayList<>(entries);
+        Map<String, String> packedFrames = Collections.emptyMap();
+        if (!rootConfig.getAtlases().isEmpty()) {
+            callback.onProgress("Packing texture atlases");
+            packedFrames = packAtlases(resourceBaseFile, rootConfig.getAtlases(), entries, metrics, callback);
+        }
+
+        //按路径排序,生成的结果只和资源有关,和索引的构建过程(扫描或者文件事件)无关
+        entries.sort(Comparator.comparing(ResourceEntry::getRelativePath));
+        metrics.setFileCount(entries.size());
+
+        long hashStart = System.nanoTime();
+        CacheBuster cacheBuster = null;
+        Map<String, String> hashes = null;
+        if (rootConfig.getCacheBust() != JsrConfig.CACHE_BUST_NONE) {
+            cacheBuster = new CacheBuster(rootConfig.getCacheBust());
+        }
+        if (cacheBuster != null || needsDigests) {
+            callback.onProgress("Hashing resources");
+            hashes = mDigestCache.get(mFileReaderPool, resourceBaseFile, entries, cancelled);
+        }
+
+        //重复的文件 -> 保留的文件
+        Map<String, String> aliases = Collections.emptyMap();
+        if (rootConfig.isDuplicateAliases()) {
+            callback.onProgress("Finding duplicate resources");
+            List<DuplicateSet> duplicates = findDuplicates(resourceBaseFile, entries, cancelled);
+            callback.onDuplicatesFound(duplicates);
+            aliases = DuplicateFinder.aliases(duplicates);
+        }
+
+        //图集和字体的资源路径 -> 帧名和纹理
+        Map<String, AtlasInfo> atlases = Collections.emptyMap();
+        if (rootConfig.isSpriteSheets()) {
+            callback.onProgress("Reading sprite sheets");
+            atlases = readAtlases(resourceBaseFile, entries, cancelled);
+        }
+        metrics.setHashMillis((System.nanoTime() - hashStart) / 1000000);
+
+        //已经生成优化版本的图片,使用第一个比例的地址
+        Set<String> variantImages = Collections.emptySet();
+        String variantPathPrefix = null;
+        ImageVariantsConfig imageVariants = rootConfig.getImageVariants();
+        if (imageVariants != null) {
+            callback.onProgress("Optimizing images");
+            variantImages = generateVariants(new File(projectBasePath, imageVariants.getOutputDir()),
+                    resourceBaseFile, imageVariants, entries, packedFrames,
+                    rootConfig.isSpriteSheets() ? atlases : null, metrics, callback);
+            variantPathPrefix = imageVariants.getOutputDir() + '/'
+                    + ImageVariantsConfig.bucket(imageVariants.getScales().get(0)) + '/';
+        }
+
+        callback.onProgress("Generating source files");
+        long renderStart = System.nanoTime();
+        PreloadLists preload = needsPreload ? new PreloadLists(rootConfig.getPreloadGroups()) : null;
+        GeneratedResources resources = new GeneratedResources(preload);
+        if (imageVariants != null) {
+            for (Double scale : imageVariants.getScales()) {
+                String bucket = ImageVariantsConfig.bucket(scale);
+                resources.addVariant(bucket, imageVariants.getOutputDir() + '/' + bucket + '/');
+            }
+        }
+        //已经由图集加载的纹理不需要再预加载
+        Set<String> atlasTextures = addAtlases(resources, atlases, entries, resourcePathPrefix, nameConverter);
+        for (ResourceEntry entry : entries) {
+            String resourcePath = entry.getRelativePath();
+            //内容重复的文件使用保留文件的地址,运行时只会加载一次
+            String targetPath = aliases.getOrDefault(resourcePath, resourcePath);
+            //res/some.png
+            String relativePath = resourcePathPrefix + resourcePath;
+            String targetRelativePath = resourcePathPrefix + targetPath;
+            String frame = packedFrames.get(resourcePath);
+            String url;
+            if (frame != null) {
+                //被打包的图片指向图集中的帧,由图集加载
+                url = "#" + frame;
+            } else {
+                String location = variantImages.contains(targetPath) ? variantPathPrefix + targetPath
+                        : targetRelativePath;
+                url = cacheBuster == null ? location : cacheBuster.bust(location, hashes.get(targetPath));
+            }
+            resources.add(new GeneratedResources.Item(nameConverter.convert(relativePath), relativePath, url,
+                    ResourceType.of(resourcePath), entry.getSize(),
+                    hashes == null ? null : hashes.get(resourcePath)));
+            if (preload != null && frame == null && targetPath.equals(resourcePath)
+                    && !atlasTextures.contains(resourcePath)) {
+                preload.add(resourcePath, url);
+            }
+        }
+
+        //只有没有被取消的任务才能写入
+        checkCanceled(callback);
+        boolean written = false;
+        for (Emitter emitter : emitters) {
+            written |= write(emitter.getOutputFile(), emitter.render(resources), metrics, callback);
+        }
+        metrics.setRenderMillis((System.nanoTime() - renderStart) / 1000000);
+
+        if (cacheBuster != null && rootConfig.getCacheBustMapFile() != null
+                && rootConfig.getCacheBust() == JsrConfig.CACHE_BUST_FILENAME) {
+            write(new File(projectBasePath, rootConfig.getCacheBustMapFile()), cacheBuster, metrics, callback);
+        }
+
+        if (rootConfig.getMetadataFile() != null) {
+            writeMetadataManifest(new File(projectBasePath, rootConfig.getMetadataFile()),
+                    resourceBaseFile, resourcePathPrefix, entries, metrics, callback);
+        }
+        return written;
+    }
+
+    /**
+     * 在读取线程池中并行打包所有的图集,输入没有变化的图集不会重新打包。
+     * 图集的文件在这里加入(或者更新) entries,不需要等待文件事件
+     *
+     * @return 被打包的图片的相对路径 -> 帧名
+     * @throws IOException           图片无法读取或者图集写入失败
+     * @throws CancellationException 被取消
+     */
+    private Map<String, String> packAtlases(File resourceBaseFile, List<AtlasConfig> atlases,
+                                            List<ResourceEntry> entries, GenerationMetrics metrics,
+                                            Callback callback) throws IOException {
+        long start = System.nanoTime();
+        BooleanSupplier cancelled = callback::isCanceled;
+        List<List<ResourceEntry>> images = new ArrayList<>();
+        List<ResourceEntry> allImages = new ArrayList<>();
+        for (AtlasConfig atlas : atlases) {
+            List<ResourceEntry> atlasImages = new ArrayList<>();
+            for (ResourceEntry entry : entries) {
+                if (atlas.contains(entry.getRelativePath()) && AtlasPacker.isPackable(entry.getRelativePath())) {
+                    atlasImages.add(entry);
+                }
+            }
+            images.add(atlasImages);
+            allImages.addAll(atlasImages);
+        }
+        Map<String, String> digests = mDigestCache.get(mFileReaderPool, resourceBaseFile, allImages, cancelled);
+        Map<String, AssetMetadata> metadata = mMetadataCache.get(mFileReaderPool, resourceBaseFile, allImages, cancelled);
+
+        List<Future<AtlasPacker.Result>> futures = new ArrayList<>();
+        for (int i = 0; i < atlases.size(); i++) {
+            AtlasConfig atlas = atlases.get(i);
+            List<ResourceEntry> atlasImages = images.get(i);
+            futures.add(mFileReaderPool.submit(() ->
+                    mAtlasPacker.pack(resourceBaseFile, atlas, atlasImages, digests, metadata, cancelled)));
+        }
+
+        List<AtlasPacker.Result> results = new ArrayList<>();
+        try {
+            for (Future<AtlasPacker.Result> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        } finally {
+            for (Future<?> future : futures) {
+                future.cancel(false);
+            }
+        }
+
+        Map<String, String> frames = new HashMap<>();
+        Set<String> files = new HashSet<>();
+        int packed = 0;
+        for (AtlasPacker.Result result : results) {
+            frames.putAll(result.getFrames());
+            files.addAll(result.getFiles());
+            if (result.isPacked()) packed++;
+        }
+        entries.removeIf(entry -> files.contains(entry.getRelativePath()));
+        for (String path : files) {
+            File file = new File(resourceBaseFile, path);
+            entries.add(new ResourceEntry(path, file.length(), file.lastModified()));
+        }
+        for (AtlasPacker.Result result : results) {
+            if (!result.isPacked()) continue;
+            for (String path : result.getFiles()) {
+                File file = new File(resourceBaseFile, path);
+                mGeneratedFiles.add(file);
+                callback.onFileWritten(file, true);
+            }
+        }
+        metrics.setPack((System.nanoTime() - start) / 1000000, packed, results.size() - packed);
+        return frames;
+    }
+
+    /**
+     * 在读取线程池中生成所有图片的优化版本,被打包进图集的图片和被图集或字体引用的纹理不会生成
+     *
+     * @param atlases 已经读取的图集,为null时在这里读取
+     * @return 所有版本都已经生成的图片的相对路径
+     * @throws IOException           版本写入失败
+     * @throws CancellationException 被取消
+     */
+    private Set<String> generateVariants(File outputDir, File resourceBaseFile, ImageVariantsConfig config,
+                                         List<ResourceEntry> entries, Map<String, String> packedFrames,
+                                         Map<String, AtlasInfo> atlases, GenerationMetrics metrics,
+                                         Callback callback) throws IOException {
+        long start = System.nanoTime();
+        BooleanSupplier cancelled = callback::isCanceled;
+        //纹理中的帧坐标是固定的,缩小后就不对了
+        if (atlases == null) atlases = readAtlases(resourceBaseFile, entries, cancelled);
+        Set<String> textures = new HashSet<>();
+        for (Map.Entry<String, AtlasInfo> atlas : atlases.entrySet()) {
+            if (atlas.getValue() == null) continue;
+            for (String texture : atlas.getValue().getTextures()) {
+                String texturePath = resolveTexture(atlas.getKey(), texture);
+                if (texturePath != null) textures.add(texturePath);
+            }
+        }
+
+        List<ResourceEntry> images = new ArrayList<>();
+        for (ResourceEntry entry : entries) {
+            String path = entry.getRelativePath();
+            if (ImageVariantGenerator.isSupported(path) && !packedFrames.containsKey(path)
+                    && !textures.contains(path)) {
+                images.add(entry);
+            }
+        }
+        Map<String, String> digests = mDigestCache.get(mFileReaderPool, resourceBaseFile, images, cancelled);
+        ImageVariantGenerator.Result result = mImageVariantGenerator.generate(mFileReaderPool, resourceBaseFile,
+                outputDir, config, images, digests, cancelled);
+        metrics.setVariants((System.nanoTime() - start) / 1000000, result.getWritten().size(), result.getReused());
+        for (File file : result.getWritten()) {
+            callback.onFileWritten(file, true);
+        }
+        return result.getAvailable();
+    }
+
+    /**
+     * 在读取线程池中解析所有的 .plist 和 .fnt 文件,结果按照 (路径, 大小, 修改时间) 缓存
+     *
+     * @return 资源相对路径 -> 帧名和纹理
+     */
+    private Map<String, AtlasInfo> readAtlases(File resourceBaseFile, List<ResourceEntry> entries,
+                                               BooleanSupplier cancelled) {
+        List<ResourceEntry> atlasEntries = new ArrayList<>();
+        for (ResourceEntry entry : entries) {
+            ResourceType type = ResourceType.of(entry.getRelativePath());
+            if (type == ResourceType.PLIST || type == ResourceType.FNT) atlasEntries.add(entry);
+        }
+        return mAtlasCache.get(mFileReaderPool, resourceBaseFile, atlasEntries, cancelled);
+    }
+
+    /**
+     * 把图集中的帧名和依赖的纹理添加到资源数据中,纹理不在资源文件夹中时忽略
+     *
+     * @return 被图集或字体引用的纹理的相对路径
+     * @throws IllegalArgumentException 帧名常量重复
+     */
+    private static Set<String> addAtlases(GeneratedResources resources, Map<String, AtlasInfo> atlases,
+                                          List<ResourceEntry> entries, String resourcePathPrefix,
+                                          NameConverter nameConverter) {
+        if (atlases.isEmpty()) return Collections.emptySet();
+
+        Set<String> paths = new HashSet<>(entries.size() * 2);
+        for (ResourceEntry entry : entries) {
+            paths.add(entry.getRelativePath());
+        }
+
+        Set<String> textures = new HashSet<>();
+        for (ResourceEntry entry : entries) {
+            AtlasInfo atlas = atlases.get(entry.getRelativePath());
+            if (atlas == null) continue;
+
+            String atlasPath = resourcePathPrefix + entry.getRelativePath();
+            for (String texture : atlas.getTextures()) {
+                String texturePath = resolveTexture(entry.getRelativePath(), texture);
+                if (texturePath == null || !paths.contains(texturePath)) continue;
+
+                resources.addDependency(atlasPath, resourcePathPrefix + texturePath);
+                textures.add(texturePath);
+            }
+            for (String frame : atlas.getFrames()) {
+                resources.addFrame(nameConverter.convert(frame), frame, atlasPath);
+            }
+        }
+        return textures;
+    }
+
+    /**
+     * 把图集中记录的纹理路径(相对于图集所在的文件夹)转换为相对于资源文件夹的路径
+     *
+     * @return 相对路径,超出资源文件夹时返回null
+     */
+    private static String resolveTexture(String atlasPath, String texture) {
+        Deque<String> segments = new ArrayDeque<>();
+        String path = atlasPath.substring(0, atlasPath.lastIndexOf('/') + 1) + texture.replace('\\', '/');
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty() || ".".equals(segment)) continue;
+            if ("..".equals(segment)) {
+                if (segments.pollLast() == null) return null;
+            } else {
+                segments.addLast(segment);
+            }
+        }
+        return segments.isEmpty() ? null : String.join("/", segments);
+    }
+
+    /**
+     * 读取资源文件头中的元数据,写入元数据清单
+     */
+    private void writeMetadataManifest(File file, File resourceBaseFile, String resourcePathPrefix,
+                                       List<ResourceEntry> entries, GenerationMetrics metrics, Callback callback)
+            throws IOException {
+        callback.onProgress("Reading resource metadata");
+        Map<String, AssetMetadata> metadata = mMetadataCache.get(mFileReaderPool, resourceBaseFile,
+                entries, callback::isCanceled);
+
+        MetadataManifest manifest = new MetadataManifest(file.getName().endsWith(".js"));
+        for (ResourceEntry entry : entries) {
+            AssetMetadata value = metadata.get(entry.getRelativePath());
+            manifest.add(resourcePathPrefix + entry.getRelativePath(),
+                    value != null ? value : AssetMetadata.unknown(entry.getSize()));
+        }
+
+        checkCanceled(callback);
+        write(file, manifest, metrics, callback);
+    }
+
+    /**
+     * 写入一个生成的文件并记录到统计数据中
+     *
+     * @return 文件是否被写入
+     */
+    private boolean write(File file, SourceFileWriter.Content content, GenerationMetrics metrics, Callback callback)
+            throws IOException {
+        long bytes = mSourceFileWriter.writeIfChanged(file, content, callback::isCanceled);
+        metrics.addWrite(bytes);
+        if (bytes < 0) return false;
+
+        callback.onFileWritten(file, false);
+        return true;
+    }
+
+    private static void checkCanceled(Callback callback) {
+        if (callback.isCanceled()) throw new CancellationException();
+    }
+}
@@ -0,0 +1,816 @@
+package com.lovely3x.jsr.generator;
+
+import com.lovely3x.jsr.utils.JsUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * 预先编译好的源代码模板
+ * <p>
+ * 模板在创建时编译为一组指令,生成时依次执行指令,把文本、资源对象和预加载列表直接写入输出流,
+ * 不需要在内存中拼接整个文件。
+ * <p>
+ * 资源标识(默认 %%)和预加载标识(默认 %%preload%%)按字面量匹配,都只替换第一次出现的位置;
+ * 两个标识重叠时优先匹配较长的那个。
+ * <p>
+ * 第一行是 {@code {{! jsr-template }}} 的模板才会解析下面的标签,没有这一行时只替换两个标识,
+ * 模板中其他的 {@code {{...}}} 原样输出,已有的模板(例如 js 中嵌套的对象字面量)不受影响。
+ * 需要使用标签的模板在第一行加上这个注释即可,它不会在输出中留下空行:
+ * <ul>
+ * <li>{@code {{resources}}}, {@code {{preload}}}: 和资源标识、预加载标识相同</li>
+ * <li>{@code {{count}}}: 资源的数量</li>
+ * <li>{@code {{frames}}}: 帧名常量对象, {@code {{dependencies}}}: 图集和字体到纹理的依赖对象,
+ * 只有开启 spriteSheets 时才有内容; {@code {{variants}}}: 图片版本的文件夹名到地址前缀的对象</li>
+ * <li>{@code {{each}} ... {{end}}}: 按资源路径的顺序对每个资源输出一次,
+ * {@code {{each image, plist}}} 只输出给定类型的资源,类型见 {@link ResourceType#getKey()}</li>
+ * <li>{@code {{name}}, {{path}}, {{url}}, {{type}}, {{size}}, {{md5}}, {{index}}}: 循环中当前资源的属性</li>
+ * <li>{@code {{if first}} ... {{else}} ... {{end}}}: 条件可以是 first, last, empty, frames, dependencies,
+ * variants, md5 或资源类型,
+ * 前面加 ! 表示取反,例如 {@code {{if !last}},{{end}}}</li>
+ * <li>{@code {{url | js}}}: 过滤器,js 和 json 输出带双引号并转义的字符串(只能是最后一个),
+ * 另外还有 upper, lower, html</li>
+ * <li>{@code {{"{{"}}}: 输出字符串本身; {@code {{! 注释}}} 不输出任何内容</li>
+ * </ul>
+ * 单独占一行的 each, if, else, end 和注释标签不会在输出中留下空行。
+ */
+public final class SourceTemplate {
+
+    private static final String TAG_START = "{{";
+    private static final String TAG_END = "}}";
+
+    /**
+     * 开启标签的注释,必须在模板的第一行
+     */
+    private static final String HEADER = "jsr-template";
+
+    private static final int OP_TEXT = 0;
+    private static final int OP_RESOURCES = 1;
+    private static final int OP_PRELOAD = 2;
+    private static final int OP_VALUE = 3;
+    /**
+     * 开始循环,没有资源时跳到 target
+     */
+    private static final int OP_EACH = 4;
+    /**
+     * 循环体结束,还有资源时跳回 target
+     */
+    private static final int OP_END_EACH = 5;
+    /**
+     * 条件不成立时跳到 target
+     */
+    private static final int OP_JUMP_UNLESS = 6;
+    private static final int OP_JUMP = 7;
+    private static final int OP_FRAMES = 8;
+    private static final int OP_DEPENDENCIES = 9;
+    private static final int OP_VARIANTS = 10;
+
+    private static final int VAR_NAME = 0;
+    private static final int VAR_PATH = 1;
+    private static final int VAR_URL = 2;
+    private static final int VAR_TYPE = 3;
+    private static final int VAR_SIZE = 4;
+    private static final int VAR_MD5 = 5;
+    private static final int VAR_INDEX = 6;
+    private static final int VAR_COUNT = 7;
+
+    /**
+     * 变量名,下标就是变量的编号,count 之前的只能在循环中使用
+     */
+    private static final String[] VARIABLES = {"name", "path", "url", "type", "size", "md5", "index", "count"};
+
+    private static final int COND_FIRST = 0;
+    private static final int COND_LAST = 1;
+    private static final int COND_EMPTY = 2;
+    private static final int COND_MD5 = 3;
+    private static final int COND_FRAMES = 4;
+    private static final int COND_DEPENDENCIES = 5;
+    private static final int COND_VARIANTS = 6;
+    /**
+     * 资源类型条件的编号是 COND_TYPE + 类型的序号
+     */
+    private static final int COND_TYPE = 7;
+
+    private static final int FILTER_UPPER = 0;
+    private static final int FILTER_LOWER = 1;
+    private static final int FILTER_HTML = 2;
+    private static final int FILTER_QUOTE = 3;
+
+    private static final ResourceType[] TYPES = ResourceType.values();
+
+    private static final class Instruction {
+
+        private final int mOp;
+        private String mText;
+        /**
+         * 变量、条件或者循环的类型掩码
+         */
+        private int mArg;
+        private boolean mNegate;
+        private int[] mFilters;
+        private int mTarget;
+
+        Instruction(int op) {
+            this.mOp = op;
+        }
+    }
+
+    private final Instruction[] mProgram;
+
+    private SourceTemplate(Instruction[] program) {
+        this.mProgram = program;
+    }
+
+    /**
+     * 编译模板
+     *
+     * @param content   模板内容
+     * @param indicator 模板标识,第一个出现的位置将被替换为资源对象
+     * @return 编译后的模板
+     * @throws IllegalArgumentException 模板语法错误
+     */
+    public static SourceTemplate compile(String content, String indicator) {
+        return compile(content, indicator, null);
+    }
+
+    /**
+     * 编译模板
+     *
+     * @param content          模板内容
+     * @param indicator        模板标识,第一个出现的位置将被替换为资源对象
+     * @param preloadIndicator 预加载标识,第一个出现的位置将被替换为预加载列表,为null时不替换
+     * @return 编译后的模板
+     * @throws IllegalArgumentException 模板语法错误
+     */
+    public static SourceTemplate compile(String content, String indicator, String preloadIndicator) {
+        return new Compiler(content, indicator, preloadIndicator).compile();
+    }
+
+    /**
+     * @return 模板中是否使用了预加载列表
+     */
+    public boolean hasPreload() {
+        for (Instruction instruction : mProgram) {
+            if (instruction.mOp == OP_PRELOAD) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return 模板中是否使用了资源内容的摘要
+     */
+    public boolean hasDigests() {
+        for (Instruction instruction : mProgram) {
+            if ((instruction.mOp == OP_VALUE && instruction.mArg == VAR_MD5)
+                    || (instruction.mOp == OP_JUMP_UNLESS && instruction.mArg == COND_MD5)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 生成源代码
+     *
+     * @param out       输出
+     * @param resources 变量名 -> 资源路径
+     * @throws IOException 写入失败
+     */
+    public void render(Writer out, Map<String, String> resources) throws IOException {
+        render(out, resources, null);
+    }
+
+    /**
+     * 生成源代码,循环中每个资源的路径和地址相同,没有大小和摘要
+     *
+     * @param out       输出
+     * @param resources 变量名 -> 资源路径,输出时按变量名排序
+     * @param preload   预加载列表,模板中有预加载标识时不能为null
+     * @throws IOException 写入失败
+     */
+    public void render(Writer out, Map<String, String> resources, PreloadLists preload) throws IOException {
+        render(out, GeneratedResources.of(resources, preload));
+    }
+
+    /**
+     * 生成源代码
+     *
+     * @param out       输出
+     * @param resources 本次生成的所有资源
+     * @throws IOException 写入失败
+     */
+    public void render(Writer out, GeneratedResources resources) throws IOException {
+        List<GeneratedResources.Item> items = resources.getItems();
+        //当前循环中的资源下标和序号,不在循环中时为-1
+        int current = -1;
+        int index = -1;
+        int loopMask = 0;
+
+        int pc = 0;
+        while (pc < mProgram.length) {
+            Instruction instruction = mProgram[pc];
+            switch (instruction.mOp) {
+                case OP_TEXT:
+                    out.write(instruction.mText);
+                    pc++;
+                    break;
+                case OP_RESOURCES:
+                    writeJSObject(out, resources.getUrls());
+                    pc++;
+                    break;
+                case OP_PRELOAD:
+                    resources.getPreload().writeTo(out);
+                    pc++;
+                    break;
+                case OP_FRAMES:
+                    writeJSObject(out, resources.getFrames());
+                    pc++;
+                    break;
+                case OP_DEPENDENCIES:
+                    writeDependencies(out, resources.getDependencies());
+                    pc++;
+                    break;
+                case OP_VARIANTS:
+                    writeStringObject(out, resources.getVariants());
+                    pc++;
+                    break;
+                case OP_VALUE:
+                    writeValue(out, instruction, resources, current < 0 ? null : items.get(current), index);
+                    pc++;
+                    break;
+                case OP_EACH:
+                    loopMask = instruction.mArg;
+                    current = next(items, -1, loopMask);
+                    if (current < items.size()) {
+                        index = 0;
+                        pc++;
+                    } else {
+                        current = -1;
+                        pc = instruction.mTarget;
+                    }
+                    break;
+                case OP_END_EACH:
+                    current = next(items, current, loopMask);
+                    if (current < items.size()) {
+                        index++;
+                        pc = instruction.mTarget + 1;
+                    } else {
+                        current = -1;
+                        index = -1;
+                        pc++;
+                    }
+                    break;
+                case OP_JUMP_UNLESS:
+                    boolean result = test(instruction.mArg, items, current, index, loopMask, resources);
+                    pc = result != instruction.mNegate ? pc + 1 : instruction.mTarget;
+                    break;
+                case OP_JUMP:
+                    pc = instruction.mTarget;
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown instruction " + instruction.mOp);
+            }
+        }
+    }
+
+    /**
+     * @return from 之后第一个类型符合的资源的下标,没有时返回 items.size()
+     */
+    private static int next(List<GeneratedResources.Item> items, int from, int typeMask) {
+        int i = from + 1;
+        while (i < items.size() && typeMask != 0 && (typeMask & (1 << items.get(i).getType().ordinal())) == 0) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean test(int condition, List<GeneratedResources.Item> items, int current, int index,
+                                int loopMask, GeneratedResources resources) {
+        switch (condition) {
+            case COND_FIRST:
+                return index == 0;
+            case COND_LAST:
+                return next(items, current, loopMask) >= items.size();
+            case COND_EMPTY:
+                return resources.size() == 0;
+            case COND_FRAMES:
+                return !resources.getFrames().isEmpty();
+            case COND_DEPENDENCIES:
+                return !resources.getDependencies().isEmpty();
+            case COND_VARIANTS:
+                return !resources.getVariants().isEmpty();
+            case COND_MD5:
+                return items.get(current).getDigest() != null;
+            default:
+                return items.get(current).getType().ordinal() == condition - COND_TYPE;
+        }
+    }
+
+    private static void writeValue(Writer out, Instruction instruction, GeneratedResources resources,
+                                   GeneratedResources.Item item, int index) throws IOException {
+        String value;
+        switch (instruction.mArg) {
+            case VAR_NAME:
+                value = item.getName();
+                break;
+            case VAR_PATH:
+                value = item.getPath();
+                break;
+            case VAR_URL:
+                value = item.getUrl();
+                break;
+            case VAR_TYPE:
+                value = item.getType().getKey();
+                break;
+            case VAR_SIZE:
+                value = Long.toString(item.getSize());
+                break;
+            case VAR_MD5:
+                value = item.getDigest() == null ? "" : item.getDigest();
+                break;
+            case VAR_INDEX:
+                value = Integer.toString(index);
+                break;
+            case VAR_COUNT:
+                value = Integer.toString(resources.size());
+                break;
+            default:
+                //字符串字面量
+                value = instruction.mText;
+                break;
+        }
+
+        for (int filter : instruction.mFilters) {
+            switch (filter) {
+                case FILTER_UPPER:
+                    value = value.toUpperCase(Locale.ROOT);
+                    break;
+                case FILTER_LOWER:
+                    value = value.toLowerCase(Locale.ROOT);
+                    break;
+                case FILTER_HTML:
+                    value = escapeHtml(value);
+                    break;
+                case FILTER_QUOTE:
+                    JsUtils.writeQuoted(out, value);
+                    return;
+            }
+        }
+        out.write(value);
+    }
+
+    private static String escapeHtml(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&':
+                    sb.append("&amp;");
+                    break;
+                case '<':
+                    sb.append("&lt;");
+                    break;
+                case '>':
+                    sb.append("&gt;");
+                    break;
+                case '"':
+                    sb.append("&quot;");
+                    break;
+                case '\'':
+                    sb.append("&#39;");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 把资源写为js对象,属性按变量名排序
+     */
+    private static void writeJSObject(Writer out, Map<String, String> resources) throws IOException {
+        if (!(resources instanceof SortedMap)) resources = new TreeMap<>(resources);
+
+        out.write("{\n");
+        boolean first = true;
+        for (Map.Entry<String, String> entry : resources.entrySet()) {
+            if (!first) out.write(",\n");
+            first = false;
+
+            out.write('\t');
+            out.write(entry.getKey());
+            out.write(" : ");
+            JsUtils.writeQuoted(out, entry.getValue());
+        }
+        out.write("\n}");
+    }
+
+    /**
+     * 写为js对象,键和值都是字符串,按 map 的顺序
+     */
+    private static void writeStringObject(Writer out, Map<String, String> values) throws IOException {
+        out.write("{\n");
+        boolean first = true;
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            if (!first) out.write(",\n");
+            first = false;
+
+            out.write('\t');
+            JsUtils.writeQuoted(out, entry.getKey());
+            out.write(" : ");
+            JsUtils.writeQuoted(out, entry.getValue());
+        }
+        out.write("\n}");
+    }
+
+    /**
+     * 把依赖关系写为js对象,键是资源路径,值是纹理路径数组
+     */
+    private static void writeDependencies(Writer out, Map<String, List<String>> dependencies) throws IOException {
+        out.write("{\n");
+        boolean first = true;
+        for (Map.Entry<String, List<String>> entry : dependencies.entrySet()) {
+            if (!first) out.write(",\n");
+            first = false;
+
+            out.write('\t');
+            JsUtils.writeQuoted(out, entry.getKey());
+            out.write(" : [");
+            for (int i = 0; i < entry.getValue().size(); i++) {
+                if (i > 0) out.write(", ");
+                JsUtils.writeQuoted(out, entry.getValue().get(i));
+            }
+            out.write(']');
+        }
+        out.write("\n}");
+    }
+
+    /**
+     * 把模板内容编译为指令
+     */
+    private static final class Compiler {
+
+        private static final int BLOCK_EACH = 0;
+        private static final int BLOCK_IF = 1;
+        private static final int BLOCK_ELSE = 2;
+
+        /**
+         * 输出整个js对象的标签 -> 指令
+         */
+        private static final Map<String, Integer> OBJECTS = new HashMap<>();
+
+        static {
+            OBJECTS.put("resources", OP_RESOURCES);
+            OBJECTS.put("preload", OP_PRELOAD);
+            OBJECTS.put("frames", OP_FRAMES);
+            OBJECTS.put("dependencies", OP_DEPENDENCIES);
+            OBJECTS.put("variants", OP_VARIANTS);
+        }
+
+        private final String mContent;
+
+        /**
+         * 资源标识和预加载标识,较长的在前面
+         */
+        private final String[] mIndicators;
+
+        /**
+         * 标识对应的指令
+         */
+        private final int[] mIndicatorOps;
+
+        private final boolean[] mIndicatorUsed = new boolean[2];
+
+        private final List<Instruction> mProgram = new ArrayList<>();
+        private final StringBuilder mText = new StringBuilder();
+
+        /**
+         * 没有结束的块: {类型, 开始指令的下标}
+         */
+        private final Deque<int[]> mBlocks = new ArrayDeque<>();
+
+        /**
+         * 当前行到目前为止是否只有空白和块标签
+         */
+        private boolean mLineClean = true;
+
+        private int mIndex;
+
+        /**
+         * 模板是否开启了标签
+         */
+        private final boolean mTags;
+
+        Compiler(String content, String indicator, String preloadIndicator) {
+            this.mContent = content;
+            this.mTags = hasHeader(content);
+            //较长的标识优先匹配
+            if (preloadIndicator != null && preloadIndicator.length() > indicator.length()) {
+                this.mIndicators = new String[]{preloadIndicator, indicator};
+                this.mIndicatorOps = new int[]{OP_PRELOAD, OP_RESOURCES};
+            } else {
+                this.mIndicators = new String[]{indicator, preloadIndicator};
+                this.mIndicatorOps = new int[]{OP_RESOURCES, OP_PRELOAD};
+            }
+        }
+
+        SourceTemplate compile() {
+            while (mIndex < mContent.length()) {
+                if (matchIndicator()) continue;
+
+                if (mTags && mContent.startsWith(TAG_START, mIndex)) {
+                    int end = mContent.indexOf(TAG_END, mIndex + TAG_START.length());
+                    if (end < 0) throw error("标签没有结束");
+                    String tag = mContent.substring(mIndex + TAG_START.length(), end).trim();
+                    mIndex = end + TAG_END.length();
+                    compileTag(tag);
+                    continue;
+                }
+
+                char c = mContent.charAt(mIndex++);
+                mText.append(c);
+                if (c == '\n') {
+                    mLineClean = true;
+                } else if (!Character.isWhitespace(c)) {
+                    mLineClean = false;
+                }
+            }
+
+            if (!mBlocks.isEmpty()) throw error("缺少 {{end}}");
+            flushText();
+            return new SourceTemplate(mProgram.toArray(new Instruction[0]));
+        }
+
+        /**
+         * @return 模板的第一行是否是 {{! jsr-template }}
+         */
+        private static boolean hasHeader(String content) {
+            int lineEnd = content.indexOf('\n');
+            String line = (lineEnd < 0 ? content : content.substring(0, lineEnd)).trim();
+            if (line.startsWith("\uFEFF")) line = line.substring(1).trim();
+            if (!line.startsWith(TAG_START) || !line.endsWith(TAG_END)
+                    || line.length() < TAG_START.length() + TAG_END.length()) {
+                return false;
+            }
+            String tag = line.substring(TAG_START.length(), line.length() - TAG_END.length()).trim();
+            return tag.startsWith("!") && tag.substring(1).trim().equals(HEADER);
+        }
+
+        /**
+         * 资源标识和预加载标识只替换第一次出现的位置,之后出现的保持原样
+         */
+        private boolean matchIndicator() {
+            for (int i = 0; i < mIndicators.length; i++) {
+                String candidate = mIndicators[i];
+                if (candidate == null || candidate.isEmpty() || !mContent.startsWith(candidate, mIndex)) continue;
+
+                if (mIndicatorUsed[i]) {
+                    mText.append(candidate);
+                } else {
+                    mIndicatorUsed[i] = true;
+                    emit(new Instruction(mIndicatorOps[i]));
+                }
+                mIndex += candidate.length();
+                mLineClean = false;
+                return true;
+            }
+            return false;
+        }
+
+        private void compileTag(String tag) {
+            if (tag.startsWith("!")) {
+                standalone();
+                return;
+            }
+
+            String keyword = tag;
+            String argument = "";
+            int space = indexOfWhitespace(tag);
+            if (space >= 0) {
+                keyword = tag.substring(0, space);
+                argument = tag.substring(space).trim();
+            }
+
+            switch (keyword) {
+                case "each":
+                    compileEach(argument);
+                    return;
+                case "if":
+                    compileIf(argument);
+                    return;
+                case "else":
+                    compileElse();
+                    return;
+                case "end":
+                    compileEnd();
+                    return;
+                default:
+                    compileValue(tag);
+            }
+        }
+
+        private void compileEach(String argument) {
+            if (inLoop()) throw error("each 不能嵌套");
+            int mask = 0;
+            if (!argument.isEmpty()) {
+                for (String key : argument.split("\\s*,\\s*")) {
+                    mask |= 1 << type(key).ordinal();
+                }
+            }
+            standalone();
+            Instruction each = new Instruction(OP_EACH);
+            each.mArg = mask;
+            mBlocks.push(new int[]{BLOCK_EACH, emit(each)});
+        }
+
+        private void compileIf(String argument) {
+            boolean negate = argument.startsWith("!");
+            String name = (negate ? argument.substring(1) : argument).trim();
+            int condition;
+            switch (name) {
+                case "first":
+                    condition = COND_FIRST;
+                    break;
+                case "last":
+                    condition = COND_LAST;
+                    break;
+                case "empty":
+                    condition = COND_EMPTY;
+                    break;
+                case "frames":
+                    condition = COND_FRAMES;
+                    break;
+                case "dependencies":
+                    condition = COND_DEPENDENCIES;
+                    break;
+                case "variants":
+                    condition = COND_VARIANTS;
+                    break;
+                case "md5":
+                    condition = COND_MD5;
+                    break;
+                default:
+                    condition = COND_TYPE + type(name).ordinal();
+            }
+            boolean global = condition == COND_EMPTY || condition == COND_FRAMES || condition == COND_DEPENDENCIES
+                    || condition == COND_VARIANTS;
+            if (!global && !inLoop()) throw error("条件 " + name + " 只能在 each 中使用");
+
+            standalone();
+            Instruction jump = new Instruction(OP_JUMP_UNLESS);
+            jump.mArg = condition;
+            jump.mNegate = negate;
+            mBlocks.push(new int[]{BLOCK_IF, emit(jump)});
+        }
+
+        private void compileElse() {
+            int[] block = mBlocks.peek();
+            if (block == null || block[0] != BLOCK_IF) throw error("{{else}} 前面没有 {{if}}");
+
+            standalone();
+            int jump = emit(new Instruction(OP_JUMP));
+            mProgram.get(block[1]).mTarget = mProgram.size();
+            block[0] = BLOCK_ELSE;
+            block[1] = jump;
+        }
+
+        private void compileEnd() {
+            int[] block = mBlocks.poll();
+            if (block == null) throw error("多余的 {{end}}");
+
+            standalone();
+            if (block[0] == BLOCK_EACH) {
+                Instruction end = new Instruction(OP_END_EACH);
+                end.mTarget = block[1];
+                emit(end);
+            } else {
+                flushText();
+            }
+            mProgram.get(block[1]).mTarget = mProgram.size();
+        }
+
+        private void compileValue(String tag) {
+            String[] parts = tag.split("\\|");
+            String expression = parts[0].trim();
+
+            Instruction value = new Instruction(OP_VALUE);
+            if (expression.length() >= 2 && expression.startsWith("\"") && expression.endsWith("\"")) {
+                value.mArg = -1;
+                value.mText = expression.substring(1, expression.length() - 1);
+            } else if (OBJECTS.containsKey(expression)) {
+                if (parts.length > 1) throw error(expression + " 不能使用过滤器");
+                emit(new Instruction(OBJECTS.get(expression)));
+                mLineClean = false;
+                return;
+            } else {
+                value.mArg = variable(expression);
+                if (value.mArg != VAR_COUNT && !inLoop()) {
+                    throw error("变量 " + expression + " 只能在 each 中使用");
+                }
+            }
+
+            value.mFilters = new int[parts.length - 1];
+            for (int i = 1; i < parts.length; i++) {
+                String filter = parts[i].trim();
+                switch (filter) {
+                    case "upper":
+                        value.mFilters[i - 1] = FILTER_UPPER;
+                        break;
+                    case "lower":
+                        value.mFilters[i - 1] = FILTER_LOWER;
+                        break;
+                    case "html":
+                        value.mFilters[i - 1] = FILTER_HTML;
+                        break;
+                    case "js":
+                    case "json":
+                        if (i != parts.length - 1) throw error("过滤器 " + filter + " 只能是最后一个");
+                        value.mFilters[i - 1] = FILTER_QUOTE;
+                        break;
+                    default:
+                        throw error("未知的过滤器 " + filter);
+                }
+            }
+            emit(value);
+            mLineClean = false;
+        }
+
+        /**
+         * 块标签单独占一行时,去掉这一行的缩进和换行
+         */
+        private void standalone() {
+            if (!mLineClean) return;
+
+            int lineEnd = mIndex;
+            while (lineEnd < mContent.length() && mContent.charAt(lineEnd) != '\n'
+                    && Character.isWhitespace(mContent.charAt(lineEnd))) {
+                lineEnd++;
+            }
+            if (lineEnd < mContent.length() && mContent.charAt(lineEnd) != '\n') return;
+
+            int lineStart = mText.lastIndexOf("\n") + 1;
+            mText.setLength(lineStart);
+            mIndex = Math.min(lineEnd + 1, mContent.length());
+        }
+
+        private boolean inLoop() {
+            for (int[] block : mBlocks) {
+                if (block[0] == BLOCK_EACH) return true;
+            }
+            return false;
+        }
+
+        private int emit(Instruction instruction) {
+            flushText();
+            mProgram.add(instruction);
+            return mProgram.size() - 1;
+        }
+
+        private void flushText() {
+            if (mText.length() == 0) return;
+            Instruction text = new Instruction(OP_TEXT);
+            text.mText = mText.toString();
+            mProgram.add(text);
+            mText.setLength(0);
+        }
+
+        private ResourceType type(String key) {
+            for (ResourceType type : TYPES) {
+                if (type.getKey().equals(key)) return type;
+            }
+            throw error("未知的资源类型 " + key);
+        }
+
+        private int variable(String name) {
+            for (int i = 0; i < VARIABLES.length; i++) {
+                if (VARIABLES[i].equals(name)) return i;
+            }
+            throw error("未知的变量 " + name);
+        }
+
+        private static int indexOfWhitespace(String s) {
+            for (int i = 0; i < s.length(); i++) {
+                if (Character.isWhitespace(s.charAt(i))) return i;
+            }
+            return -1;
+        }
+
+        private IllegalArgumentException error(String message) {
+            int line = 1;
+            for (int i = 0; i < Math.min(mIndex, mContent.length()); i++) {
+                if (mContent.charAt(i) == '\n') line++;
+            }
+            return new IllegalArgumentException(String.format(Locale.US, "模板第 %d 行: %s", line, message));
+        }
+    }
+}
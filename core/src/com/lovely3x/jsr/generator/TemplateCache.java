@@ -0,0 +1,69 @@
+package com.lovely3x.jsr.generator;
+
+import com.lovely3x.jsr.utils.StreamUtils;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 编译好的模板缓存
+ * <p>
+ * 模板文件按照修改时间和大小缓存,文件没有变化时重新加载配置也不需要重新读取和编译;
+ * 插件自带的默认模板对每一组标识只编译一次。
+ */
+class TemplateCache {
+
+    /**
+     * 模板文件的绝对路径和标识 -> 编译好的模板
+     */
+    private final Map<String, Entry> mEntries = new HashMap<>();
+
+    /**
+     * 获取编译好的模板
+     *
+     * @param templateFile     模板文件,为null时使用默认模板
+     * @param indicator        模板标识
+     * @param preloadIndicator 预加载标识
+     * @return 模板
+     * @throws IllegalArgumentException 模板语法错误
+     */
+    synchronized SourceTemplate get(File templateFile, String indicator, String preloadIndicator) {
+        String key = (templateFile == null ? "" : templateFile.getAbsolutePath())
+                + '\0' + indicator + '\0' + preloadIndicator;
+        long lastModified = templateFile == null ? 0 : templateFile.lastModified();
+        long length = templateFile == null ? 0 : templateFile.length();
+
+        Entry entry = mEntries.get(key);
+        if (entry != null && entry.mLastModified == lastModified && entry.mLength == length) {
+            return entry.mTemplate;
+        }
+
+        String content;
+        if (templateFile != null) {
+            content = StreamUtils.readToString(templateFile);
+        } else {
+            //读取默认的模板内容
+            InputStream in = TemplateCache.class.getResourceAsStream(SourceGenerator.DEFAULT_TEMPLATE_RESOURCE_JS);
+            content = StreamUtils.readToString(in);
+            StreamUtils.close(in);
+        }
+        SourceTemplate template = SourceTemplate.compile(content, indicator, preloadIndicator);
+        mEntries.put(key, new Entry(lastModified, length, template));
+        return template;
+    }
+
+    private static class Entry {
+
+        private final long mLastModified;
+        private final long mLength;
+        private final SourceTemplate mTemplate;
+
+        Entry(long lastModified, long length, SourceTemplate template) {
+            this.mLastModified = lastModified;
+            this.mLength = length;
+            this.mTemplate = template;
+        }
+    }
+}
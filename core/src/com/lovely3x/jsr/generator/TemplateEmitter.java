@@ -0,0 +1,38 @@
+package com.lovely3x.jsr.generator;
+
+import java.io.File;
+
+/**
+ * 使用模板生成js文件
+ */
+public class TemplateEmitter implements Emitter {
+
+    private final File mOutputFile;
+
+    private final SourceTemplate mTemplate;
+
+    public TemplateEmitter(File outputFile, SourceTemplate template) {
+        this.mOutputFile = outputFile;
+        this.mTemplate = template;
+    }
+
+    @Override
+    public File getOutputFile() {
+        return mOutputFile;
+    }
+
+    @Override
+    public boolean needsPreload() {
+        return mTemplate.hasPreload();
+    }
+
+    @Override
+    public boolean needsDigests() {
+        return mTemplate.hasDigests();
+    }
+
+    @Override
+    public SourceFileWriter.Content render(GeneratedResources resources) {
+        return out -> mTemplate.render(out, resources);
+    }
+}
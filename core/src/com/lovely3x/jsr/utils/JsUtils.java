@@ -0,0 +1,51 @@
+package com.lovely3x.jsr.utils;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * js源码工具
+ */
+public class JsUtils {
+
+    /**
+     * 写入一个带双引号的js字符串字面量,会转义其中的特殊字符
+     *
+     * @param out   输出
+     * @param value 字符串的值
+     * @throws IOException 写入失败
+     */
+    public static void writeQuoted(Writer out, String value) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0, len = value.length(); i < len; i++) {
+            String escaped = escape(value.charAt(i));
+            if (escaped != null) {
+                out.write(value, start, i - start);
+                out.write(escaped);
+                start = i + 1;
+            }
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+
+    private static String escape(char c) {
+        switch (c) {
+            case '"':
+                return "\\\"";
+            case '\\':
+                return "\\\\";
+            case '\n':
+                return "\\n";
+            case '\r':
+                return "\\r";
+            case '\u2028':
+                return "\\u2028";
+            case '\u2029':
+                return "\\u2029";
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.lovely3x.jsr.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 按行比较两段文本,得到把旧文本修改为新文本需要替换的行区间
+ * <p>
+ * 先去掉相同的开头和结尾,剩下的部分使用 Myers 差分算法求最短编辑序列。
+ * 编辑距离超过 {@link #MAX_EDIT_DISTANCE} 时(例如模板被整体修改)不再继续计算,
+ * 把去掉开头和结尾后剩下的部分作为一个区间整体替换。
+ * {@link #replacements(CharSequence, CharSequence)} 把行区间转换为字符区间,插件按照它修改文档。
+ */
+public final class LineDiff {
+
+    private static final int MAX_EDIT_DISTANCE = 1024;
+
+    /**
+     * 一处修改: 旧文本的 [oldStart, oldEnd) 行替换为新文本的 [newStart, newEnd) 行
+     */
+    public static final class Hunk {
+
+        private final int mOldStart;
+        private final int mOldEnd;
+        private final int mNewStart;
+        private final int mNewEnd;
+
+        Hunk(int oldStart, int oldEnd, int newStart, int newEnd) {
+            this.mOldStart = oldStart;
+            this.mOldEnd = oldEnd;
+            this.mNewStart = newStart;
+            this.mNewEnd = newEnd;
+        }
+
+        public int getOldStart() {
+            return mOldStart;
+        }
+
+        public int getOldEnd() {
+            return mOldEnd;
+        }
+
+        public int getNewStart() {
+            return mNewStart;
+        }
+
+        public int getNewEnd() {
+            return mNewEnd;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + mOldStart + ", " + mOldEnd + ") -> [" + mNewStart + ", " + mNewEnd + ")";
+        }
+    }
+
+    /**
+     * 一处文本替换: 旧文本的 [start, end) 字符替换为 text
+     */
+    public static final class Replacement {
+
+        private final int mStart;
+        private final int mEnd;
+        private final String mText;
+
+        Replacement(int start, int end, String text) {
+            this.mStart = start;
+            this.mEnd = end;
+            this.mText = text;
+        }
+
+        public int getStart() {
+            return mStart;
+        }
+
+        public int getEnd() {
+            return mEnd;
+        }
+
+        public String getText() {
+            return mText;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + mStart + ", " + mEnd + ") -> \"" + mText + '"';
+        }
+    }
+
+    private LineDiff() {
+    }
+
+    /**
+     * 计算把旧文本修改为新文本需要的字符替换
+     *
+     * @param oldText 旧文本
+     * @param newText 新文本
+     * @return 按位置从后往前排序,依次应用时前面的偏移量不受影响;内容相同时返回空列表
+     */
+    public static List<Replacement> replacements(CharSequence oldText, CharSequence newText) {
+        List<String> oldLines = splitLines(oldText);
+        List<String> newLines = splitLines(newText);
+        List<Hunk> hunks = diff(oldLines, newLines);
+        if (hunks.isEmpty()) return Collections.emptyList();
+
+        int[] lineOffsets = new int[oldLines.size() + 1];
+        for (int i = 0; i < oldLines.size(); i++) {
+            lineOffsets[i + 1] = lineOffsets[i] + oldLines.get(i).length();
+        }
+
+        List<Replacement> replacements = new ArrayList<>(hunks.size());
+        for (int i = hunks.size() - 1; i >= 0; i--) {
+            Hunk hunk = hunks.get(i);
+            StringBuilder text = new StringBuilder();
+            for (String line : newLines.subList(hunk.getNewStart(), hunk.getNewEnd())) {
+                text.append(line);
+            }
+            replacements.add(new Replacement(lineOffsets[hunk.getOldStart()], lineOffsets[hunk.getOldEnd()],
+                    text.toString()));
+        }
+        return replacements;
+    }
+
+    /**
+     * 把文本切分为行,每一行都包含行尾的换行符,最后一行可能没有换行符
+     *
+     * @param text 文本
+     * @return 所有的行,文本为空时返回空列表
+     */
+    public static List<String> splitLines(CharSequence text) {
+        List<String> lines = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines.add(text.subSequence(start, i + 1).toString());
+                start = i + 1;
+            }
+        }
+        if (start < text.length()) lines.add(text.subSequence(start, text.length()).toString());
+        return lines;
+    }
+
+    /**
+     * 比较两组行
+     *
+     * @param oldLines 旧的行
+     * @param newLines 新的行
+     * @return 按位置排序的修改,内容相同时返回空列表
+     */
+    public static List<Hunk> diff(List<String> oldLines, List<String> newLines) {
+        int oldSize = oldLines.size();
+        int newSize = newLines.size();
+
+        int prefix = 0;
+        while (prefix < oldSize && prefix < newSize && oldLines.get(prefix).equals(newLines.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < oldSize - prefix && suffix < newSize - prefix
+                && oldLines.get(oldSize - 1 - suffix).equals(newLines.get(newSize - 1 - suffix))) {
+            suffix++;
+        }
+
+        List<String> a = oldLines.subList(prefix, oldSize - suffix);
+        List<String> b = newLines.subList(prefix, newSize - suffix);
+        if (a.isEmpty() && b.isEmpty()) return Collections.emptyList();
+        if (a.isEmpty() || b.isEmpty()) {
+            return Collections.singletonList(new Hunk(prefix, prefix + a.size(), prefix, prefix + b.size()));
+        }
+
+        boolean[] deleted = new boolean[a.size()];
+        boolean[] inserted = new boolean[b.size()];
+        if (!shortestEdit(a, b, deleted, inserted)) {
+            return Collections.singletonList(new Hunk(prefix, prefix + a.size(), prefix, prefix + b.size()));
+        }
+
+        //相邻的删除和插入合并为一处修改
+        List<Hunk> hunks = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < a.size() || j < b.size()) {
+            if (i < a.size() && j < b.size() && !deleted[i] && !inserted[j]) {
+                i++;
+                j++;
+                continue;
+            }
+            int oldStart = i;
+            int newStart = j;
+            while (i < a.size() && deleted[i]) i++;
+            while (j < b.size() && inserted[j]) j++;
+            hunks.add(new Hunk(prefix + oldStart, prefix + i, prefix + newStart, prefix + j));
+        }
+        return hunks;
+    }
+
+    /**
+     * Myers 差分算法,标记需要删除的旧行和需要插入的新行
+     *
+     * @return 编辑距离没有超过 {@link #MAX_EDIT_DISTANCE} 时返回true
+     */
+    private static boolean shortestEdit(List<String> a, List<String> b, boolean[] deleted, boolean[] inserted) {
+        int n = a.size();
+        int m = b.size();
+        int max = Math.min(n + m, MAX_EDIT_DISTANCE);
+        int offset = max + 1;
+        int[] v = new int[2 * max + 3];
+        //trace.get(d) 保存第 d 步开始前 k 在 [-d, d] 范围内的 v
+        List<int[]> trace = new ArrayList<>();
+
+        int distance = -1;
+        for (int d = 0; d <= max && distance < 0; d++) {
+            int[] snapshot = new int[2 * d + 1];
+            System.arraycopy(v, offset - d, snapshot, 0, snapshot.length);
+            trace.add(snapshot);
+
+            for (int k = -d; k <= d; k += 2) {
+                int x = k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])
+                        ? v[offset + k + 1] : v[offset + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && a.get(x).equals(b.get(y))) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    distance = d;
+                    break;
+                }
+            }
+        }
+        if (distance < 0) return false;
+
+        int x = n;
+        int y = m;
+        for (int d = distance; d > 0; d--) {
+            int[] snapshot = trace.get(d);
+            int k = x - y;
+            int prevK = k == -d || (k != d && snapshot[k - 1 + d] < snapshot[k + 1 + d]) ? k + 1 : k - 1;
+            int prevX = snapshot[prevK + d];
+            int prevY = prevX - prevK;
+            while (x > prevX && y > prevY) {
+                x--;
+                y--;
+            }
+            if (x == prevX) {
+                inserted[prevY] = true;
+            } else {
+                deleted[prevX] = true;
+            }
+            x = prevX;
+            y = prevY;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,85 @@
+package com.lovely3x.jsr.generator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link ResourceIndex} 的测试
+ */
+public class ResourceIndexTest {
+
+    private ResourceIndex mIndex;
+
+    @Before
+    public void setUp() {
+        ScanResult result = new ScanResult();
+        for (String path : Arrays.asList("a.png", "ui/b.png", "ui/icons/c.png", "uix/d.png")) {
+            result.files.add(new ResourceEntry(path, 1, 1));
+        }
+        for (String dir : Arrays.asList("", "ui/", "ui/icons/", "uix/")) {
+            result.directories.put(dir, 1L);
+        }
+        mIndex = new ResourceIndex();
+        mIndex.addAll(result);
+    }
+
+    private List<String> paths() {
+        List<String> paths = mIndex.paths();
+        Collections.sort(paths);
+        return paths;
+    }
+
+    @Test
+    public void removeFile() {
+        assertTrue(mIndex.remove("ui/b.png"));
+        assertEquals(Arrays.asList("a.png", "ui/icons/c.png", "uix/d.png"), paths());
+        assertEquals(4, mIndex.directories().size());
+    }
+
+    @Test
+    public void removeDirectoryRemovesEverythingBelowIt() {
+        assertTrue(mIndex.remove("ui"));
+        assertEquals(Arrays.asList("a.png", "uix/d.png"), paths());
+        assertEquals(Arrays.asList("", "uix/"), sorted(mIndex.directories().keySet()));
+    }
+
+    @Test
+    public void removeUnknownPathLeavesIndexUnchanged() {
+        assertFalse(mIndex.remove("ui/.DS_Store"));
+        assertFalse(mIndex.remove("art.psd"));
+        //没有扫描过的文件夹不会按前缀删除
+        assertFalse(mIndex.remove("u"));
+        assertEquals(4, paths().size());
+        assertEquals(4, mIndex.directories().size());
+    }
+
+    @Test
+    public void batchReportsOnlyAddedOrRemovedFiles() {
+        ResourceIndex.Batch batch = new ResourceIndex.Batch();
+        batch.add(new ResourceEntry("a.png", 2, 2));
+        batch.remove("missing.png");
+        assertFalse(mIndex.apply(batch));
+
+        batch = new ResourceIndex.Batch();
+        batch.remove("ui/icons");
+        batch.add(new ResourceEntry("ui/e.png", 1, 1));
+        assertTrue(mIndex.apply(batch));
+        assertEquals(Arrays.asList("a.png", "ui/b.png", "ui/e.png", "uix/d.png"), paths());
+    }
+
+    private static List<String> sorted(Collection<String> values) {
+        List<String> list = new ArrayList<>(values);
+        Collections.sort(list);
+        return list;
+    }
+}
@@ -0,0 +1,183 @@
+package com.lovely3x.jsr.generator;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link SourceTemplate} 的测试
+ */
+public class SourceTemplateTest {
+
+    private static final String HEADER = "{{! jsr-template }}\n";
+
+    /**
+     * 两张图片和一个 plist,按资源路径排序
+     */
+    private static GeneratedResources resources() {
+        GeneratedResources resources = new GeneratedResources(null);
+        resources.add(new GeneratedResources.Item("a_png", "res/a.png", "res/a.png", ResourceType.IMAGE, 10, "d1"));
+        resources.add(new GeneratedResources.Item("b_plist", "res/b.plist", "res/b.plist", ResourceType.PLIST, 20, null));
+        resources.add(new GeneratedResources.Item("c_png", "res/c.png", "res/c.png", ResourceType.IMAGE, 30, null));
+        return resources;
+    }
+
+    private static String render(String template, GeneratedResources resources) throws IOException {
+        StringWriter out = new StringWriter();
+        SourceTemplate.compile(template, "%%", "%%preload%%").render(out, resources);
+        return out.toString();
+    }
+
+    private static void assertError(String template) {
+        try {
+            SourceTemplate.compile(template, "%%");
+            fail("模板应该编译失败: " + template);
+        } catch (IllegalArgumentException expected) {
+            //编译失败
+        }
+    }
+
+    @Test
+    public void templateWithoutHeaderKeepsTagsLiteral() throws IOException {
+        String template = "var res =%%;\nvar o = {{a: 1}};\n{{each}}{{name}}{{end}}\n{{ unclosed";
+        assertEquals("var res ={\n\ta_png : \"res/a.png\"\n};\nvar o = {{a: 1}};\n{{each}}{{name}}{{end}}\n{{ unclosed",
+                render(template, GeneratedResources.of(Collections.singletonMap("a_png", "res/a.png"), null)));
+    }
+
+    @Test
+    public void indicatorsAreReplacedOnlyOnce() throws IOException {
+        Map<String, String> urls = new LinkedHashMap<>();
+        urls.put("b", "res/b.png");
+        urls.put("a", "res/a.png");
+        assertEquals("x={\n\ta : \"res/a.png\",\n\tb : \"res/b.png\"\n};%%", render("x=%%;%%", GeneratedResources.of(urls, null)));
+    }
+
+    @Test
+    public void headerIsRemovedFromOutput() throws IOException {
+        assertEquals("var n = 3;\n", render(HEADER + "var n = {{count}};\n", resources()));
+        assertEquals("var n = 3;\n", render("  {{!jsr-template}}  \r\nvar n = {{count}};\n", resources())
+                .replace("\r", ""));
+    }
+
+    @Test
+    public void headerMustBeOnFirstLine() throws IOException {
+        assertEquals("\n{{! jsr-template }}\n{{count}}", render("\n{{! jsr-template }}\n{{count}}", resources()));
+        assertEquals("{{! other }}\n{{count}}", render("{{! other }}\n{{count}}", resources()));
+    }
+
+    @Test
+    public void eachWithTypeFilter() throws IOException {
+        String template = HEADER + "{{each image}}{{index}}:{{name}}={{url | js}};{{end}}";
+        assertEquals("0:a_png=\"res/a.png\";1:c_png=\"res/c.png\";", render(template, resources()));
+
+        template = HEADER + "{{each plist, fnt}}{{path}} {{size}} {{type}};{{end}}";
+        assertEquals("res/b.plist 20 plist;", render(template, resources()));
+
+        template = HEADER + "{{each tmx}}{{name}}{{end}}";
+        assertEquals("", render(template, resources()));
+    }
+
+    @Test
+    public void ifAndElseNestedInEach() throws IOException {
+        String template = HEADER
+                + "[\n"
+                + "{{each}}\n"
+                + "    {{if image}}\n"
+                + "    {{if md5}}{{name}}#{{md5}}{{else}}{{name}}{{end}}{{if !last}},{{end}}\n"
+                + "    {{else}}\n"
+                + "    ({{name}}){{if !last}},{{end}}\n"
+                + "    {{end}}\n"
+                + "{{end}}\n"
+                + "]\n";
+        assertEquals("[\n    a_png#d1,\n    (b_plist),\n    c_png\n]\n", render(template, resources()));
+    }
+
+    @Test
+    public void firstAndLastFollowTheFilteredItems() throws IOException {
+        String template = HEADER + "{{each image}}{{if first}}<{{end}}{{name}}{{if last}}>{{else}} {{end}}{{end}}";
+        assertEquals("<a_png c_png>", render(template, resources()));
+    }
+
+    @Test
+    public void globalConditions() throws IOException {
+        String template = HEADER + "{{if empty}}none{{else}}{{count}}{{end}}|{{if frames}}f{{end}}{{if !variants}}v{{end}}";
+        assertEquals("3|v", render(template, resources()));
+        assertEquals("none|v", render(template, new GeneratedResources(null)));
+    }
+
+    @Test
+    public void filters() throws IOException {
+        GeneratedResources resources = new GeneratedResources(null);
+        resources.add(new GeneratedResources.Item("Tag", "res/<a&b>.png", "res/\"q\".png", ResourceType.IMAGE, 1, null));
+        String template = HEADER + "{{each}}{{name | upper}} {{name | lower}} {{path | html}} {{url | js}}"
+                + " {{name | lower | json}}{{end}}";
+        assertEquals("TAG tag res/&lt;a&amp;b&gt;.png \"res/\\\"q\\\".png\" \"tag\"", render(template, resources));
+    }
+
+    @Test
+    public void quoteFilterMustBeLast() {
+        assertError(HEADER + "{{each}}{{name | js | upper}}{{end}}");
+        assertError(HEADER + "{{each}}{{name | unknown}}{{end}}");
+        assertError(HEADER + "{{resources | js}}");
+    }
+
+    @Test
+    public void standaloneTagsLeaveNoEmptyLines() throws IOException {
+        String template = HEADER
+                + "a\n"
+                + "  {{! comment }}  \n"
+                + "\t{{if !empty}}\n"
+                + "b {{count}}\n"
+                + "  {{end}}\n"
+                + "c\n"
+                + "{{if empty}}\n"
+                + "d\n"
+                + "{{end}}\n"
+                + "\n";
+        assertEquals("a\nb 3\nc\n\n", render(template, resources()));
+    }
+
+    @Test
+    public void inlineTagsKeepTheirLine() throws IOException {
+        String template = HEADER + "a {{if !empty}}\nb\n{{end}} c\n";
+        assertEquals("a \nb\n c\n", render(template, resources()));
+    }
+
+    @Test
+    public void objectTagsAndLiterals() throws IOException {
+        String template = HEADER + "var res = {{resources}};\n{{! ignored }}var s = \"{{\"{{\"}}x}}\";";
+        assertEquals("var res = {\n\ta_png : \"res/a.png\",\n\tb_plist : \"res/b.plist\",\n\tc_png : \"res/c.png\"\n};\n"
+                + "var s = \"{{x}}\";", render(template, resources()));
+    }
+
+    @Test
+    public void preloadUsage() {
+        assertTrue(SourceTemplate.compile("%%preload%%", "%%", "%%preload%%").hasPreload());
+        assertTrue(SourceTemplate.compile(HEADER + "{{preload}}", "%%", "%%preload%%").hasPreload());
+        assertFalse(SourceTemplate.compile("{{preload}}", "%%", "%%preload%%").hasPreload());
+        assertTrue(SourceTemplate.compile(HEADER + "{{each}}{{md5}}{{end}}", "%%").hasDigests());
+        assertFalse(SourceTemplate.compile("{{each}}{{md5}}{{end}}", "%%").hasDigests());
+    }
+
+    @Test
+    public void syntaxErrors() {
+        assertError(HEADER + "{{each}}");
+        assertError(HEADER + "{{end}}");
+        assertError(HEADER + "{{else}}");
+        assertError(HEADER + "{{each}}{{each}}{{end}}{{end}}");
+        assertError(HEADER + "{{each}}{{unknown}}{{end}}");
+        assertError(HEADER + "{{each nothing}}{{end}}");
+        assertError(HEADER + "{{name}}");
+        assertError(HEADER + "{{if last}}{{end}}");
+        assertError(HEADER + "{{count");
+    }
+}
@@ -0,0 +1,198 @@
+package com.lovely3x.jsr.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link LineDiff} 的测试
+ * <p>
+ * 每个用例都把 {@link LineDiff#replacements} 按顺序应用到旧文本上,结果必须和新文本完全一致,
+ * 同时检查替换的区间只包含变化的行。
+ */
+public class LineDiffTest {
+
+    private static final String TEXT = "a\nb\nc\nd\ne\n";
+
+    @Test
+    public void splitLinesKeepsLineSeparators() {
+        assertEquals(Arrays.asList("a\n", "b\n", "c"), LineDiff.splitLines("a\nb\nc"));
+        assertEquals(Arrays.asList("a\n", "\n"), LineDiff.splitLines("a\n\n"));
+        assertEquals(Collections.singletonList("\n"), LineDiff.splitLines("\n"));
+        assertEquals(Collections.emptyList(), LineDiff.splitLines(""));
+    }
+
+    @Test
+    public void identicalTextHasNoReplacements() {
+        assertTrue(LineDiff.replacements(TEXT, TEXT).isEmpty());
+        assertTrue(LineDiff.replacements("", "").isEmpty());
+    }
+
+    @Test
+    public void insertAtStart() {
+        assertSingle(TEXT, "x\n" + TEXT, 0, 0, "x\n");
+    }
+
+    @Test
+    public void insertInMiddle() {
+        assertSingle(TEXT, "a\nb\nx\ny\nc\nd\ne\n", 4, 4, "x\ny\n");
+    }
+
+    @Test
+    public void insertAtEnd() {
+        assertSingle(TEXT, TEXT + "x\n", 10, 10, "x\n");
+    }
+
+    @Test
+    public void deleteAtStart() {
+        assertSingle(TEXT, "c\nd\ne\n", 0, 4, "");
+    }
+
+    @Test
+    public void deleteInMiddle() {
+        assertSingle(TEXT, "a\nb\ne\n", 4, 8, "");
+    }
+
+    @Test
+    public void deleteAtEnd() {
+        assertSingle(TEXT, "a\nb\nc\n", 6, 10, "");
+    }
+
+    @Test
+    public void replaceAtStart() {
+        assertSingle(TEXT, "x\nb\nc\nd\ne\n", 0, 2, "x\n");
+    }
+
+    @Test
+    public void replaceInMiddle() {
+        assertSingle(TEXT, "a\nb\nxx\nd\ne\n", 4, 6, "xx\n");
+    }
+
+    @Test
+    public void replaceAtEnd() {
+        assertSingle(TEXT, "a\nb\nc\nd\nx\n", 8, 10, "x\n");
+    }
+
+    @Test
+    public void fromEmptyText() {
+        assertSingle("", TEXT, 0, 0, TEXT);
+    }
+
+    @Test
+    public void toEmptyText() {
+        assertSingle(TEXT, "", 0, 10, "");
+    }
+
+    @Test
+    public void lastLineWithoutTrailingNewline() {
+        assertSingle("a\nb", "a\nc", 2, 3, "c");
+        assertSingle("a\nb", "a\nb\n", 2, 3, "b\n");
+        assertSingle("a\nb\n", "a\nb", 2, 4, "b");
+        assertSingle("a\nb", "a\nb\nc", 2, 3, "b\nc");
+    }
+
+    @Test
+    public void separateChangesAreAppliedFromBackToFront() {
+        String newText = "a\nx\nc\nd\ny\n";
+        List<LineDiff.Replacement> replacements = LineDiff.replacements(TEXT, newText);
+        assertEquals(2, replacements.size());
+        assertRange(replacements.get(0), 8, 10, "y\n");
+        assertRange(replacements.get(1), 2, 4, "x\n");
+        assertEquals(newText, apply(TEXT, replacements));
+    }
+
+    @Test
+    public void repeatedLinesAreMatchedMinimally() {
+        String oldText = "}\n}\n}\n";
+        String newText = "}\nx\n}\n}\n";
+        List<LineDiff.Replacement> replacements = LineDiff.replacements(oldText, newText);
+        assertEquals(1, replacements.size());
+        assertEquals("x\n", replacements.get(0).getText());
+        assertEquals(replacements.get(0).getStart(), replacements.get(0).getEnd());
+        assertEquals(newText, apply(oldText, replacements));
+    }
+
+    @Test
+    public void scatteredChangesProduceOneHunkEach() {
+        StringBuilder oldText = new StringBuilder();
+        StringBuilder newText = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            oldText.append("line").append(i).append('\n');
+            newText.append(i % 10 == 5 ? "changed" : "line").append(i).append('\n');
+        }
+        List<LineDiff.Replacement> replacements = LineDiff.replacements(oldText, newText);
+        assertEquals(10, replacements.size());
+        for (LineDiff.Replacement replacement : replacements) {
+            assertTrue(replacement.getText(), replacement.getText().startsWith("changed"));
+        }
+        assertEquals(newText.toString(), apply(oldText.toString(), replacements));
+    }
+
+    @Test
+    public void editDistanceOverLimitFallsBackToOneHunk() {
+        StringBuilder oldText = new StringBuilder("head\n");
+        StringBuilder newText = new StringBuilder("head\n");
+        for (int i = 0; i < 600; i++) {
+            oldText.append("old").append(i).append('\n');
+            newText.append("new").append(i).append('\n');
+        }
+        oldText.append("tail\n");
+        newText.append("tail\n");
+
+        //1200 次编辑超过了上限,去掉相同的开头和结尾后整体替换
+        List<LineDiff.Hunk> hunks = LineDiff.diff(LineDiff.splitLines(oldText), LineDiff.splitLines(newText));
+        assertEquals(1, hunks.size());
+        assertEquals(1, hunks.get(0).getOldStart());
+        assertEquals(601, hunks.get(0).getOldEnd());
+        assertEquals(1, hunks.get(0).getNewStart());
+        assertEquals(601, hunks.get(0).getNewEnd());
+
+        List<LineDiff.Replacement> replacements = LineDiff.replacements(oldText, newText);
+        assertEquals(1, replacements.size());
+        assertEquals(newText.toString(), apply(oldText.toString(), replacements));
+    }
+
+    @Test
+    public void editDistanceWithinLimitIsNotFlattened() {
+        StringBuilder oldText = new StringBuilder();
+        StringBuilder newText = new StringBuilder();
+        for (int i = 0; i < 600; i++) {
+            oldText.append("line").append(i).append('\n');
+            newText.append("line").append(i).append('\n');
+            if (i % 2 == 0) newText.append("extra").append(i).append('\n');
+        }
+        //300 次插入,没有超过上限,每一处插入单独替换
+        List<LineDiff.Replacement> replacements = LineDiff.replacements(oldText, newText);
+        assertEquals(300, replacements.size());
+        assertEquals(newText.toString(), apply(oldText.toString(), replacements));
+    }
+
+    private static void assertSingle(String oldText, String newText, int start, int end, String text) {
+        List<LineDiff.Replacement> replacements = LineDiff.replacements(oldText, newText);
+        assertEquals(replacements.toString(), 1, replacements.size());
+        assertRange(replacements.get(0), start, end, text);
+        assertEquals(newText, apply(oldText, replacements));
+    }
+
+    private static void assertRange(LineDiff.Replacement replacement, int start, int end, String text) {
+        assertEquals(start, replacement.getStart());
+        assertEquals(end, replacement.getEnd());
+        assertEquals(text, replacement.getText());
+    }
+
+    /**
+     * 和插件修改文档的方式相同,按顺序应用所有的替换
+     */
+    private static String apply(String oldText, List<LineDiff.Replacement> replacements) {
+        StringBuilder text = new StringBuilder(oldText);
+        for (LineDiff.Replacement replacement : replacements) {
+            text.replace(replacement.getStart(), replacement.getEnd(), replacement.getText());
+        }
+        return text.toString();
+    }
+}
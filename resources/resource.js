@@ -1,18 +0,0 @@
-var res =%%;
-
-var g_resources = [
-    //image
-    //plist
-
-    //fnt
-
-    //tmx
-
-    //bgm
-
-    //effect
-];
-
-for (var i in res) {
-    g_resources.push(res[i]);
-}
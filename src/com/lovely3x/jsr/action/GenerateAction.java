@@ -19,8 +19,7 @@ public class GenerateAction extends AnAction {
             if (generator == null) {
                 generator = new ProjectFileChangeListener(project);
             }
-            generator.updateConfiguration();
-            generator.generateSourceFile(true);
+            generator.rebuild();
         }
     }
 
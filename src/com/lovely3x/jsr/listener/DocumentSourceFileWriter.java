@@ -0,0 +1,175 @@
+package com.lovely3x.jsr.listener;
+
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.ex.VirtualFileManagerEx;
+import com.lovely3x.jsr.generator.SourceFileWriter;
+import com.lovely3x.jsr.utils.LineDiff;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 通过IDE的文档修改已经存在的生成文件
+ * <p>
+ * 只把变化的行区间替换到文档中,IDE只需要重新解析变化的部分,打开的编辑器也不会整体重新加载;
+ * 修改作为一个命令执行,可以撤销。修改在界面线程中进行,生成线程等待文档保存后才返回,
+ * 所以记录的指纹和统计数据都是真正写入之后的结果。
+ * 界面线程执行修改之前会再检查一次任务是否过期,过期的任务不会再修改文档;
+ * 等待期间任务过期并且修改还没有开始时直接放弃,不会一直占用生成锁(例如关闭项目时需要保存资源索引)。
+ * 等待界面线程时不持有写入器的锁,其他资源根目录的生成不会因此被阻塞。
+ * 还不存在的文件没有对应的文档,直接写入磁盘后刷新VFS。
+ */
+class DocumentSourceFileWriter extends SourceFileWriter {
+
+    /**
+     * 等待界面线程时检查任务是否过期的间隔,毫秒
+     */
+    private static final long CANCEL_CHECK_MILLIS = 50;
+
+    private final Project myProject;
+
+    DocumentSourceFileWriter(Project project) {
+        this.myProject = project;
+    }
+
+    @Override
+    protected void writeChanged(File file, Content content, BooleanSupplier cancelled) throws IOException {
+        VirtualFile virtualFile = LocalFileSystem.getInstance().findFileByIoFile(file);
+        if (virtualFile == null || !virtualFile.isValid()) {
+            super.writeChanged(file, content, cancelled);
+            VirtualFileManagerEx.getInstance().refreshAndFindFileByUrl("file://" + file.getAbsolutePath());
+            return;
+        }
+
+        StringWriter text = new StringWriter();
+        content.writeTo(text);
+        //文档中的换行符统一为 \n
+        String newText = text.toString().replace("\r\n", "\n");
+
+        Edit edit = new Edit(virtualFile, newText, cancelled);
+        Application application = ApplicationManager.getApplication();
+        if (application.isDispatchThread()) {
+            edit.run();
+        } else {
+            application.invokeLater(edit);
+        }
+        edit.await();
+    }
+
+    /**
+     * 在界面线程中执行的一次文档修改
+     */
+    private final class Edit implements Runnable {
+
+        private static final int PENDING = 0;
+        private static final int RUNNING = 1;
+        private static final int ABANDONED = 2;
+
+        private final VirtualFile mFile;
+        private final String mText;
+        private final BooleanSupplier mCancelled;
+
+        private final AtomicInteger mState = new AtomicInteger(PENDING);
+        private final CountDownLatch mDone = new CountDownLatch(1);
+
+        /**
+         * 执行时任务已经过期,文档没有被修改
+         */
+        private volatile boolean mSkipped;
+        private volatile IOException mError;
+        private volatile RuntimeException mFailure;
+
+        Edit(VirtualFile file, String text, BooleanSupplier cancelled) {
+            this.mFile = file;
+            this.mText = text;
+            this.mCancelled = cancelled;
+        }
+
+        @Override
+        public void run() {
+            if (!mState.compareAndSet(PENDING, RUNNING)) return;
+            try {
+                if (myProject.isDisposed() || !mFile.isValid() || mCancelled.getAsBoolean()) {
+                    mSkipped = true;
+                    return;
+                }
+                WriteCommandAction.runWriteCommandAction(myProject, () -> {
+                    try {
+                        apply(mFile, mText);
+                    } catch (IOException e) {
+                        mError = e;
+                    }
+                });
+            } catch (RuntimeException e) {
+                mFailure = e;
+            } finally {
+                mDone.countDown();
+            }
+        }
+
+        /**
+         * 等待修改完成
+         *
+         * @throws IOException           写入失败
+         * @throws CancellationException 任务在修改之前已经过期
+         */
+        void await() throws IOException {
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    try {
+                        if (mDone.await(CANCEL_CHECK_MILLIS, TimeUnit.MILLISECONDS)) break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                    //修改已经开始时只能等它完成
+                    if ((interrupted || mCancelled.getAsBoolean()) && mState.compareAndSet(PENDING, ABANDONED)) {
+                        throw new CancellationException();
+                    }
+                }
+            } finally {
+                if (interrupted) Thread.currentThread().interrupt();
+            }
+
+            if (mSkipped) throw new CancellationException();
+            if (mFailure != null) throw mFailure;
+            if (mError != null) throw mError;
+        }
+    }
+
+    /**
+     * 在写命令中把新的内容应用到文档并保存
+     *
+     * @throws IOException 没有文档时直接写入文件失败
+     */
+    private static void apply(VirtualFile virtualFile, String newText) throws IOException {
+        FileDocumentManager documentManager = FileDocumentManager.getInstance();
+        Document document = documentManager.getDocument(virtualFile);
+        if (document == null || !document.isWritable()) {
+            VfsUtil.saveText(virtualFile, newText);
+            return;
+        }
+
+        List<LineDiff.Replacement> replacements = LineDiff.replacements(document.getImmutableCharSequence(), newText);
+        //从后往前替换,前面的行的偏移量不受影响
+        for (LineDiff.Replacement replacement : replacements) {
+            document.replaceString(replacement.getStart(), replacement.getEnd(), replacement.getText());
+        }
+        documentManager.saveDocument(document);
+    }
+}
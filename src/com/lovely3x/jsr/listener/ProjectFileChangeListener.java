@@ -1,22 +1,57 @@
 package com.lovely3x.jsr.listener;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import com.google.gson.stream.JsonReader;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.components.ProjectComponent;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.io.FileUtil;
-import com.intellij.openapi.vfs.*;
-import com.intellij.openapi.vfs.ex.VirtualFileManagerEx;
-import com.lovely3x.jsr.utils.StreamUtils;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCopyEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCreateEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.intellij.openapi.wm.StatusBar;
+import com.intellij.openapi.wm.WindowManager;
+import com.intellij.util.messages.MessageBusConnection;
+import com.lovely3x.jsr.config.JsrConfig;
+import com.lovely3x.jsr.config.JsrConfigLoader;
+import com.lovely3x.jsr.config.RootConfig;
+import com.lovely3x.jsr.generator.DuplicateSet;
+import com.lovely3x.jsr.generator.FileReaderPool;
+import com.lovely3x.jsr.generator.GenerationMetrics;
+import com.lovely3x.jsr.generator.MetricsLog;
+import com.lovely3x.jsr.generator.NameConverter;
+import com.lovely3x.jsr.generator.PathTrie;
+import com.lovely3x.jsr.generator.RegenerateScheduler;
+import com.lovely3x.jsr.generator.ResourceScanner;
+import com.lovely3x.jsr.generator.SourceGenerator;
+import com.lovely3x.jsr.ui.GenerationStatusWidget;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.*;
-import java.util.*;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * Created by lovely3x on 2017/6/16.
@@ -32,511 +67,458 @@ public class ProjectFileChangeListener implements ProjectComponent {
 
     public static final String COMPONENT_NAME = "COCOS_2D_JS_RESOURCE_GENERATOR";
 
-    public static final String DEFAULT_TEMPLATE_RESOURCE_JS = "/resource.js";
-    public static final String DEFAULT_TEMPLATE_RESOURCE_JS_NAME = "resource.js";
-
-    public static final String JSR_JSON_FILE = "jsr.json";
-    public static final String PROJECT_JSON_FILE = "project.json";
-
-    private static final int CASE_SENSITIVE_UPPERCASE = 1;
-    private static final int CASE_SENSITIVE_LOWERCASE = -1;
-    private static final int CASE_SENSITIVE_UNSPECIFIED = 0;
-
+    /**
+     * 生成统计日志,保存在项目的 .idea 文件夹中
+     */
+    private static final String METRICS_LOG_FILE = "jsr-metrics.jsonl";
 
     private final Project myProject;
 
-    private static final String DEFAULT_RES_DIR = "res";
-    private static final String DEFAULT_SRC_DIR = "src";
-    private static final String DEFAULT_TEMPLATE_INDICATOR = "%%";
+    /**
+     * 调度标识: 重新读取配置
+     */
+    private static final int FLAG_RECONFIGURE = 1;
 
-    private static final String DEFAULT_CONVERT_RE = "[/\\.\\-]";
-    private static final String DEFAULT_CONVERT_VALUE = "_";
+    /**
+     * 调度标识: 所有的资源根目录都需要完整扫描并重新生成
+     */
+    private static final int FLAG_REBUILD = 1 << 1;
+
+    /**
+     * 调度标识: 项目刚刚打开,资源根目录可以使用保存的索引
+     */
+    private static final int FLAG_OPEN = 1 << 2;
 
     private final String mAbsoluteJSRJSONFile;
     private final String mAbsoluteProjectJSONFile;
 
+    private final JsrConfigLoader mConfigLoader;
+
     /**
-     * 需要生成的资源存放文件夹
+     * 当前使用的配置快照
      */
-    private String resDir = DEFAULT_RES_DIR;
+    private JsrConfig mConfig = JsrConfig.DEFAULT;
+
+    private final MessageBusConnection mMessageBusConnection;
 
     /**
-     * 源代码放置文件夹
+     * 所有资源根目录共用的调度线程
      */
-    private String srcDir = DEFAULT_SRC_DIR;
+    private final ScheduledExecutorService mSchedulerExecutor = RegenerateScheduler.newExecutor();
+
     /**
-     * 模板文件
+     * 配置文件变化的调度器
      */
-    private String templateFile = null;
+    private final RegenerateScheduler mConfigScheduler;
+
     /**
-     * 模板文件的内容
+     * 资源文件夹的绝对路径 -> 资源根目录,只在调度线程中修改
      */
-    private String templateFileContent = null;
+    private final Map<String, ResourceRootGenerator> mRoots = new LinkedHashMap<>();
 
     /**
-     * 模板代码插入标识
+     * 用于把文件事件路由到所属的资源根目录,修改后整体替换
      */
-    private String templateIndicator = DEFAULT_TEMPLATE_INDICATOR;
+    private volatile PathTrie<ResourceRootGenerator> mRootTrie = new PathTrie<>();
 
-    private String convertRe = DEFAULT_CONVERT_RE;
-    private String convertValue = DEFAULT_CONVERT_VALUE;
+    private volatile ResourceScanner mResourceScanner;
 
     /**
-     * 读取资源的文件位置(需要生成源代码的资源文件)
+     * 读取资源文件内容(元数据、摘要)的线程池
      */
-    private static final String RES_DIR_KEY = "resourceDir";
+    private final FileReaderPool mFileReaderPool = new FileReaderPool(mConfig.getScanParallelism());
 
     /**
-     * 生成的源代码文件放置位置
+     * 所有资源根目录共用的生成器,文件摘要、元数据和生成文件的缓存都在其中
+     * 已经存在的生成文件通过文档修改
      */
-    private static final String SRC_DIR_KEY = "srcDir";
+    private final SourceGenerator mSourceGenerator;
 
     /**
-     * 用于获取生成源代码的模板文件的key
-     */
-    private static final String TEMPLATE_FILE_KEY = "templateFile";
-
-    /***
-     * 用于获取模板标识符(在生成源代码文件时,将会把模板文件中的标识符替换为生成的资源文件列表)
+     * 资源路径前缀(例如 res/) -> 最近一次查找到的重复资源
      */
-    private static final String TEMPLATE_INDICATOR_KEY = "templateIndicator";
+    private final Map<String, List<DuplicateSet>> mDuplicates = new ConcurrentHashMap<>();
 
-    /***
-     * 用于替换时的正则表达式
-     */
-    private static final String CONVERT_RE_KEY = "convertRe";
-
-    /***
-     * 用于替换时的值
+    /**
+     * 重复资源发生变化时的回调,在查找的线程中调用
      */
-    private static final String CONVERT_VALUE_KEY = "convertValue";
+    private final List<Runnable> mDuplicatesListeners = new CopyOnWriteArrayList<>();
 
-    /***
-     * 将转换内容转换为小写的key
+    /**
+     * 资源路径前缀(例如 res/) -> 最近一次生成的统计数据
      */
-    private static final String TO_LOWERCASE_KEY = "toLowercase";
+    private final Map<String, GenerationMetrics> mLastMetrics = new ConcurrentHashMap<>();
 
-    /***
-     * 将转换内容转换为大写的key
+    /**
+     * 生成完成时的回调,在生成的线程中调用
      */
-    private static final String TO_UPPERCASE_KEY = "toUppercase";
-
+    private final List<Runnable> mMetricsListeners = new CopyOnWriteArrayList<>();
 
-    private final VirtualFileListener mVirtualFileListener;
+    private final MetricsLog mMetricsLog;
 
-    private List<File> mProjectResourceFiles = new ArrayList<>();
-
-    private File mResourceBaseFile;
-    private String mResourceBasePath;
-
-
-    private int caseSensitive = CASE_SENSITIVE_UPPERCASE;
-
-    private boolean belongMyProjectResource(VirtualFile file) {
-        return file.getPath().startsWith(mResourceBasePath);
-    }
-
-    private boolean shouldRegenerateFiles(VirtualFileEvent event) {
-        VirtualFile file = event.getFile();
-        if (!event.isFromRefresh()) {
-            File lFile = new File(file.getPath());
-            if (lFile.canRead() && !lFile.isHidden() && lFile.isFile()) {
-                return belongMyProjectResource(file);
-            }
-        }
-        return false;
-    }
+    private volatile NameConverter mNameConverter = new NameConverter(mConfig);
 
     public ProjectFileChangeListener(Project project) {
         myProject = project;
+        mSourceGenerator = new SourceGenerator(mFileReaderPool, new DocumentSourceFileWriter(project));
 
-        this.mAbsoluteJSRJSONFile = new File(myProject.getBasePath(), JSR_JSON_FILE).getAbsolutePath();
-        this.mAbsoluteProjectJSONFile = new File(myProject.getBasePath(), PROJECT_JSON_FILE).getAbsolutePath();
+        this.mAbsoluteJSRJSONFile = FileUtil.toSystemIndependentName(
+                new File(myProject.getBasePath(), JsrConfigLoader.JSR_JSON_FILE).getAbsolutePath());
+        this.mAbsoluteProjectJSONFile = FileUtil.toSystemIndependentName(
+                new File(myProject.getBasePath(), JsrConfigLoader.PROJECT_JSON_FILE).getAbsolutePath());
+        this.mConfigLoader = new JsrConfigLoader(myProject.getBasePath());
+        this.mMetricsLog = new MetricsLog(new File(new File(myProject.getBasePath(), Project.DIRECTORY_STORE_FOLDER),
+                METRICS_LOG_FILE));
 
-        VirtualFileManager.getInstance().addVirtualFileListener(mVirtualFileListener = new VirtualFileAdapter() {
-            @Override
-            public void fileCopied(@NotNull VirtualFileCopyEvent event) {
-                super.fileCopied(event);
-            }
-
-            @Override
-            public void propertyChanged(@NotNull VirtualFilePropertyEvent event) {
-                super.propertyChanged(event);
-            }
+        mConfigScheduler = new RegenerateScheduler(mSchedulerExecutor, mConfig.getRegenerateQuietMillis(),
+                mConfig.getRegenerateMaxDelayMillis(), this::onReconfigure, e -> LOG.error("Reconfigure failed", e));
 
+        mMessageBusConnection = project.getMessageBus().connect();
+        mMessageBusConnection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
             @Override
-            public void contentsChanged(@NotNull VirtualFileEvent event) {
-                super.contentsChanged(event);
-
-                if (isDescriptionFile(event.getFile())) {
-                    updateConfiguration();
-                    generateSourceFile(false);
-                }
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                onFileEvents(events);
             }
+        });
 
-            @Override
-            public void fileCreated(@NotNull VirtualFileEvent event) {
-                super.fileCreated(event);
-
-                if (isDescriptionFile(event.getFile())) {
-                    updateConfiguration();
-                    generateSourceFile(false);
-                    return;
-                }
+        project.putUserData(USER_DATA_KEY_JSR_GENERATOR, this);
+    }
 
-                if (shouldRegenerateFiles(event)) {
-                    generateSourceFile(true);
+    /**
+     * 处理一批文件事件
+     * 只使用路径和VFS中已经缓存的属性过滤,不会访问磁盘;
+     * 每个资源根目录的所有修改合并后一次性应用到索引,整批事件只会触发一次调度
+     *
+     * @param events 文件事件
+     */
+    private void onFileEvents(List<? extends VFileEvent> events) {
+        PathTrie<ResourceRootGenerator> trie = mRootTrie;
+        Map<ResourceRootGenerator, ResourceRootGenerator.Changes> changes = new IdentityHashMap<>();
+        boolean reconfigure = false;
+
+        for (VFileEvent event : events) {
+            if (event instanceof VFileContentChangeEvent) {
+                if (isDescriptionFile(event.getPath())) {
+                    reconfigure = true;
+                    continue;
                 }
-            }
-
-            @Override
-            public void fileDeleted(@NotNull VirtualFileEvent event) {
-                super.fileDeleted(event);
-
-                if (isDescriptionFile(event.getFile())) {
-                    updateConfiguration();
-                    generateSourceFile(false);
-                    return;
+                VirtualFile file = event.getFile();
+                ResourceRootGenerator root = trie.findOwner(event.getPath());
+                if (root != null && file != null) {
+                    root.onResourceContentsChanged(file, changesOf(changes, root));
                 }
-
-                if (shouldRegenerateFiles(event)) {
-                    generateSourceFile(true);
+            } else if (event instanceof VFileCreateEvent) {
+                VFileCreateEvent createEvent = (VFileCreateEvent) event;
+                reconfigure |= isDescriptionFile(event.getPath());
+                onCreated(trie, changes, event.getPath(), event.getFile(), createEvent.isDirectory());
+            } else if (event instanceof VFileCopyEvent) {
+                VFileCopyEvent copyEvent = (VFileCopyEvent) event;
+                String path = copyEvent.getNewParent().getPath() + '/' + copyEvent.getNewChildName();
+                VirtualFile created = copyEvent.getNewParent().findChild(copyEvent.getNewChildName());
+                reconfigure |= isDescriptionFile(path);
+                onCreated(trie, changes, path, created, created == null || created.isDirectory());
+            } else if (event instanceof VFileDeleteEvent) {
+                reconfigure |= isDescriptionFile(event.getPath());
+                VirtualFile deleted = event.getFile();
+                onDeleted(trie, changes, event.getPath(), deleted != null && deleted.isDirectory());
+            } else if (event instanceof VFileMoveEvent) {
+                //在资源根目录之间移动时,相当于从原来的资源根目录删除,再在新的资源根目录中创建
+                VFileMoveEvent moveEvent = (VFileMoveEvent) event;
+                VirtualFile file = moveEvent.getFile();
+                String oldPath = moveEvent.getOldParent().getPath() + '/' + file.getName();
+                reconfigure |= isDescriptionFile(oldPath) || isDescriptionFile(file.getPath());
+                onDeleted(trie, changes, oldPath, file.isDirectory());
+                onCreated(trie, changes, file.getPath(), file, file.isDirectory());
+            } else if (event instanceof VFilePropertyChangeEvent) {
+                VFilePropertyChangeEvent propertyEvent = (VFilePropertyChangeEvent) event;
+                VirtualFile file = propertyEvent.getFile();
+                if (VirtualFile.PROP_NAME.equals(propertyEvent.getPropertyName()) && file.getParent() != null) {
+                    String oldPath = file.getParent().getPath() + '/' + propertyEvent.getOldValue();
+                    reconfigure |= isDescriptionFile(oldPath) || isDescriptionFile(file.getPath());
+                    onDeleted(trie, changes, oldPath, file.isDirectory());
+                    onCreated(trie, changes, file.getPath(), file, file.isDirectory());
                 }
             }
+        }
 
-            @Override
-            public void fileMoved(@NotNull VirtualFileMoveEvent event) {
-                super.fileMoved(event);
-                if (shouldRegenerateFiles(event)) {
-                    generateSourceFile(true);
-                }
-            }
-        });
+        for (Map.Entry<ResourceRootGenerator, ResourceRootGenerator.Changes> entry : changes.entrySet()) {
+            entry.getKey().apply(entry.getValue());
+        }
+        if (reconfigure) {
+            mConfigScheduler.schedule(FLAG_RECONFIGURE);
+        }
+    }
 
-        project.putUserData(USER_DATA_KEY_JSR_GENERATOR, this);
+    private static ResourceRootGenerator.Changes changesOf(
+            Map<ResourceRootGenerator, ResourceRootGenerator.Changes> changes, ResourceRootGenerator root) {
+        return changes.computeIfAbsent(root, r -> new ResourceRootGenerator.Changes());
     }
 
     /**
-     * 更新jsr的配置文件
+     * 资源文件被创建(或者被移动、重命名、复制到资源文件夹中)
      */
-    public void updateConfiguration() {
-        //todo 后期可以考虑一下就把这些全读完。
-        //而不用每次都需要去打开一次文件
-        updateResDir();//更新资源文件放置
-        updateSrcDir();//更新源代码放置
-        updateBasePath();//更新基础路径
-        updateTemplateFile();//更新模板文件
-        updateTemplateIndicator();//更新模板标识符
-        updateConvertRule();//更新转换规则
-        updateConvertValue();//更新转换值
-        updateCaseSensitive();//更新大小写转换规则
+    private static void onCreated(PathTrie<ResourceRootGenerator> trie,
+                                  Map<ResourceRootGenerator, ResourceRootGenerator.Changes> changes,
+                                  String path, @Nullable VirtualFile file, boolean directory) {
+        ResourceRootGenerator root = trie.findOwner(path);
+        if (root != null) root.onResourceCreated(path, file, directory, changesOf(changes, root));
     }
 
     /**
-     * 更新大小写处理
+     * 资源文件被删除(或者被移动、重命名出资源文件夹)
      */
-    private void updateCaseSensitive() {
-        Boolean toLowercase = Boolean.valueOf(findConfig(TO_LOWERCASE_KEY, null));
-        Boolean toUppercase = Boolean.valueOf(findConfig(TO_UPPERCASE_KEY, null));
-        if (toLowercase && toUppercase) {
-            throw new IllegalArgumentException("jsr描述 toLowercase 和 toUppercase 仅能同时存在其中一个。");
-        }
-
-        if (toLowercase) {
-            caseSensitive = CASE_SENSITIVE_LOWERCASE;
-        } else if (toUppercase) {
-            caseSensitive = CASE_SENSITIVE_UPPERCASE;
-        } else {
-            caseSensitive = CASE_SENSITIVE_UNSPECIFIED;
-        }
+    private static void onDeleted(PathTrie<ResourceRootGenerator> trie,
+                                  Map<ResourceRootGenerator, ResourceRootGenerator.Changes> changes,
+                                  String path, boolean directory) {
+        ResourceRootGenerator root = trie.findOwner(path);
+        if (root != null) root.onResourceDeleted(path, directory, changesOf(changes, root));
     }
 
-    /***
-     * 更新转换的正则表达式
+    /**
+     * 重新读取配置,完整扫描所有资源根目录并生成,不等待窗口期
      */
-    private void updateConvertRule() {
-        convertRe = findConfig(CONVERT_RE_KEY, DEFAULT_CONVERT_RE);
+    public void rebuild() {
+        mConfigScheduler.scheduleNow(FLAG_RECONFIGURE | FLAG_REBUILD);
     }
 
-    /***
-     * 更新转转值
-     */
-    private void updateConvertValue() {
-        convertValue = findConfig(CONVERT_VALUE_KEY, DEFAULT_CONVERT_VALUE);
+    NameConverter getNameConverter() {
+        return mNameConverter;
     }
 
-
-    /**
-     * 更新需要处理的文件的基础路径,
-     * 在调用之前应该总是先调用 {@link #updateResDir()}
-     */
-    private void updateBasePath() {
-        String projectBasePath = myProject.getBasePath();
-        this.mResourceBaseFile = new File(projectBasePath, resDir);
-        this.mResourceBasePath = mResourceBaseFile.getAbsolutePath();
+    ResourceScanner getResourceScanner() {
+        return mResourceScanner;
     }
 
+    SourceGenerator getSourceGenerator() {
+        return mSourceGenerator;
+    }
 
     /**
-     * 更新资源文件夹
-     * 配置查找顺序 project.json -> jsr.json -> default
+     * 在后台查找所有资源根目录中内容相同的资源文件,结果通过 {@link #addDuplicatesListener} 通知
      */
-    private void updateResDir() {
-        resDir = findConfig(RES_DIR_KEY, DEFAULT_RES_DIR);
+    public void analyzeDuplicates() {
+        mSchedulerExecutor.execute(() -> {
+            List<ResourceRootGenerator> roots = new ArrayList<>(mRoots.values());
+            ApplicationManager.getApplication().invokeLater(() -> {
+                if (myProject.isDisposed()) return;
+
+                ProgressManager.getInstance().run(new Task.Backgroundable(myProject, "Finding duplicate resources", true) {
+                    @Override
+                    public void run(@NotNull ProgressIndicator indicator) {
+                        for (ResourceRootGenerator root : roots) {
+                            indicator.setText("Finding duplicate resources in " + root.getResourceBasePath());
+                            try {
+                                root.findDuplicates(indicator::isCanceled);
+                            } catch (CancellationException e) {
+                                return;
+                            }
+                        }
+                    }
+                });
+            });
+        });
     }
 
     /**
-     * 更新源代码放置文件夹
-     * 配置查找顺序 project.json -> jsr.json -> default
+     * @return 资源路径前缀 -> 重复的资源,按前缀排序
      */
-    private void updateSrcDir() {
-        srcDir = findConfig(SRC_DIR_KEY, DEFAULT_SRC_DIR);
+    public Map<String, List<DuplicateSet>> getDuplicates() {
+        return new TreeMap<>(mDuplicates);
     }
 
-    /**
-     * 更新模板文件
-     * 配置查找顺序 project.json -> jsr.json -> default
-     */
-    private void updateTemplateFile() {
-        templateFile = findConfig(TEMPLATE_FILE_KEY, null);
-        File f = null;
-        if (templateFile != null && (f = new File(myProject.getBasePath(), templateFile)).exists()) {
-            templateFileContent = StreamUtils.readToString(f);
-        } else {
-            //读取默认的模板内容
-            InputStream resourceAsStream = ProjectFileChangeListener.class.getResourceAsStream(DEFAULT_TEMPLATE_RESOURCE_JS);
-            templateFileContent = StreamUtils.readToString(resourceAsStream);
-            StreamUtils.close(resourceAsStream);
-        }
+    public void addDuplicatesListener(Runnable listener) {
+        mDuplicatesListeners.add(listener);
     }
 
-    /**
-     * 更新模板标识
-     * 配置查找顺序 project.json -> jsr.json -> default
-     */
-    private void updateTemplateIndicator() {
-        templateIndicator = findConfig(TEMPLATE_INDICATOR_KEY, DEFAULT_TEMPLATE_INDICATOR);
+    public void removeDuplicatesListener(Runnable listener) {
+        mDuplicatesListeners.remove(listener);
     }
 
+    void onDuplicatesFound(String resourcePathPrefix, List<DuplicateSet> duplicates) {
+        mDuplicates.put(resourcePathPrefix, duplicates);
+        for (Runnable listener : mDuplicatesListeners) {
+            listener.run();
+        }
+    }
 
     /**
-     * 按照 project.json -> jsr.json -> default 这个顺序查找配置 给定的key对应的值,
-     * 如果没有查找到,就返回给定的默认值
-     *
-     * @param key          需要查找的key
-     * @param defaultValue 默认值
-     * @return 根据key查找的值
+     * @return 资源路径前缀 -> 最近一次生成的统计数据,按前缀排序
      */
-    private String findConfig(String key, String defaultValue) {
-        //首选位置
-        File cocosProjectDescJson = new File(myProject.getBasePath(), PROJECT_JSON_FILE);
-
-        if (cocosProjectDescJson.exists() && cocosProjectDescJson.canRead()) {
-            String dir = findMatchedValue(cocosProjectDescJson, key);
-            if ((dir != null && dir.trim().length() > 0)) {
-                return dir;
-            }
-        }
-
-        //其次位置
-        File projectRootDescJson = new File(myProject.getBasePath(), JSR_JSON_FILE);
-        String dir = findMatchedValue(projectRootDescJson, key);
-        if ((dir != null && dir.trim().length() > 0)) {
-            return dir;
-        }
+    public Map<String, GenerationMetrics> getLastMetrics() {
+        return new TreeMap<>(mLastMetrics);
+    }
 
-        return defaultValue;
+    public void addMetricsListener(Runnable listener) {
+        mMetricsListeners.add(listener);
     }
 
+    public void removeMetricsListener(Runnable listener) {
+        mMetricsListeners.remove(listener);
+    }
 
-    @Nullable
-    private String findMatchedValue(File jsonFile, String key) {
-        if (jsonFile == null || !jsonFile.exists()) return null;
-        try {
-            JsonParser parser = new JsonParser();
-            JsonReader jr = new JsonReader(new FileReader(jsonFile));
-            JsonElement element = parser.parse(jr);
-
-            JsonObject jo = element.getAsJsonObject();
-            if (jo.has(key)) {
-                element = jo.get(key);
-                return element.getAsString();
+    /**
+     * 一个资源根目录生成完成,记录统计数据并写入统计日志
+     */
+    void onGenerated(String resourcePathPrefix, GenerationMetrics metrics) {
+        mLastMetrics.put(resourcePathPrefix, metrics);
+        if (mMetricsLog.getFile().getParentFile().isDirectory()) {
+            try {
+                mMetricsLog.append(metrics);
+            } catch (IOException e) {
+                LOG.warn("Write generation metrics failed", e);
             }
-
-        } catch (Exception e) {
-            e.printStackTrace();
         }
-        return null;
+        if (LOG.isDebugEnabled()) LOG.debug(metrics.toString());
+        for (Runnable listener : mMetricsListeners) {
+            listener.run();
+        }
     }
 
     /**
-     * 生成源码文件
+     * 配置调度器的回调,在调度线程中重新读取配置并更新资源根目录
      *
-     * @param reScanFiles 在生成源码前,是否需要先扫描文件
+     * @param flags          合并后的调度标识
+     * @param absorbedEvents 本次合并的事件数量
      */
-    public void generateSourceFile(boolean reScanFiles) {
-        if (reScanFiles) scanResources(false);
+    private void onReconfigure(int flags, int absorbedEvents) {
+        if (myProject.isDisposed()) return;
 
-        try {
+        updateConfiguration();
 
-            HashMap<String, String> resMap = new HashMap<>();
-
-            mProjectResourceFiles.forEach(file -> {
-                //base /home/app/cocosProject
-                //res /home/app/cocosProject/res
-                //resource /home/cocosProject/res/some.png
-
-                String resAbsolutePath = file.getAbsolutePath();
-                int index = resAbsolutePath.indexOf(mResourceBasePath);
-                if (index != -1) {
-                    String relativePath = resAbsolutePath.substring(index + mResourceBasePath.length() - resDir.length());
-                    String formatName = convertFilePath2FormatName(relativePath);
-                    log(formatName);
-                    if (resMap.containsKey(formatName)) {
-                        throw new IllegalArgumentException(
-                                String.format(Locale.US, "资源名重复 [%s],重复的文件是[%s]和[%s],请尝试修改文件名后重新生成。",
-                                        formatName,
-                                        resMap.get(formatName),
-                                        relativePath));
-                    } else {
-                        resMap.put(formatName, relativePath);
-                    }
+        long quietMillis = mConfig.getRegenerateQuietMillis();
+        long maxDelayMillis = mConfig.getRegenerateMaxDelayMillis();
+        mConfigScheduler.setDelays(quietMillis, maxDelayMillis);
+
+        Map<String, ResourceRootGenerator> removed = new HashMap<>(mRoots);
+        Map<String, ResourceRootGenerator> roots = new LinkedHashMap<>();
+        PathTrie<ResourceRootGenerator> trie = new PathTrie<>();
+        for (RootConfig rootConfig : mConfig.getRoots()) {
+            String basePath = ResourceRootGenerator.toResourceBasePath(myProject.getBasePath(), rootConfig);
+            ResourceRootGenerator root = removed.remove(basePath);
+            if (root == null) {
+                root = new ResourceRootGenerator(myProject, this, rootConfig,
+                        mSchedulerExecutor, quietMillis, maxDelayMillis);
+                //新的资源根目录总是需要完整扫描
+                if ((flags & FLAG_OPEN) != 0) {
+                    root.open();
+                } else {
+                    root.rebuild();
                 }
-            });
-
-            @NotNull String projectBasePath = myProject.getBasePath();
-
-
-            String content = templateFileContent.replaceFirst(templateIndicator, convertMapToJSObject(resMap));
-
-            File file = new File(new File(projectBasePath, srcDir),
-                    templateFile == null ? DEFAULT_TEMPLATE_RESOURCE_JS_NAME : new File(templateFile).getName());
-
-            FileWriter fWriter = new FileWriter(file);
+            } else if ((flags & FLAG_REBUILD) != 0) {
+                root.reconfigure(rootConfig, quietMillis, maxDelayMillis);
+                root.rebuild();
+            } else {
+                root.reconfigure(rootConfig, quietMillis, maxDelayMillis);
+            }
+            roots.put(basePath, root);
+            trie.put(basePath, root);
+        }
 
-            fWriter.write(content);
-            fWriter.close();
-            VirtualFileManagerEx.getInstance()
-                    .refreshAndFindFileByUrl("file://" + file.getAbsolutePath());
-            log("Source file generated at " + file);
+        mRoots.clear();
+        mRoots.putAll(roots);
+        mRootTrie = trie;
 
-        } catch (IOException e) {
-            e.printStackTrace();
+        for (ResourceRootGenerator root : removed.values()) {
+            root.dispose();
+            if (mDuplicates.remove(root.getResourcePathPrefix()) != null) {
+                for (Runnable listener : mDuplicatesListeners) {
+                    listener.run();
+                }
+            }
+            if (mLastMetrics.remove(root.getResourcePathPrefix()) != null) {
+                for (Runnable listener : mMetricsListeners) {
+                    listener.run();
+                }
+            }
+            log("Resource root removed " + root.getResourceBasePath());
         }
     }
 
     /**
-     * 转换Map到JS源码中的JS对象
-     *
-     * @param map
-     * @return
+     * 更新jsr的配置文件
+     * 配置文件没有变化时不会重新解析,解析失败时继续使用上一次成功加载的配置
      */
-    private String convertMapToJSObject(Map<String, String> map) {
-        StringBuilder sb = new StringBuilder();
-        sb.append('{').append('\n');
-        map.forEach((key, value) -> {
-            sb.append('\t').append(key).append(' ').append(':').append(' ').append('"').append(value).append('"').append(',');
-            sb.append('\n');
-        });
-
-        if (!map.isEmpty()) {
-            sb.delete(sb.length() - 2, sb.length());
+    private void updateConfiguration() {
+        mConfig = mConfigLoader.load();
+        String error = mConfigLoader.getLastError();
+        if (error != null) {
+            LOG.warn("Invalid jsr configuration, keep using the last good one: " + error);
         }
 
-        sb.append('\n').append('}');
-
-        return sb.toString();
+        updateResourceScanner();//更新扫描线程数
+        updateFileReaderPool();//更新读取文件内容的线程数
+        updateNameConverter();//更新转换规则
     }
 
-
     /**
-     * 将文件路径转换为js变量名
-     *
-     * @param relativePath 需要转换的路径
-     * @return 转换后的规则
+     * 转换规则变化时重新创建转换器,规则不变时继续使用原来的转换器和它的缓存
      */
-    private String convertFilePath2FormatName(String relativePath) {
-        String formatted = relativePath.replaceAll(convertRe, convertValue);
-
-        switch (caseSensitive) {
-            case CASE_SENSITIVE_LOWERCASE:
-                formatted = formatted.toLowerCase();
-                break;
-            case CASE_SENSITIVE_UPPERCASE:
-                formatted = formatted.toUpperCase();
-                break;
+    private void updateNameConverter() {
+        if (!mNameConverter.isSameRule(mConfig)) {
+            mNameConverter = new NameConverter(mConfig);
         }
-
-        return formatted;
     }
 
+    /**
+     * 读取文件内容的线程数和扫描线程数保持一致
+     */
+    private void updateFileReaderPool() {
+        mFileReaderPool.setParallelism(mConfig.getScanParallelism());
+    }
 
-    /***
-     * 判断是否是jsr文件
-     *
-     * @param virtualFile 需要判断的文件
-     * @return true or false
+    /**
+     * 扫描线程数变化时重新创建扫描器
      */
-    private boolean isJsrFile(VirtualFile virtualFile) {
-        return mAbsoluteJSRJSONFile.equals(virtualFile.getPath());
+    private void updateResourceScanner() {
+        ResourceScanner scanner = mResourceScanner;
+        if (scanner != null && scanner.getParallelism() == mConfig.getScanParallelism()) return;
+
+        mResourceScanner = new ResourceScanner(mConfig.getScanParallelism());
+        if (scanner != null) scanner.shutdown();
     }
 
     /***
      * 判断是否是是描述文件,描述文件就是会影响jsr执行的文件
      * 换句话讲也就是是否是jsr.json 或 project.json 文件
      *
-     * @param virtualFile 需要判断的文件
+     * @param path 需要判断的文件路径
      * @return true or false
      */
-    private boolean isDescriptionFile(VirtualFile virtualFile) {
-        return isJsrFile(virtualFile) || isCocosProjectFile(virtualFile);
-    }
-
-    /***
-     * 是否是cocos项目描述文件
-     *
-     * @param virtualFile
-     * @return
-     */
-    private boolean isCocosProjectFile(VirtualFile virtualFile) {
-        return mAbsoluteProjectJSONFile.equals(virtualFile.getPath());
+    private boolean isDescriptionFile(String path) {
+        return mAbsoluteJSRJSONFile.equals(path) || mAbsoluteProjectJSONFile.equals(path);
     }
 
 
     @Override
     public void projectOpened() {
-        updateConfiguration();
-        scanResources(true);
-        generateSourceFile(false);
+        StatusBar statusBar = WindowManager.getInstance().getStatusBar(myProject);
+        if (statusBar != null) statusBar.addWidget(new GenerationStatusWidget(this), myProject);
+        mConfigScheduler.scheduleNow(FLAG_RECONFIGURE | FLAG_OPEN);
     }
 
     /**
-     * 扫描需要生成源代码的资源
-     *
-     * @param first 是否是第一次扫描
+     * 在调度线程中执行,保证和资源根目录的更新不会同时进行。
+     * 不等待执行完成:任务可能需要等待生成锁,而持有生成锁的生成任务可能正在等待界面线程
      */
-    private void scanResources(boolean first) {
-        if (!first) {
-            //移除掉不存在的文件
-            Iterator<File> it = mProjectResourceFiles.iterator();
-            while (it.hasNext()) {
-                File next = it.next();
-                if (!next.exists()) {
-                    it.remove();
-                }
-            }
+    private void runOnScheduler(Runnable runnable) {
+        try {
+            mSchedulerExecutor.execute(runnable);
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Run on scheduler failed", e);
         }
-
-        FileUtil.visitFiles(mResourceBaseFile, file -> {
-            if (file.exists() && file.isFile() && !file.isHidden()) {
-                if (!mProjectResourceFiles.contains(file)) mProjectResourceFiles.add(file);
-            }
-            return true;
-        });
     }
 
     @Override
     public void projectClosed() {
+        runOnScheduler(() -> {
+            //先让所有的生成任务过期,等待界面线程的修改会直接放弃并释放生成锁,再逐个保存索引
+            for (ResourceRootGenerator root : mRoots.values()) {
+                root.cancelRunningGeneration();
+            }
+            for (ResourceRootGenerator root : mRoots.values()) {
+                root.saveResourceIndex();
+            }
+        });
         log("Project closed");
     }
 
@@ -547,7 +529,20 @@ public class ProjectFileChangeListener implements ProjectComponent {
 
     @Override
     public void disposeComponent() {
-        VirtualFileManager.getInstance().removeVirtualFileListener(mVirtualFileListener);
+        mMessageBusConnection.disconnect();
+        mConfigScheduler.shutdown();
+        runOnScheduler(() -> {
+            for (ResourceRootGenerator root : mRoots.values()) {
+                root.dispose();
+            }
+            mRoots.clear();
+            mRootTrie = new PathTrie<>();
+        });
+        //已经提交的任务(例如保存索引)执行完之后线程池才会停止
+        mSchedulerExecutor.shutdown();
+        ResourceScanner scanner = mResourceScanner;
+        if (scanner != null) scanner.shutdown();
+        mFileReaderPool.shutdown();
     }
 
     @NotNull
@@ -556,8 +551,8 @@ public class ProjectFileChangeListener implements ProjectComponent {
         return COMPONENT_NAME;
     }
 
-    private void log(String msg) {
-        if (DEBUG) {
+    void log(String msg) {
+        if (DEBUG && LOG.isDebugEnabled()) {
             LOG.debug(msg);
         }
     }
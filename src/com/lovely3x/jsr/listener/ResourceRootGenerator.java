@@ -0,0 +1,624 @@
+package com.lovely3x.jsr.listener;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VFileProperty;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.lovely3x.jsr.config.ResourceFilter;
+import com.lovely3x.jsr.config.RootConfig;
+import com.lovely3x.jsr.generator.DuplicateSet;
+import com.lovely3x.jsr.generator.Emitter;
+import com.lovely3x.jsr.generator.GenerationMetrics;
+import com.lovely3x.jsr.generator.IndexSnapshot;
+import com.lovely3x.jsr.generator.NameConverter;
+import com.lovely3x.jsr.generator.RegenerateScheduler;
+import com.lovely3x.jsr.generator.ResourceEntry;
+import com.lovely3x.jsr.generator.ResourceIndex;
+import com.lovely3x.jsr.generator.ResourceIndexStore;
+import com.lovely3x.jsr.generator.ScanResult;
+import com.lovely3x.jsr.generator.SourceGenerator;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 一个资源根目录的生成器
+ * <p>
+ * 每个资源根目录都有自己的资源索引、模板、生成的文件和调度器,
+ * 一个资源根目录中的文件变化只会重新生成这个资源根目录对应的文件。
+ * 文件事件由 {@link ProjectFileChangeListener} 路由到这里。
+ */
+class ResourceRootGenerator {
+
+    /**
+     * 调度标识: 生成前需要重新扫描资源文件
+     */
+    private static final int FLAG_RESCAN = 1;
+
+    /**
+     * 调度标识: 生成前需要重新读取模板
+     */
+    private static final int FLAG_RECONFIGURE = 1 << 1;
+
+    /**
+     * 调度标识: 资源索引已经增量更新,只需要重新生成
+     */
+    private static final int FLAG_RESOURCES_CHANGED = 1 << 2;
+
+    /**
+     * 资源索引的存储文件,位于项目的 .idea 文件夹中,按照资源文件夹区分
+     */
+    private static final String RESOURCE_INDEX_FILE_FORMAT = "jsr-index-%08x.bin";
+
+    private final Project myProject;
+
+    private final ProjectFileChangeListener mOwner;
+
+    /**
+     * 新的配置,在下一次生成时生效
+     */
+    private volatile RootConfig mPendingRootConfig;
+
+    /**
+     * 当前使用的配置
+     */
+    private RootConfig mRootConfig;
+
+    /**
+     * 最新的资源文件过滤器,文件事件和扫描都使用它
+     */
+    private volatile ResourceFilter mFilter;
+
+    /**
+     * 生成器,第一个使用切分好的模板生成源代码文件
+     */
+    private List<Emitter> mEmitters;
+
+    private final RegenerateScheduler mRegenerateScheduler;
+
+    private final ResourceIndex mResourceIndex = new ResourceIndex();
+
+    /**
+     * 生成任务的序号,新的生成请求或者资源文件事件都会使正在执行的生成任务过期
+     */
+    private final AtomicLong mGenerationStamp = new AtomicLong();
+
+    /**
+     * 尚未完成的调度标识,被取消的生成任务会把它的标识放回来
+     */
+    private final AtomicInteger mPendingFlags = new AtomicInteger();
+
+    /**
+     * 等待扫描的新文件夹(相对路径前缀)
+     */
+    private final Set<String> mPendingDirScans = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 保证同一时刻只有一个生成任务在执行
+     */
+    private final Object mGenerationLock = new Object();
+
+    private volatile ProgressIndicator mRunningIndicator;
+
+    /**
+     * 下一次完整扫描是否可以使用上次关闭项目时保存的索引(只有打开项目后的第一次扫描可以使用)
+     */
+    private boolean mUseStoredIndex;
+
+    /**
+     * 资源索引是否和磁盘一致(完整扫描过并且没有等待扫描的文件夹),只有完整的索引才会被保存
+     */
+    private volatile boolean mResourceIndexComplete;
+
+    /**
+     * 最近一次完整扫描使用的过滤器
+     */
+    private ResourceFilter mScannedFilter = ResourceFilter.ALL;
+
+    private final File mResourceBaseFile;
+
+    /**
+     * 资源文件夹的绝对路径,使用 '/' 分隔,和 {@link VirtualFile#getPath()} 保持一致
+     */
+    private final String mResourceBasePath;
+
+    /**
+     * 生成的资源路径的前缀,例如 res/
+     */
+    private final String mResourcePathPrefix;
+
+    ResourceRootGenerator(Project project, ProjectFileChangeListener owner, RootConfig rootConfig,
+                          ScheduledExecutorService executor, long quietMillis, long maxDelayMillis) {
+        this.myProject = project;
+        this.mOwner = owner;
+        this.mPendingRootConfig = rootConfig;
+        this.mRootConfig = rootConfig;
+        this.mFilter = rootConfig.getFilter();
+
+        this.mResourceBaseFile = rootConfig.resolveResourceDir(project.getBasePath());
+        this.mResourceBasePath = toResourceBasePath(project.getBasePath(), rootConfig);
+        this.mResourcePathPrefix = rootConfig.getResourcePathPrefix();
+
+        this.mRegenerateScheduler = new RegenerateScheduler(executor, quietMillis, maxDelayMillis, this::onRegenerate,
+                e -> ProjectFileChangeListener.LOG.error("Regenerate " + mResourceBasePath + " failed", e));
+    }
+
+    /**
+     * 资源文件夹的绝对路径,使用 '/' 分隔
+     *
+     * @param projectBasePath 项目根目录
+     * @param rootConfig      资源根目录的配置
+     * @return 绝对路径
+     */
+    static String toResourceBasePath(String projectBasePath, RootConfig rootConfig) {
+        return FileUtil.toSystemIndependentName(rootConfig.resolveResourceDir(projectBasePath).getAbsolutePath());
+    }
+
+    String getResourceBasePath() {
+        return mResourceBasePath;
+    }
+
+    /**
+     * 获取文件相对于资源文件夹的路径
+     *
+     * @param path 文件路径
+     * @return 相对路径, 如果不属于资源文件夹则返回null
+     */
+    @Nullable
+    private String relativeResourcePath(String path) {
+        return ResourceIndex.relativize(mResourceBasePath, path);
+    }
+
+    /**
+     * 同一批文件事件对这个资源根目录产生的修改
+     */
+    static final class Changes {
+
+        private final ResourceIndex.Batch mBatch = new ResourceIndex.Batch();
+
+        /**
+         * 产生修改的事件数量
+         */
+        private int mEvents;
+
+        /**
+         * 是否有新的文件夹等待扫描
+         */
+        private boolean mDirectoriesAdded;
+
+        /**
+         * 是否有需要重新生成的内容变化
+         */
+        private boolean mContentsChanged;
+    }
+
+    /**
+     * 资源文件被创建(或者被移动、重命名、复制到资源文件夹中)
+     *
+     * @param path      被创建的文件的路径
+     * @param file      被创建的文件,找不到时为null
+     * @param directory 是否是文件夹
+     * @param changes   这一批事件的修改
+     */
+    void onResourceCreated(String path, @Nullable VirtualFile file, boolean directory, Changes changes) {
+        String relativePath = relativeResourcePath(path);
+        if (relativePath == null || relativePath.isEmpty()) return;
+        //隐藏的文件扫描时同样会跳过,隐藏的文件夹仍然会被扫描
+        if (!directory && (file == null ? ResourceFilter.isHiddenPath(relativePath) : isHidden(file))) return;
+
+        ResourceFilter filter = mFilter;
+        if (directory) {
+            if (filter.isExcludedDirectory(relativePath) || filter.isInExcludedDirectory(relativePath)) return;
+        } else if (file == null ? filter.isInExcludedDirectory(relativePath) : !filter.accept(relativePath)) {
+            return;
+        }
+
+        changes.mEvents++;
+        if (directory || file == null) {
+            //文件夹被整体复制或移动进来,只需要在生成时扫描这个文件夹;
+            //找不到文件时退而扫描它所在的文件夹
+            int index = relativePath.lastIndexOf('/');
+            String prefix = directory ? relativePath + '/' : index < 0 ? "" : relativePath.substring(0, index + 1);
+            changes.mDirectoriesAdded |= mPendingDirScans.add(prefix);
+            return;
+        }
+
+        changes.mBatch.add(new ResourceEntry(relativePath, file.getLength(), file.getTimeStamp()));
+    }
+
+    /**
+     * 资源文件被删除(或者被移动、重命名出资源文件夹)
+     *
+     * @param path      被删除的文件的原路径
+     * @param directory 是否是文件夹
+     * @param changes   这一批事件的修改
+     */
+    void onResourceDeleted(String path, boolean directory, Changes changes) {
+        String relativePath = relativeResourcePath(path);
+        if (relativePath == null) return;
+        //和创建事件使用相同的过滤,不在索引中的文件不需要处理
+        ResourceFilter filter = mFilter;
+        if (directory) {
+            if (!relativePath.isEmpty()
+                    && (filter.isExcludedDirectory(relativePath) || filter.isInExcludedDirectory(relativePath))) {
+                return;
+            }
+        } else if (ResourceFilter.isHiddenPath(relativePath) || !filter.accept(relativePath)) {
+            return;
+        }
+
+        changes.mEvents++;
+        changes.mBatch.remove(relativePath);
+    }
+
+    /**
+     * 资源文件的内容发生了变化,路径没有变化,只需要更新索引中的大小和修改时间
+     *
+     * @param file    发生变化的文件
+     * @param changes 这一批事件的修改
+     */
+    void onResourceContentsChanged(VirtualFile file, Changes changes) {
+        String relativePath = relativeResourcePath(file.getPath());
+        if (relativePath != null && !relativePath.isEmpty() && !file.isDirectory()
+                && mFilter.accept(relativePath) && !isHidden(file)) {
+            changes.mBatch.add(new ResourceEntry(relativePath, file.getLength(), file.getTimeStamp()));
+            //元数据清单和内容摘要都和文件内容有关,需要重新生成;生成时重新打包的图集除外
+            if (mPendingRootConfig.isContentSensitive() && !mOwner.getSourceGenerator().getGeneratedFiles()
+                    .isUnchanged(file.getPath(), file.getLength(), file.getTimeStamp())) {
+                changes.mEvents++;
+                changes.mContentsChanged = true;
+            }
+        }
+    }
+
+    /**
+     * 把一批事件的修改应用到资源索引,资源发生了变化时调度一次生成
+     *
+     * @param changes 这一批事件的修改
+     */
+    void apply(Changes changes) {
+        boolean changed = mResourceIndex.apply(changes.mBatch);
+        if (changed || changes.mDirectoriesAdded || changes.mContentsChanged) {
+            //正在执行的生成任务已经过期
+            cancelRunningGeneration();
+            mRegenerateScheduler.schedule(FLAG_RESOURCES_CHANGED, Math.max(1, changes.mEvents));
+        }
+    }
+
+    /**
+     * 判断文件是否是隐藏的,和扫描使用相同的规则 {@link ResourceFilter#isHidden(String, boolean)},
+     * 只使用VFS中已经缓存的属性,不会访问磁盘
+     *
+     * @param file 文件
+     * @return true or false
+     */
+    private static boolean isHidden(VirtualFile file) {
+        return ResourceFilter.isHidden(file.getName(), file.is(VFileProperty.HIDDEN));
+    }
+
+    /**
+     * 项目打开后的第一次生成,可以使用上次关闭项目时保存的索引
+     */
+    void open() {
+        synchronized (mGenerationLock) {
+            mUseStoredIndex = true;
+        }
+        mRegenerateScheduler.scheduleNow(FLAG_RECONFIGURE | FLAG_RESCAN);
+    }
+
+    /**
+     * 重新读取模板,完整扫描资源文件并生成,不等待窗口期
+     */
+    void rebuild() {
+        cancelRunningGeneration();
+        mRegenerateScheduler.scheduleNow(FLAG_RECONFIGURE | FLAG_RESCAN);
+    }
+
+    /**
+     * 配置发生了变化,重新读取模板并生成
+     *
+     * @param rootConfig     新的配置,资源文件夹和原来的相同
+     * @param quietMillis    安静窗口期
+     * @param maxDelayMillis 最大等待时间
+     */
+    void reconfigure(RootConfig rootConfig, long quietMillis, long maxDelayMillis) {
+        mPendingRootConfig = rootConfig;
+        mRegenerateScheduler.setDelays(quietMillis, maxDelayMillis);
+        cancelRunningGeneration();
+
+        //过滤规则变化了,索引中的文件可能已经不再需要,或者缺少新包含的文件
+        boolean filterChanged = !mFilter.equals(rootConfig.getFilter());
+        mFilter = rootConfig.getFilter();
+        mRegenerateScheduler.schedule(filterChanged ? FLAG_RECONFIGURE | FLAG_RESCAN : FLAG_RECONFIGURE);
+    }
+
+    /**
+     * 使正在执行的生成任务过期并取消它,过期的任务不会再写入生成的文件
+     */
+    void cancelRunningGeneration() {
+        mGenerationStamp.incrementAndGet();
+        ProgressIndicator indicator = mRunningIndicator;
+        if (indicator != null) indicator.cancel();
+    }
+
+    /**
+     * 停止这个资源根目录的生成,资源根目录被移除或者项目被关闭时调用
+     */
+    void dispose() {
+        mRegenerateScheduler.shutdown();
+        cancelRunningGeneration();
+    }
+
+    /**
+     * 调度器在窗口期结束后的回调,启动一个后台生成任务
+     *
+     * @param flags          合并后的调度标识
+     * @param absorbedEvents 本次生成合并的事件数量
+     */
+    private void onRegenerate(int flags, int absorbedEvents) {
+        mPendingFlags.accumulateAndGet(flags, (a, b) -> a | b);
+        cancelRunningGeneration();
+        long stamp = mGenerationStamp.get();
+
+        ApplicationManager.getApplication().invokeLater(() -> {
+            if (myProject.isDisposed()) return;
+
+            ProgressManager.getInstance().run(new Task.Backgroundable(myProject, "Generating resource file", true) {
+                @Override
+                public void run(@NotNull ProgressIndicator indicator) {
+                    runGeneration(stamp, absorbedEvents, indicator);
+                }
+            });
+        });
+    }
+
+    /**
+     * 在后台线程中执行一次生成,同一时刻只会有一个生成任务在执行
+     *
+     * @param stamp          任务序号,不是最新的任务时不会执行
+     * @param absorbedEvents 本次生成合并的事件数量
+     * @param indicator      进度
+     */
+    private void runGeneration(long stamp, int absorbedEvents, ProgressIndicator indicator) {
+        synchronized (mGenerationLock) {
+            if (stamp != mGenerationStamp.get()) return;
+
+            mRunningIndicator = indicator;
+            int flags = mPendingFlags.getAndSet(0);
+            try {
+                GenerationMetrics metrics = new GenerationMetrics(mResourceBasePath);
+                generateSourceFile(flags, stamp, metrics, indicator);
+                metrics.setEvents(absorbedEvents,
+                        mRegenerateScheduler.getTotalEvents(), mRegenerateScheduler.getTotalRuns());
+                metrics.finish();
+                mOwner.onGenerated(mResourcePathPrefix, metrics);
+            } catch (ProcessCanceledException | CancellationException e) {
+                //被取消了,把没有完成的工作留给下一个任务
+                mPendingFlags.accumulateAndGet(flags, (a, b) -> a | b);
+                if (stamp == mGenerationStamp.get() && !indicator.isCanceled()) {
+                    //不是被更新的请求取消的(例如扫描期间索引被修改了),需要重新调度
+                    mRegenerateScheduler.schedule(flags);
+                }
+            } catch (IllegalArgumentException e) {
+                ProjectFileChangeListener.LOG.warn(e.getMessage());
+            } catch (IOException e) {
+                ProjectFileChangeListener.LOG.warn("Generate source file failed", e);
+            } finally {
+                mRunningIndicator = null;
+            }
+        }
+    }
+
+    /**
+     * 任务是否已经过期或者被取消
+     */
+    private boolean isCanceled(long stamp, ProgressIndicator indicator) {
+        return stamp != mGenerationStamp.get() || indicator.isCanceled();
+    }
+
+    private void checkCanceled(long stamp, ProgressIndicator indicator) {
+        if (isCanceled(stamp, indicator)) throw new ProcessCanceledException();
+    }
+
+    /**
+     * 生成源码文件
+     *
+     * @param flags     调度标识
+     * @param stamp     任务序号
+     * @param metrics   本次生成的统计数据
+     * @param indicator 进度
+     * @throws ProcessCanceledException 任务过期或者被取消
+     */
+    private void generateSourceFile(int flags, long stamp, GenerationMetrics metrics, ProgressIndicator indicator)
+            throws IOException {
+        if ((flags & FLAG_RECONFIGURE) != 0 || mEmitters == null) {
+            indicator.setText("Loading jsr configuration");
+            mRootConfig = mPendingRootConfig;
+            //模板有语法错误时下次生成重新加载
+            mEmitters = null;
+            mEmitters = mOwner.getSourceGenerator().createEmitters(myProject.getBasePath(), mRootConfig);
+        }
+
+        NameConverter nameConverter = mOwner.getNameConverter();
+
+        indicator.setText("Scanning resources");
+        if ((flags & FLAG_RESCAN) != 0) scanResources(nameConverter, stamp, metrics, indicator);
+        scanPendingDirectories(stamp, indicator);
+
+        //内容没有变化的文件不会被写入,变化的文件只替换变化的行,IDE只需要重新解析这一部分;
+        //打包的图集和图片版本直接写入磁盘,生成结束后(包括被取消时)一起刷新VFS
+        List<File> directWrites = new ArrayList<>();
+        try {
+            generate(nameConverter, stamp, metrics, indicator, directWrites);
+        } finally {
+            if (!directWrites.isEmpty()) {
+                LocalFileSystem.getInstance().refreshIoFiles(directWrites, true, false, null);
+            }
+        }
+    }
+
+    /**
+     * 使用当前的索引生成所有文件
+     *
+     * @param directWrites 收集直接写入磁盘的文件
+     */
+    private void generate(NameConverter nameConverter, long stamp, GenerationMetrics metrics,
+                          ProgressIndicator indicator, List<File> directWrites) throws IOException {
+        mOwner.getSourceGenerator().generate(myProject.getBasePath(), mRootConfig, mEmitters,
+                nameConverter, mResourceIndex.entries(), metrics, new SourceGenerator.Callback() {
+                    @Override
+                    public boolean isCanceled() {
+                        return ResourceRootGenerator.this.isCanceled(stamp, indicator);
+                    }
+
+                    @Override
+                    public void onProgress(String text) {
+                        indicator.setText(text);
+                    }
+
+                    @Override
+                    public void onDuplicatesFound(List<DuplicateSet> duplicates) {
+                        mOwner.onDuplicatesFound(mResourcePathPrefix, duplicates);
+                    }
+
+                    @Override
+                    public void onFileWritten(File written, boolean direct) {
+                        //生成的源代码文件已经通过文档通知了IDE
+                        if (!direct) return;
+
+                        //打包的图集先加入索引,刷新VFS产生的创建事件不会再改变索引,也就不会再生成一次
+                        String relativePath = relativeResourcePath(FileUtil.toSystemIndependentName(written.getAbsolutePath()));
+                        if (relativePath != null && !relativePath.isEmpty() && mFilter.accept(relativePath)) {
+                            mResourceIndex.add(new ResourceEntry(relativePath, written.length(), written.lastModified()));
+                        }
+                        directWrites.add(written);
+                    }
+                });
+    }
+
+    /**
+     * 查找索引中内容相同的资源文件,结果会同步到重复资源窗口
+     *
+     * @param entries   资源文件
+     * @param cancelled 是否已经被取消
+     * @return 重复的文件
+     */
+    List<DuplicateSet> findDuplicates(List<ResourceEntry> entries, BooleanSupplier cancelled) {
+        List<DuplicateSet> duplicates = mOwner.getSourceGenerator().findDuplicates(mResourceBaseFile, entries, cancelled);
+        mOwner.onDuplicatesFound(mResourcePathPrefix, duplicates);
+        return duplicates;
+    }
+
+    /**
+     * 查找当前索引中内容相同的资源文件
+     */
+    List<DuplicateSet> findDuplicates(BooleanSupplier cancelled) {
+        return findDuplicates(mResourceIndex.entries(), cancelled);
+    }
+
+    String getResourcePathPrefix() {
+        return mResourcePathPrefix;
+    }
+
+    /**
+     * 完整扫描需要生成源代码的资源,重建资源索引
+     * 只在项目打开或者用户主动重新生成时调用,其他时候索引通过文件事件增量更新。
+     * 打开项目后的第一次扫描会使用上次关闭项目时保存的索引,只重新扫描修改时间发生了变化的文件夹
+     */
+    private void scanResources(NameConverter nameConverter, long stamp, GenerationMetrics metrics,
+                               ProgressIndicator indicator) {
+        long scanStart = System.nanoTime();
+        long version = mResourceIndex.getVersion();
+        ResourceFilter filter = mFilter;
+        mPendingDirScans.clear();
+        mResourceIndexComplete = false;
+
+        IndexSnapshot previous = null;
+        if (mUseStoredIndex) {
+            ResourceIndexStore.Stored stored = ResourceIndexStore.load(getResourceIndexFile(),
+                    mResourceBasePath, filter.getFingerprint());
+            if (stored != null) {
+                previous = stored.getSnapshot();
+                if (stored.getRuleFingerprint().equals(nameConverter.getRuleFingerprint())) {
+                    nameConverter.seed(stored.getIdentifiers());
+                }
+            }
+        }
+
+        ScanResult result = mOwner.getResourceScanner()
+                .scan(mResourceBaseFile.toPath(), "", previous, filter, () -> isCanceled(stamp, indicator));
+
+        //扫描期间有文件事件到达,扫描结果可能已经过期了
+        if (!mResourceIndex.replaceAll(result, version)) throw new ProcessCanceledException();
+
+        mUseStoredIndex = false;
+        mScannedFilter = filter;
+        mResourceIndexComplete = true;
+        metrics.setScan((System.nanoTime() - scanStart) / 1000000, result);
+    }
+
+    /**
+     * 扫描被整体复制或移动到资源文件夹中的文件夹,并添加到资源索引中
+     */
+    private void scanPendingDirectories(long stamp, ProgressIndicator indicator) {
+        for (String relativePrefix : new ArrayList<>(mPendingDirScans)) {
+            File dir = new File(mResourceBaseFile, relativePrefix);
+            mResourceIndex.addAll(mOwner.getResourceScanner()
+                    .scan(dir.toPath(), relativePrefix, null, mFilter, () -> isCanceled(stamp, indicator)));
+            mPendingDirScans.remove(relativePrefix);
+        }
+    }
+
+    private File getResourceIndexFile() {
+        return new File(new File(myProject.getBasePath(), Project.DIRECTORY_STORE_FOLDER),
+                String.format(Locale.US, RESOURCE_INDEX_FILE_FORMAT, mResourceBasePath.hashCode()));
+    }
+
+    /**
+     * 把资源索引保存到项目的 .idea 文件夹中,下次打开项目时使用
+     */
+    void saveResourceIndex() {
+        File file = getResourceIndexFile();
+        if (!file.getParentFile().isDirectory()) return;
+
+        synchronized (mGenerationLock) {
+            if (!mResourceIndexComplete || !mPendingDirScans.isEmpty()
+                    || (mPendingFlags.get() & FLAG_RESCAN) != 0 || !mScannedFilter.equals(mFilter)) {
+                //不完整的索引不能保存,否则下次打开项目时会漏掉文件
+                if (file.exists() && !file.delete()) {
+                    ProjectFileChangeListener.LOG.warn("Can not delete stale resource index " + file);
+                }
+                return;
+            }
+
+            try {
+                ResourceIndexStore.save(file, mResourceBasePath, mResourcePathPrefix, mScannedFilter.getFingerprint(),
+                        mResourceIndex.entries(), mResourceIndex.directories(), mOwner.getNameConverter());
+            } catch (IOException e) {
+                ProjectFileChangeListener.LOG.warn("Save resource index failed", e);
+            }
+        }
+    }
+
+    private void log(String msg) {
+        mOwner.log(msg);
+    }
+}
@@ -0,0 +1,91 @@
+package com.lovely3x.jsr.ui;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.lovely3x.jsr.generator.DuplicateSet;
+import com.lovely3x.jsr.listener.ProjectFileChangeListener;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTree;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import java.awt.BorderLayout;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 按可以节省的大小列出内容相同的资源文件,每一组的第一个文件是保留的文件
+ */
+class DuplicatesPanel extends JPanel implements Disposable {
+
+    private final ProjectFileChangeListener mGenerator;
+
+    private final JTree mTree = new JTree(new DefaultMutableTreeNode());
+
+    private final JLabel mSummary = new JLabel();
+
+    /**
+     * 查找完成后在界面线程中刷新
+     */
+    private final Runnable mListener = () -> ApplicationManager.getApplication().invokeLater(this::refresh);
+
+    DuplicatesPanel(ProjectFileChangeListener generator) {
+        super(new BorderLayout());
+        this.mGenerator = generator;
+
+        JButton analyze = new JButton("Find duplicates");
+        analyze.addActionListener(e -> mGenerator.analyzeDuplicates());
+
+        JPanel header = new JPanel(new BorderLayout());
+        header.setBorder(BorderFactory.createEmptyBorder(2, 4, 2, 4));
+        header.add(mSummary, BorderLayout.CENTER);
+        header.add(analyze, BorderLayout.EAST);
+
+        mTree.setRootVisible(false);
+        mTree.setShowsRootHandles(true);
+        add(header, BorderLayout.NORTH);
+        add(new JScrollPane(mTree), BorderLayout.CENTER);
+
+        mGenerator.addDuplicatesListener(mListener);
+        refresh();
+    }
+
+    private void refresh() {
+        DefaultMutableTreeNode root = new DefaultMutableTreeNode();
+        int sets = 0;
+        long wasted = 0;
+        for (Map.Entry<String, List<DuplicateSet>> entry : mGenerator.getDuplicates().entrySet()) {
+            String prefix = entry.getKey();
+            for (DuplicateSet set : entry.getValue()) {
+                DefaultMutableTreeNode node = new DefaultMutableTreeNode(String.format(Locale.US,
+                        "%d copies of %s, %s wasted", set.getPaths().size(), formatSize(set.getSize()),
+                        formatSize(set.getWastedBytes())));
+                for (String path : set.getPaths()) {
+                    node.add(new DefaultMutableTreeNode(prefix + path));
+                }
+                root.add(node);
+                sets++;
+                wasted += set.getWastedBytes();
+            }
+        }
+        mTree.setModel(new DefaultTreeModel(root));
+        mSummary.setText(sets == 0 ? "No duplicate resources found"
+                : String.format(Locale.US, "%d duplicate set(s), %s can be saved", sets, formatSize(wasted)));
+    }
+
+    private static String formatSize(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format(Locale.US, "%.1f KB", bytes / 1024.0);
+        return String.format(Locale.US, "%.1f MB", bytes / (1024.0 * 1024));
+    }
+
+    @Override
+    public void dispose() {
+        mGenerator.removeDuplicatesListener(mListener);
+    }
+}
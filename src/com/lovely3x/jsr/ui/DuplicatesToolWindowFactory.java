@@ -0,0 +1,26 @@
+package com.lovely3x.jsr.ui;
+
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import com.lovely3x.jsr.listener.ProjectFileChangeListener;
+
+/**
+ * 重复资源窗口
+ */
+public class DuplicatesToolWindowFactory implements ToolWindowFactory, DumbAware {
+
+    @Override
+    public void createToolWindowContent(Project project, ToolWindow toolWindow) {
+        ProjectFileChangeListener generator = project.getUserData(ProjectFileChangeListener.USER_DATA_KEY_JSR_GENERATOR);
+        if (generator == null) return;
+
+        DuplicatesPanel panel = new DuplicatesPanel(generator);
+        Content content = ContentFactory.SERVICE.getInstance().createContent(panel, "", false);
+        content.setDisposer(panel);
+        toolWindow.getContentManager().addContent(content);
+    }
+}
@@ -0,0 +1,121 @@
+package com.lovely3x.jsr.ui;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.wm.StatusBar;
+import com.intellij.openapi.wm.StatusBarWidget;
+import com.intellij.util.Consumer;
+import com.lovely3x.jsr.generator.GenerationMetrics;
+import com.lovely3x.jsr.listener.ProjectFileChangeListener;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.event.MouseEvent;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 状态栏中显示每个资源根目录最近一次生成的统计数据
+ */
+public class GenerationStatusWidget implements StatusBarWidget, StatusBarWidget.TextPresentation {
+
+    public static final String ID = "JsrGenerationStatus";
+
+    private final ProjectFileChangeListener mGenerator;
+
+    private StatusBar mStatusBar;
+
+    /**
+     * 生成完成后在界面线程中刷新
+     */
+    private final Runnable mListener = () -> ApplicationManager.getApplication().invokeLater(() -> {
+        StatusBar statusBar = mStatusBar;
+        if (statusBar != null) statusBar.updateWidget(ID);
+    });
+
+    public GenerationStatusWidget(ProjectFileChangeListener generator) {
+        this.mGenerator = generator;
+        mGenerator.addMetricsListener(mListener);
+    }
+
+    @NotNull
+    @Override
+    public String ID() {
+        return ID;
+    }
+
+    @Nullable
+    @Override
+    public WidgetPresentation getPresentation(@NotNull PlatformType type) {
+        return this;
+    }
+
+    @Override
+    public void install(@NotNull StatusBar statusBar) {
+        mStatusBar = statusBar;
+    }
+
+    @NotNull
+    @Override
+    public String getText() {
+        Map<String, GenerationMetrics> metrics = mGenerator.getLastMetrics();
+        if (metrics.isEmpty()) return "JSR: idle";
+
+        int files = 0;
+        long millis = 0;
+        for (GenerationMetrics m : metrics.values()) {
+            files += m.getFileCount();
+            millis = Math.max(millis, m.getTotalMillis());
+        }
+        return String.format(Locale.US, "JSR: %d files, %d ms", files, millis);
+    }
+
+    @NotNull
+    @Override
+    public String getMaxPossibleText() {
+        return "JSR: 000000 files, 00000 ms";
+    }
+
+    @Override
+    public float getAlignment() {
+        return 0.5f;
+    }
+
+    @Nullable
+    @Override
+    public String getTooltipText() {
+        Map<String, GenerationMetrics> metrics = mGenerator.getLastMetrics();
+        if (metrics.isEmpty()) return "No resource file generated yet";
+
+        StringBuilder tooltip = new StringBuilder("<html>");
+        for (Map.Entry<String, GenerationMetrics> entry : metrics.entrySet()) {
+            GenerationMetrics m = entry.getValue();
+            tooltip.append(String.format(Locale.US, "<b>%s</b> %d files, scan %d ms, hash %d ms, render %d ms"
+                            + "<br>%d event(s) in this run, %d event(s) / %d run(s) in total"
+                            + "<br>%d file(s) written (%d bytes), %d unchanged<br>",
+                    entry.getKey().isEmpty() ? "/" : entry.getKey(), m.getFileCount(), m.getScanMillis(),
+                    m.getHashMillis(), m.getRenderMillis(), m.getEvents(), m.getTotalEvents(), m.getTotalRuns(),
+                    m.getFilesWritten(), m.getBytesWritten(), m.getWritesSkipped()));
+            if (m.getAtlasesPacked() + m.getAtlasesReused() > 0) {
+                tooltip.append(String.format(Locale.US, "%d atlas(es) packed, %d reused in %d ms<br>",
+                        m.getAtlasesPacked(), m.getAtlasesReused(), m.getPackMillis()));
+            }
+            if (m.getVariantsWritten() + m.getVariantsReused() > 0) {
+                tooltip.append(String.format(Locale.US, "%d image variant(s) written, %d reused in %d ms<br>",
+                        m.getVariantsWritten(), m.getVariantsReused(), m.getVariantsMillis()));
+            }
+        }
+        return tooltip.append("</html>").toString();
+    }
+
+    @Nullable
+    @Override
+    public Consumer<MouseEvent> getClickConsumer() {
+        return null;
+    }
+
+    @Override
+    public void dispose() {
+        mGenerator.removeMetricsListener(mListener);
+        mStatusBar = null;
+    }
+}